@@ -0,0 +1,76 @@
+package com.example.retirementsavings.benchmark;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.FixedDateTimeDeserializer;
+import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.ValueDeserializer;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// transactions:parse bodies with "fixed" (the DTOs' digit-arithmetic date handling) against
+// "pattern" (Jackson's DateTimeFormatter-based handling, restored with a mix-in).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonDateBenchmark {
+
+	@Param({"100000", "1000000"})
+	private int transactionCount;
+
+	@Param({"pattern", "fixed"})
+	private String dates;
+
+	private ObjectReader expenseReader;
+	private ObjectWriter transactionWriter;
+	private byte[] expenseBody;
+	private List<TransactionOutput> transactions;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		JsonMapper.Builder builder = JsonMapper.builder();
+		if ("pattern".equals(dates)) {
+			builder.addMixIn(ExpenseInput.class, PatternDate.class);
+		}
+		JsonMapper jsonMapper = builder.build();
+		expenseReader = jsonMapper.readerForListOf(ExpenseInput.class);
+		transactionWriter = jsonMapper.writerFor(jsonMapper.getTypeFactory().constructCollectionType(List.class, TransactionOutput.class));
+		expenseBody = jsonMapper.writeValueAsBytes(SyntheticData.expenses(transactionCount));
+		transactions = SyntheticData.transactions(transactionCount);
+	}
+
+	@Benchmark
+	public List<ExpenseInput> readExpenses() throws Exception {
+		return expenseReader.readValue(expenseBody);
+	}
+
+	@Benchmark
+	public byte[] writeTransactions() throws Exception {
+		return transactionWriter.writeValueAsBytes(transactions);
+	}
+
+	private abstract static class PatternDate {
+
+		@JsonFormat(pattern = FixedDateTimeDeserializer.PATTERN)
+		@JsonDeserialize(using = ValueDeserializer.None.class)
+		@JsonSerialize(using = ValueSerializer.None.class)
+		private LocalDateTime date;
+	}
+}
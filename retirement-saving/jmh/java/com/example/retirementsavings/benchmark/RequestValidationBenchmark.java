@@ -0,0 +1,91 @@
+package com.example.retirementsavings.benchmark;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import com.example.retirementsavings.service.RequestConstraints;
+import jakarta.validation.Valid;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Request body checks, Hibernate Validator ("reflective") against the hand-written
+// RequestConstraints ("fast"). "filter" is a @Valid transactions:filter body, as MVC validates it
+// with retirement.validation.fast off and on. "parse" is a bare transactions:parse list: reflective
+// is the method validation a List<@Valid ExpenseInput> handler parameter triggers, fast is the
+// check the handler now runs itself.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RequestValidationBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	private int transactionCount;
+
+	@Param({"filter", "parse"})
+	private String body;
+
+	@Param({"reflective", "fast"})
+	private String validator;
+
+	private ValidatorFactory validatorFactory;
+	private Validator reflective;
+	private TransactionFilterRequest request;
+	private Object[] parseArguments;
+	private Method parseMethod;
+	private final ParseHandler parseHandler = new ParseHandler();
+
+	@Setup(Level.Trial)
+	public void setUp() throws NoSuchMethodException {
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+		reflective = validatorFactory.getValidator();
+		request = new TransactionFilterRequest(
+				SyntheticData.qPeriods(10, 0.1),
+				SyntheticData.pPeriods(10, 0.1),
+				SyntheticData.kPeriods(10, 0.1),
+				50_000.0,
+				SyntheticData.expenses(transactionCount)
+		);
+		parseArguments = new Object[] {request.transactions()};
+		parseMethod = ParseHandler.class.getMethod("parse", List.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		validatorFactory.close();
+	}
+
+	@Benchmark
+	public int validate() {
+		if ("parse".equals(body)) {
+			if ("fast".equals(validator)) {
+				RequestConstraints.requireValidExpenses(request.transactions());
+				return 0;
+			}
+			return reflective.forExecutables().validateParameters(parseHandler, parseMethod, parseArguments).size();
+		}
+		return "fast".equals(validator)
+				? RequestConstraints.check(request).size()
+				: reflective.validate(request).size();
+	}
+
+	// The transactions:parse signature before its list was checked in the handler.
+	public static class ParseHandler {
+
+		public void parse(List<@Valid ExpenseInput> expenses) {
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.example.retirementsavings.benchmark;
+
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
+import com.example.retirementsavings.service.ReturnsCalculationService;
+import com.example.retirementsavings.service.TransactionBuilder;
+import com.example.retirementsavings.service.TransactionFilterService;
+import com.example.retirementsavings.service.TransactionRulesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReturnsCalculationBenchmark {
+
+	@Param({"1000", "100000", "1000000", "10000000"})
+	private int transactionCount;
+
+	// Number of q, p and k periods each; k drives the number of savings windows in the response.
+	@Param({"0", "10", "1000"})
+	private int periodCount;
+
+	// Period length as a fraction of the year.
+	@Param({"0.01", "0.1", "0.5"})
+	private double overlap;
+
+	private ReturnsCalculationService service;
+	private ReturnsCalculationRequest request;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		service = new ReturnsCalculationService(
+				new TransactionFilterService(new TransactionBuilder(), new TransactionRulesService())
+		);
+		request = new ReturnsCalculationRequest(
+				29,
+				600_000.0,
+				5.5,
+				SyntheticData.qPeriods(periodCount, overlap),
+				SyntheticData.pPeriods(periodCount, overlap),
+				SyntheticData.kPeriods(periodCount, overlap),
+				SyntheticData.expenses(transactionCount)
+		);
+	}
+
+	@Benchmark
+	public ReturnsCalculationResponse calculateNps() {
+		return service.calculateNps(request);
+	}
+
+	@Benchmark
+	public ReturnsCalculationResponse calculateIndex() {
+		return service.calculateIndex(request);
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.retirementsavings.benchmark;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.KPeriodInput;
+import com.example.retirementsavings.api.dto.PPeriodInput;
+import com.example.retirementsavings.api.dto.QPeriodInput;
+import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.example.retirementsavings.service.TransactionBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Seeded generator for benchmark inputs, so every run and every fork sees the same data.
+// Transactions are spread over one year; a small share are exact duplicates or negative amounts
+// so that the dedup and validation branches are exercised as they are in real traffic.
+final class SyntheticData {
+
+	static final long SEED = 20260101L;
+	static final LocalDateTime BASE = LocalDateTime.of(2023, 1, 1, 0, 0);
+	static final int SPAN_SECONDS = 365 * 24 * 60 * 60;
+	private static final int DUPLICATE_ONE_IN = 100;
+	private static final int NEGATIVE_ONE_IN = 200;
+
+	private SyntheticData() {
+	}
+
+	static List<ExpenseInput> expenses(int count) {
+		Random random = new Random(SEED);
+		List<ExpenseInput> expenses = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			if (i > 0 && random.nextInt(DUPLICATE_ONE_IN) == 0) {
+				ExpenseInput original = expenses.get(random.nextInt(i));
+				expenses.add(new ExpenseInput(original.getDate(), original.getAmount()));
+				continue;
+			}
+			double amount = Math.round(random.nextDouble() * 100_000.0) / 100.0;
+			if (random.nextInt(NEGATIVE_ONE_IN) == 0) {
+				amount = -amount;
+			}
+			expenses.add(new ExpenseInput(BASE.plusSeconds(random.nextInt(SPAN_SECONDS)), amount));
+		}
+		return expenses;
+	}
+
+	static List<TransactionOutput> transactions(int count) {
+		return new TransactionBuilder().getCeilingAndRemnantForTranscations(expenses(count));
+	}
+
+	// overlap is the length of each period as a fraction of the year, so on average
+	// count * overlap periods of each kind are active at any instant.
+	static List<QPeriodInput> qPeriods(int count, double overlap) {
+		Random random = new Random(SEED + 1);
+		List<QPeriodInput> periods = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			LocalDateTime start = periodStart(random);
+			periods.add(new QPeriodInput(random.nextInt(20) * 5.0, start, periodEnd(start, overlap)));
+		}
+		return periods;
+	}
+
+	static List<PPeriodInput> pPeriods(int count, double overlap) {
+		Random random = new Random(SEED + 2);
+		List<PPeriodInput> periods = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			LocalDateTime start = periodStart(random);
+			periods.add(new PPeriodInput(random.nextInt(100) * 0.5, start, periodEnd(start, overlap)));
+		}
+		return periods;
+	}
+
+	static List<KPeriodInput> kPeriods(int count, double overlap) {
+		Random random = new Random(SEED + 3);
+		List<KPeriodInput> periods = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			LocalDateTime start = periodStart(random);
+			periods.add(new KPeriodInput(start, periodEnd(start, overlap)));
+		}
+		return periods;
+	}
+
+	private static LocalDateTime periodStart(Random random) {
+		return BASE.plusSeconds(random.nextInt(SPAN_SECONDS));
+	}
+
+	private static LocalDateTime periodEnd(LocalDateTime start, double overlap) {
+		return start.plusSeconds((long) (SPAN_SECONDS * overlap));
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.retirementsavings.benchmark;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.example.retirementsavings.service.TransactionBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransactionBuilderBenchmark {
+
+	@Param({"1000", "100000", "1000000", "10000000"})
+	private int transactionCount;
+
+	// true needs the jdk.incubator.vector module, which the jmh task adds.
+	@Param({"false", "true"})
+	private boolean vectorized;
+
+	private TransactionBuilder builder;
+	private List<ExpenseInput> expenses;
+	private double[] amounts;
+	private double[] ceilings;
+	private double[] remanents;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		builder = new TransactionBuilder(vectorized);
+		expenses = SyntheticData.expenses(transactionCount);
+		amounts = expenses.stream().mapToDouble(ExpenseInput::getAmount).toArray();
+		ceilings = new double[transactionCount];
+		remanents = new double[transactionCount];
+	}
+
+	@Benchmark
+	public List<TransactionOutput> getCeilingAndRemnantForTranscations() {
+		return builder.getCeilingAndRemnantForTranscations(expenses);
+	}
+
+	// Rounding alone on primitive columns, without DTOs, so the scalar and vector loops compare directly.
+	@Benchmark
+	public double[] calculateCeilingAndRemanentBulk() {
+		builder.calculateCeilingAndRemanent(amounts, ceilings, remanents, 0, transactionCount);
+		return remanents;
+	}
+}
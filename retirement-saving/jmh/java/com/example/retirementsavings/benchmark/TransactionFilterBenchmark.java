@@ -0,0 +1,64 @@
+package com.example.retirementsavings.benchmark;
+
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import com.example.retirementsavings.api.dto.TransactionFilterResponse;
+import com.example.retirementsavings.service.PipelineMetrics;
+import com.example.retirementsavings.service.TransactionBuilder;
+import com.example.retirementsavings.service.TransactionFilterService;
+import com.example.retirementsavings.service.TransactionRulesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransactionFilterBenchmark {
+
+	@Param({"1000", "100000", "1000000", "10000000"})
+	private int transactionCount;
+
+	// Number of q, p and k periods each.
+	@Param({"0", "10", "1000"})
+	private int periodCount;
+
+	// Period length as a fraction of the year.
+	@Param({"0.01", "0.1", "0.5"})
+	private double overlap;
+
+	// "sequential" keeps the single-threaded path; "parallel" forces the chunked one.
+	@Param({"sequential", "parallel"})
+	private String mode;
+
+	private TransactionFilterService service;
+	private TransactionFilterRequest request;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		TransactionBuilder builder = new TransactionBuilder();
+		TransactionRulesService rules = new TransactionRulesService();
+		service = "parallel".equals(mode)
+				? new TransactionFilterService(builder, rules, 0, PipelineMetrics.noop())
+				: new TransactionFilterService(builder, rules);
+		request = new TransactionFilterRequest(
+				SyntheticData.qPeriods(periodCount, overlap),
+				SyntheticData.pPeriods(periodCount, overlap),
+				SyntheticData.kPeriods(periodCount, overlap),
+				50_000.0,
+				SyntheticData.expenses(transactionCount)
+		);
+	}
+
+	@Benchmark
+	public TransactionFilterResponse filter() {
+		return service.filter(request);
+	}
+}
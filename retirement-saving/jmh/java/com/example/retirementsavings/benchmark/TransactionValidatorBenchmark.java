@@ -0,0 +1,50 @@
+package com.example.retirementsavings.benchmark;
+
+import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.example.retirementsavings.api.dto.TransactionValidationRequest;
+import com.example.retirementsavings.api.dto.TransactionValidationResponse;
+import com.example.retirementsavings.service.TransactionRulesService;
+import com.example.retirementsavings.service.TransactionValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransactionValidatorBenchmark {
+
+	@Param({"1000", "100000", "1000000", "10000000"})
+	private int transactionCount;
+
+	// Fraction of the total remanent the wage cap allows, so that both the accepting and the
+	// rejecting side of the investment limit are measured.
+	@Param({"0.5", "2.0"})
+	private double capCoverage;
+
+	private TransactionValidator validator;
+	private TransactionValidationRequest request;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		validator = new TransactionValidator(new TransactionRulesService());
+		List<TransactionOutput> transactions = SyntheticData.transactions(transactionCount);
+		double totalRemanent = transactions.stream().mapToDouble(transaction -> Math.max(0.0, transaction.getRemanent())).sum();
+		double wage = Math.max(1.0, totalRemanent * capCoverage / 0.30);
+		request = new TransactionValidationRequest(wage, transactions);
+	}
+
+	@Benchmark
+	public TransactionValidationResponse validate() {
+		return validator.validate(request);
+	}
+}
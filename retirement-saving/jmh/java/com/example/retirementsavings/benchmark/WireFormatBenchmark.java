@@ -0,0 +1,87 @@
+package com.example.retirementsavings.benchmark;
+
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import com.example.retirementsavings.api.dto.TransactionFilterResponse;
+import com.example.retirementsavings.service.ColumnarCodec;
+import com.example.retirementsavings.service.ReturnsCalculationService;
+import com.example.retirementsavings.service.TransactionBuilder;
+import com.example.retirementsavings.service.TransactionFilterService;
+import com.example.retirementsavings.service.TransactionRulesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+// Full request cost as the server sees it: decode the body, compute, encode the response, for
+// JSON and for the columnar binary format.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WireFormatBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	private int transactionCount;
+
+	@Param({"json", "columnar"})
+	private String format;
+
+	private final JsonMapper jsonMapper = new JsonMapper();
+	private TransactionFilterService filterService;
+	private ReturnsCalculationService returnsService;
+	private byte[] filterBody;
+	private byte[] returnsBody;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		filterService = new TransactionFilterService(new TransactionBuilder(), new TransactionRulesService());
+		returnsService = new ReturnsCalculationService(filterService);
+		TransactionFilterRequest filterRequest = new TransactionFilterRequest(
+				SyntheticData.qPeriods(10, 0.1),
+				SyntheticData.pPeriods(10, 0.1),
+				SyntheticData.kPeriods(10, 0.1),
+				50_000.0,
+				SyntheticData.expenses(transactionCount)
+		);
+		ReturnsCalculationRequest returnsRequest = new ReturnsCalculationRequest(
+				29,
+				600_000.0,
+				5.5,
+				filterRequest.q(),
+				filterRequest.p(),
+				filterRequest.k(),
+				filterRequest.transactions()
+		);
+		filterBody = encode(filterRequest, TransactionFilterRequest.class);
+		returnsBody = encode(returnsRequest, ReturnsCalculationRequest.class);
+	}
+
+	@Benchmark
+	public byte[] filter() throws Exception {
+		TransactionFilterRequest request = decode(filterBody, TransactionFilterRequest.class);
+		return encode(filterService.filter(request), TransactionFilterResponse.class);
+	}
+
+	@Benchmark
+	public byte[] calculateNps() throws Exception {
+		ReturnsCalculationRequest request = decode(returnsBody, ReturnsCalculationRequest.class);
+		return encode(returnsService.calculateNps(request), ReturnsCalculationResponse.class);
+	}
+
+	private byte[] encode(Object value, Class<?> type) throws Exception {
+		return "json".equals(format) ? jsonMapper.writeValueAsBytes(value) : ColumnarCodec.write(value, type);
+	}
+
+	private <T> T decode(byte[] body, Class<T> type) throws Exception {
+		return "json".equals(format) ? jsonMapper.readValue(body, type) : type.cast(ColumnarCodec.read(body, type));
+	}
+}
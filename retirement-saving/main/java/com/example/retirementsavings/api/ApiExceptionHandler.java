@@ -0,0 +1,45 @@
+package com.example.retirementsavings.api;
+
+import com.example.retirementsavings.service.InvalidRequestException;
+import com.example.retirementsavings.service.UnknownRuleSetException;
+import com.example.retirementsavings.service.UnknownSessionException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+	// Only InvalidRequestException is a client error; any other exception stays a 500 so internal
+	// failures are neither reported as bad requests nor echo their messages to the client.
+	@ExceptionHandler(InvalidRequestException.class)
+	public void handleInvalidRequest(InvalidRequestException ex, HttpServletResponse response) throws IOException {
+		LOG.info("Rejected request: {}", ex.getMessage());
+		if (response.isCommitted()) {
+			// Part of a streamed body is already on the wire; rethrow so the connection is aborted
+			// instead of ending the stream as if it were complete.
+			throw ex;
+		}
+		response.sendError(HttpStatus.BAD_REQUEST.value(), ex.getMessage());
+	}
+
+	@ExceptionHandler(RejectedExecutionException.class)
+	public void handleComputeSaturated(RejectedExecutionException ex, HttpServletResponse response) throws IOException {
+		LOG.warn("Rejected request: compute pool is saturated");
+		response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is busy, retry later");
+	}
+
+	@ExceptionHandler({UnknownSessionException.class, UnknownRuleSetException.class})
+	public void handleNotFound(RuntimeException ex, HttpServletResponse response) throws IOException {
+		LOG.info("Rejected request: {}", ex.getMessage());
+		response.sendError(HttpStatus.NOT_FOUND.value(), ex.getMessage());
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.retirementsavings.api;
+
+import com.example.retirementsavings.service.ColumnarCodec;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// Reads and writes the columnar binary bodies (ColumnarCodec) of the transactions and returns
+// endpoints when a client sends or accepts application/x-retirement-columnar.
+public class ColumnarHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(ColumnarCodec.MEDIA_TYPE);
+
+	public ColumnarHttpMessageConverter() {
+		super(MEDIA_TYPE);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return ColumnarCodec.supports(clazz);
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return ColumnarCodec.supports(type) && canRead(mediaType);
+	}
+
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		return ColumnarCodec.supports(type != null ? type : clazz) && canWrite(mediaType);
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+		byte[] body = inputMessage.getBody().readAllBytes();
+		try {
+			return ColumnarCodec.read(body, type);
+		} catch (IllegalArgumentException e) {
+			throw new HttpMessageNotReadableException("Invalid columnar body: " + e.getMessage(), e, inputMessage);
+		}
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+		return read(clazz, null, inputMessage);
+	}
+
+	@Override
+	protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+		byte[] body = ColumnarCodec.write(value, type != null ? type : value.getClass());
+		outputMessage.getHeaders().setContentLength(body.length);
+		outputMessage.getBody().write(body);
+	}
+}
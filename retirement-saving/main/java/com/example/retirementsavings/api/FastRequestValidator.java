@@ -0,0 +1,51 @@
+package com.example.retirementsavings.api;
+
+import com.example.retirementsavings.service.RequestConstraints;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.util.List;
+
+// MVC validator for @Valid request bodies: transaction, period and returns bodies are checked by
+// RequestConstraints, everything else (and any validation with groups) by Bean Validation. Errors
+// are recorded like SpringValidatorAdapter records them, so a failing body still ends in a
+// MethodArgumentNotValidException and the same 400 response. It is still a jakarta Validator
+// over the injected one, so Spring keeps method validation (container element and parameter
+// constraints on handler methods) exactly as with the default validator.
+public class FastRequestValidator extends SpringValidatorAdapter {
+
+	public FastRequestValidator(jakarta.validation.Validator reflective) {
+		super(reflective);
+	}
+
+	@Override
+	public void validate(Object target, Errors errors) {
+		validate(target, errors, new Object[0]);
+	}
+
+	@Override
+	public void validate(Object target, Errors errors, Object... validationHints) {
+		List<RequestConstraints.Violation> violations = validationHints.length == 0 ? RequestConstraints.check(target) : null;
+		if (violations == null) {
+			super.validate(target, errors, validationHints);
+			return;
+		}
+		for (RequestConstraints.Violation violation : violations) {
+			if (errors instanceof BindingResult bindingResult) {
+				bindingResult.addError(new FieldError(
+						errors.getObjectName(),
+						violation.field(),
+						violation.rejectedValue(),
+						false,
+						bindingResult.resolveMessageCodes(violation.constraint(), violation.field()),
+						null,
+						violation.message()
+				));
+			} else {
+				errors.rejectValue(violation.field(), violation.constraint(), violation.message());
+			}
+		}
+	}
+}
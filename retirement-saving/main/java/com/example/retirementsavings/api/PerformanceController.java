@@ -23,15 +23,17 @@ public class PerformanceController {
 	@GetMapping("/blackrock/challenge/v1/performance")
 	@Operation(
 			summary = "Get system performance metrics",
-			description = "Returns current timestamp, memory usage in MB, and active thread count"
+			description = "Returns current timestamp, memory usage in MB and active thread count, per-endpoint throughput, "
+					+ "latency percentiles, CPU time and allocation over the last 1, 5 and 15 minutes, and JVM GC and heap totals"
 	)
 	public PerformanceResponse getPerformanceMetrics() {
 		LOG.info("Received performance metrics request");
 		PerformanceResponse response = performanceService.getCurrentMetrics();
 		LOG.info(
-				"Performance metrics request completed: memory={}, threads={}",
+				"Performance metrics request completed: memory={}, threads={}, endpoints={}",
 				response.memory(),
-				response.threads()
+				response.threads(),
+				response.endpoints().size()
 		);
 		return response;
 	}
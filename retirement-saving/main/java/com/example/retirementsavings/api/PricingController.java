@@ -0,0 +1,70 @@
+package com.example.retirementsavings.api;
+
+import com.example.retirementsavings.api.dto.PricingRequest;
+import com.example.retirementsavings.api.dto.PricingResponse;
+import com.example.retirementsavings.service.Pricing;
+import com.example.retirementsavings.service.PricingRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Tag(name = "Pricing", description = "Tax slabs and instrument rates used by the returns calculations")
+public class PricingController {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PricingController.class);
+	private final PricingRegistry pricingRegistry;
+
+	public PricingController(PricingRegistry pricingRegistry) {
+		this.pricingRegistry = pricingRegistry;
+	}
+
+	@GetMapping("/blackrock/challenge/v1/pricing")
+	@Operation(summary = "Get the pricing table", description = "Returns the active tax slabs, NPS deduction limits and instrument rates")
+	public PricingResponse getPricing() {
+		return toResponse(pricingRegistry.current());
+	}
+
+	@PutMapping("/blackrock/challenge/v1/pricing")
+	@Operation(
+			summary = "Replace the pricing table",
+			description = "Compiles new tax slabs and instrument rates for returns:* requests; requests already "
+					+ "running finish on the previous table"
+	)
+	public PricingResponse replacePricing(@Valid @RequestBody PricingRequest request) {
+		LOG.info(
+				"Received pricing replacement: slabs={}, instruments={}",
+				request.taxSlabs().size(),
+				request.instrumentRates().size()
+		);
+		Pricing pricing = pricingRegistry.replace(request);
+		LOG.info("Pricing version {} active", pricing.version());
+		return toResponse(pricing);
+	}
+
+	@PostMapping("/blackrock/challenge/v1/pricing:reload")
+	@Operation(summary = "Reload the pricing table", description = "Re-reads retirement.pricing.file and makes it active")
+	public PricingResponse reloadPricing() {
+		LOG.info("Received pricing reload");
+		Pricing pricing = pricingRegistry.reload();
+		LOG.info("Pricing version {} active", pricing.version());
+		return toResponse(pricing);
+	}
+
+	private PricingResponse toResponse(Pricing pricing) {
+		return new PricingResponse(
+				pricing.version(),
+				pricing.taxSlabs().slabs(),
+				pricing.npsMaxDeduction(),
+				pricing.npsIncomeRatioCap(),
+				pricing.instrumentRates()
+		);
+	}
+}
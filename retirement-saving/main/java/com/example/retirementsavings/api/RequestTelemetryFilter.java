@@ -0,0 +1,56 @@
+package com.example.retirementsavings.api;
+
+import com.example.retirementsavings.service.RequestTelemetry;
+import com.example.retirementsavings.service.ThreadUsage;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Times every request on the serving thread and hands the sample to RequestTelemetry, keyed by
+// method and route pattern so path variables do not create one entry per URL. CPU time and
+// allocation are the serving thread's own (unavailable on virtual threads) plus whatever
+// ComputeExecutor ran for the request on its platform threads.
+@Component
+public class RequestTelemetryFilter extends OncePerRequestFilter {
+
+	private static final String UNMAPPED = "unmapped";
+
+	private final RequestTelemetry requestTelemetry;
+
+	public RequestTelemetryFilter(RequestTelemetry requestTelemetry) {
+		this.requestTelemetry = requestTelemetry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long startNanos = System.nanoTime();
+		long startCpuNanos = ThreadUsage.currentThreadCpuNanos();
+		long startAllocatedBytes = ThreadUsage.currentThreadAllocatedBytes();
+		ThreadUsage.Offloaded offloaded = new ThreadUsage.Offloaded();
+		request.setAttribute(ThreadUsage.OFFLOADED_ATTRIBUTE, offloaded);
+		boolean failed = true;
+		try {
+			filterChain.doFilter(request, response);
+			failed = response.getStatus() >= 500;
+		} finally {
+			long durationNanos = System.nanoTime() - startNanos;
+			long cpuNanos = offloaded.cpuNanos()
+					+ (startCpuNanos < 0 ? 0 : ThreadUsage.currentThreadCpuNanos() - startCpuNanos);
+			long allocatedBytes = offloaded.allocatedBytes()
+					+ (startAllocatedBytes < 0 ? 0 : ThreadUsage.currentThreadAllocatedBytes() - startAllocatedBytes);
+			requestTelemetry.record(endpoint(request), durationNanos, cpuNanos, allocatedBytes, failed);
+		}
+	}
+
+	private static String endpoint(HttpServletRequest request) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		return request.getMethod() + " " + (pattern != null ? pattern : UNMAPPED);
+	}
+}
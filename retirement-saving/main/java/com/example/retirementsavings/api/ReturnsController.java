@@ -1,26 +1,45 @@
 package com.example.retirementsavings.api;
 
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationResponse;
 import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
 import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
+import com.example.retirementsavings.service.ComputeExecutor;
+import com.example.retirementsavings.service.ReturnsBatchService;
 import com.example.retirementsavings.service.ReturnsCalculationService;
+import com.example.retirementsavings.service.ReturnsResultCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.util.List;
+
 @RestController
 @Tag(name = "Returns", description = "Investment returns calculators")
 public class ReturnsController {
 
 	private static final Logger LOG = LoggerFactory.getLogger(ReturnsController.class);
 	private final ReturnsCalculationService returnsCalculationService;
+	private final ReturnsBatchService returnsBatchService;
+	private final ComputeExecutor computeExecutor;
 
-	public ReturnsController(ReturnsCalculationService returnsCalculationService) {
+	public ReturnsController(
+			ReturnsCalculationService returnsCalculationService,
+			ReturnsBatchService returnsBatchService,
+			ComputeExecutor computeExecutor
+	) {
 		this.returnsCalculationService = returnsCalculationService;
+		this.returnsBatchService = returnsBatchService;
+		this.computeExecutor = computeExecutor;
 	}
 
 	@PostMapping("/blackrock/challenge/v1/returns:nps")
@@ -30,17 +49,32 @@ public class ReturnsController {
 	)
 	public ReturnsCalculationResponse calculateNpsReturns(@Valid @RequestBody ReturnsCalculationRequest request) {
 		LOG.info(
-				"Received NPS returns request: transactions={}, q={}, p={}, k={}",
+				"Received NPS returns request: transactions={}, q={}, p={}, k={}, ruleSet={}",
 				request.transactions().size(),
-				request.q().size(),
-				request.p().size(),
-				request.k().size()
+				sizeOf(request.q()),
+				sizeOf(request.p()),
+				sizeOf(request.k()),
+				request.ruleSetId()
 		);
-		ReturnsCalculationResponse response = returnsCalculationService.calculateNps(request);
+		ReturnsCalculationResponse response = computeExecutor.run(() -> returnsCalculationService.calculateNps(request));
 		LOG.info("NPS returns request completed with {} k-period entries", response.savingsByDates().size());
 		return response;
 	}
 
+	@PostMapping(
+			value = "/blackrock/challenge/v1/returns:nps",
+			consumes = MediaType.APPLICATION_NDJSON_VALUE,
+			produces = MediaType.APPLICATION_NDJSON_VALUE
+	)
+	@Operation(
+			summary = "Calculate NPS returns for a batch of users",
+			description = "Takes one returns request per line and emits one result or per-user error per line, in input order"
+	)
+	public void calculateNpsReturnsBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		LOG.info("Received batch NPS returns request");
+		calculateBatch(ReturnsResultCache.Mode.NPS, request, response);
+	}
+
 	@PostMapping("/blackrock/challenge/v1/returns:index")
 	@Operation(
 			summary = "Calculate index fund returns",
@@ -48,14 +82,68 @@ public class ReturnsController {
 	)
 	public ReturnsCalculationResponse calculateIndexReturns(@Valid @RequestBody ReturnsCalculationRequest request) {
 		LOG.info(
-				"Received index returns request: transactions={}, q={}, p={}, k={}",
+				"Received index returns request: transactions={}, q={}, p={}, k={}, ruleSet={}",
 				request.transactions().size(),
-				request.q().size(),
-				request.p().size(),
-				request.k().size()
+				sizeOf(request.q()),
+				sizeOf(request.p()),
+				sizeOf(request.k()),
+				request.ruleSetId()
 		);
-		ReturnsCalculationResponse response = returnsCalculationService.calculateIndex(request);
+		ReturnsCalculationResponse response = computeExecutor.run(() -> returnsCalculationService.calculateIndex(request));
 		LOG.info("Index returns request completed with {} k-period entries", response.savingsByDates().size());
 		return response;
 	}
+
+	@PostMapping(
+			value = "/blackrock/challenge/v1/returns:index",
+			consumes = MediaType.APPLICATION_NDJSON_VALUE,
+			produces = MediaType.APPLICATION_NDJSON_VALUE
+	)
+	@Operation(
+			summary = "Calculate index fund returns for a batch of users",
+			description = "Takes one returns request per line and emits one result or per-user error per line, in input order"
+	)
+	public void calculateIndexReturnsBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		LOG.info("Received batch index returns request");
+		calculateBatch(ReturnsResultCache.Mode.INDEX, request, response);
+	}
+
+	@PostMapping("/blackrock/challenge/v1/returns:all")
+	@Operation(
+			summary = "Calculate NPS, index fund and custom instrument returns",
+			description = "Filters and aggregates savings by k periods once, then prices NPS, index fund and "
+					+ "every supplied instrument rate (annual percent) against the same savings"
+	)
+	public CombinedReturnsCalculationResponse calculateAllReturns(@Valid @RequestBody CombinedReturnsCalculationRequest request) {
+		LOG.info(
+				"Received combined returns request: transactions={}, q={}, p={}, k={}, ruleSet={}, instruments={}",
+				request.transactions().size(),
+				sizeOf(request.q()),
+				sizeOf(request.p()),
+				sizeOf(request.k()),
+				request.ruleSetId(),
+				request.instruments() == null ? 0 : request.instruments().size()
+		);
+		CombinedReturnsCalculationResponse response = computeExecutor.run(() -> returnsCalculationService.calculateAll(request));
+		LOG.info(
+				"Combined returns request completed with {} k-period entries and {} instruments",
+				response.nps().savingsByDates().size(),
+				response.instruments().size()
+		);
+		return response;
+	}
+
+	// The request thread only streams lines in and results out; pricing runs on the batch pool,
+	// not the compute executor, so one batch cannot starve interactive requests of it.
+	private void calculateBatch(ReturnsResultCache.Mode mode, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		ReturnsBatchService.BatchCounts counts =
+				returnsBatchService.calculate(mode, request.getInputStream(), response.getOutputStream());
+		LOG.info("Batch returns request completed: mode={}, succeeded={}, failed={}", mode, counts.succeeded(), counts.failed());
+	}
+
+	private static int sizeOf(List<?> periods) {
+		return periods == null ? 0 : periods.size();
+	}
 }
@@ -0,0 +1,54 @@
+package com.example.retirementsavings.api;
+
+import com.example.retirementsavings.api.dto.RuleSetRequest;
+import com.example.retirementsavings.api.dto.RuleSetResponse;
+import com.example.retirementsavings.service.RuleSet;
+import com.example.retirementsavings.service.TransactionRulesService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Tag(name = "Rule sets", description = "Reusable q, p and k period calendars")
+public class RuleSetController {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RuleSetController.class);
+	private final TransactionRulesService transactionRulesService;
+
+	public RuleSetController(TransactionRulesService transactionRulesService) {
+		this.transactionRulesService = transactionRulesService;
+	}
+
+	@PutMapping("/blackrock/challenge/v1/rule-sets/{ruleSetId}")
+	@Operation(
+			summary = "Register a rule set",
+			description = "Compiles q, p and k periods once under an id that transactions:filter and returns:* "
+					+ "requests can pass as ruleSetId instead of sending the periods; replaces an existing set"
+	)
+	public RuleSetResponse registerRuleSet(@PathVariable String ruleSetId, @Valid @RequestBody RuleSetRequest request) {
+		LOG.info(
+				"Received rule set registration {}: q={}, p={}, k={}",
+				ruleSetId,
+				request.q().size(),
+				request.p().size(),
+				request.k().size()
+		);
+		RuleSet ruleSet = transactionRulesService.registerRuleSet(ruleSetId, request.q(), request.p(), request.k());
+		LOG.info("Rule set {} registered", ruleSetId);
+		return new RuleSetResponse(ruleSet.id(), ruleSet.q().size(), ruleSet.p().size(), ruleSet.k().size());
+	}
+
+	@DeleteMapping("/blackrock/challenge/v1/rule-sets/{ruleSetId}")
+	@Operation(summary = "Delete a rule set", description = "Removes a registered rule set")
+	public void deleteRuleSet(@PathVariable String ruleSetId) {
+		LOG.info("Received rule set delete for {}", ruleSetId);
+		transactionRulesService.deleteRuleSet(ruleSetId);
+	}
+}
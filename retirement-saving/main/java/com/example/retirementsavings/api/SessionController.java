@@ -0,0 +1,88 @@
+package com.example.retirementsavings.api;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.SessionCreateRequest;
+import com.example.retirementsavings.api.dto.SessionReturnsResponse;
+import com.example.retirementsavings.service.ComputeExecutor;
+import com.example.retirementsavings.service.RequestConstraints;
+import com.example.retirementsavings.service.TransactionSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@Tag(name = "Sessions", description = "Incremental savings sessions")
+public class SessionController {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SessionController.class);
+	private final TransactionSessionService transactionSessionService;
+	private final ComputeExecutor computeExecutor;
+
+	public SessionController(TransactionSessionService transactionSessionService, ComputeExecutor computeExecutor) {
+		this.transactionSessionService = transactionSessionService;
+		this.computeExecutor = computeExecutor;
+	}
+
+	@PostMapping("/blackrock/challenge/v1/sessions")
+	@Operation(
+			summary = "Open a savings session",
+			description = "Registers q, p and k periods, wage, age and inflation once; transactions are appended later"
+	)
+	public SessionReturnsResponse createSession(@Valid @RequestBody SessionCreateRequest request) {
+		LOG.info(
+				"Received session request: q={}, p={}, k={}",
+				request.q().size(),
+				request.p().size(),
+				request.k().size()
+		);
+		SessionReturnsResponse response = computeExecutor.run(() -> transactionSessionService.create(request));
+		LOG.info("Session {} created", response.sessionId());
+		return response;
+	}
+
+	@PostMapping("/blackrock/challenge/v1/sessions/{sessionId}/transactions")
+	@Operation(
+			summary = "Append transactions to a session",
+			description = "Adds a batch of expenses and returns the updated totals and the NPS and index savings of the k "
+					+ "periods the batch changed; GET the session for every period"
+	)
+	public SessionReturnsResponse appendTransactions(
+			@PathVariable String sessionId,
+			@RequestBody List<ExpenseInput> transactions
+	) {
+		LOG.info("Received append request for session {} with {} transactions", sessionId, transactions.size());
+		RequestConstraints.requireValidExpenses(transactions);
+		SessionReturnsResponse response = computeExecutor.run(() -> transactionSessionService.append(sessionId, transactions));
+		LOG.info(
+				"Append request for session {} completed: transactions={}, invalid={}",
+				sessionId,
+				response.transactions(),
+				response.invalid().size()
+		);
+		return response;
+	}
+
+	@GetMapping("/blackrock/challenge/v1/sessions/{sessionId}")
+	@Operation(summary = "Get session savings", description = "Returns the current NPS and index savings of a session")
+	public SessionReturnsResponse getSession(@PathVariable String sessionId) {
+		LOG.info("Received session lookup for {}", sessionId);
+		return transactionSessionService.get(sessionId);
+	}
+
+	@DeleteMapping("/blackrock/challenge/v1/sessions/{sessionId}")
+	@Operation(summary = "Close a session", description = "Discards a session and its transactions")
+	public void deleteSession(@PathVariable String sessionId) {
+		LOG.info("Received session delete for {}", sessionId);
+		transactionSessionService.delete(sessionId);
+	}
+}
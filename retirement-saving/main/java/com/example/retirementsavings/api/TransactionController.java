@@ -6,18 +6,26 @@ import com.example.retirementsavings.api.dto.TransactionFilterResponse;
 import com.example.retirementsavings.api.dto.TransactionValidationRequest;
 import com.example.retirementsavings.api.dto.TransactionValidationResponse;
 import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.example.retirementsavings.service.ComputeExecutor;
+import com.example.retirementsavings.service.RequestConstraints;
 import com.example.retirementsavings.service.TransactionBuilder;
 import com.example.retirementsavings.service.TransactionFilterService;
+import com.example.retirementsavings.service.TransactionStreamService;
 import com.example.retirementsavings.service.TransactionValidator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -28,15 +36,21 @@ public class TransactionController {
 	private final TransactionBuilder transactionBuilder;
 	private final TransactionValidator transactionValidator;
 	private final TransactionFilterService transactionFilterService;
+	private final TransactionStreamService transactionStreamService;
+	private final ComputeExecutor computeExecutor;
 
 	public TransactionController(
 			TransactionBuilder transactionBuilder,
 			TransactionValidator transactionValidator,
-			TransactionFilterService transactionFilterService
+			TransactionFilterService transactionFilterService,
+			TransactionStreamService transactionStreamService,
+			ComputeExecutor computeExecutor
 	) {
 		this.transactionBuilder = transactionBuilder;
 		this.transactionValidator = transactionValidator;
 		this.transactionFilterService = transactionFilterService;
+		this.transactionStreamService = transactionStreamService;
+		this.computeExecutor = computeExecutor;
 	}
 
 	@PostMapping("/blackrock/challenge/v1/transactions:parse")
@@ -44,13 +58,31 @@ public class TransactionController {
 			summary = "Build enriched transactions",
 			description = "Converts a list of expenses into transactions with ceiling and remanent values"
 	)
-	public List<TransactionOutput> parseTransactions(@Valid @RequestBody List<@Valid ExpenseInput> expenses) {
+	public List<TransactionOutput> parseTransactions(@RequestBody List<ExpenseInput> expenses) {
 		LOG.info("Received parse request with {} expenses", expenses.size());
-		List<TransactionOutput> result = transactionBuilder.getCeilingAndRemnantForTranscations(expenses);
+		RequestConstraints.requireValidExpenses(expenses);
+		List<TransactionOutput> result = computeExecutor.run(() -> transactionBuilder.getCeilingAndRemnantForTranscations(expenses));
 		LOG.info("Parse request completed with {} generated transactions", result.size());
 		return result;
 	}
 
+	@PostMapping(
+			value = "/blackrock/challenge/v1/transactions:parse",
+			consumes = MediaType.APPLICATION_NDJSON_VALUE,
+			produces = MediaType.APPLICATION_NDJSON_VALUE
+	)
+	@Operation(
+			summary = "Build enriched transactions from an NDJSON stream",
+			description = "Streams one expense per line into one transaction per line without buffering the payload"
+	)
+	public void parseTransactionStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		LOG.info("Received streaming parse request");
+		// Parsing and writing interleave record by record, so the stream stays on the request thread.
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		long count = transactionStreamService.parse(request.getInputStream(), response.getOutputStream());
+		LOG.info("Streaming parse request completed with {} generated transactions", count);
+	}
+
 	@PostMapping("/blackrock/challenge/v1/transactions:validator")
 	@Operation(
 			summary = "Validate transactions",
@@ -58,7 +90,7 @@ public class TransactionController {
 	)
 	public TransactionValidationResponse validateTransactions(@Valid @RequestBody TransactionValidationRequest request) {
 		LOG.info("Received validation request with {} transactions", request.transactions().size());
-		TransactionValidationResponse response = transactionValidator.validate(request);
+		TransactionValidationResponse response = computeExecutor.run(() -> transactionValidator.validate(request));
 		LOG.info(
 				"Validation request completed: valid={}, invalid={}",
 				response.valid().size(),
@@ -67,6 +99,27 @@ public class TransactionController {
 		return response;
 	}
 
+	@PostMapping(
+			value = "/blackrock/challenge/v1/transactions:validator",
+			consumes = MediaType.APPLICATION_NDJSON_VALUE,
+			produces = MediaType.APPLICATION_NDJSON_VALUE
+	)
+	@Operation(
+			summary = "Validate an NDJSON stream of transactions",
+			description = "Takes the wage from the X-Wage header and emits each transaction tagged valid or invalid"
+	)
+	public void validateTransactionStream(
+			@RequestHeader("X-Wage") double wage,
+			HttpServletRequest request,
+			HttpServletResponse response
+	) throws IOException {
+		LOG.info("Received streaming validation request with wage={}", wage);
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		TransactionStreamService.ValidationCounts counts =
+				transactionStreamService.validate(wage, request.getInputStream(), response.getOutputStream());
+		LOG.info("Streaming validation request completed: valid={}, invalid={}", counts.valid(), counts.invalid());
+	}
+
 	@PostMapping("/blackrock/challenge/v1/transactions:filter")
 	@Operation(
 			summary = "Filter transactions by temporal constraints",
@@ -74,13 +127,14 @@ public class TransactionController {
 	)
 	public TransactionFilterResponse filterTransactions(@Valid @RequestBody TransactionFilterRequest request) {
 		LOG.info(
-				"Received temporal filter request: transactions={}, q={}, p={}, k={}",
+				"Received temporal filter request: transactions={}, q={}, p={}, k={}, ruleSet={}",
 				request.transactions().size(),
-				request.q().size(),
-				request.p().size(),
-				request.k().size()
+				sizeOf(request.q()),
+				sizeOf(request.p()),
+				sizeOf(request.k()),
+				request.ruleSetId()
 		);
-		TransactionFilterResponse response = transactionFilterService.filter(request);
+		TransactionFilterResponse response = computeExecutor.run(() -> transactionFilterService.filter(request));
 		LOG.info(
 				"Temporal filter request completed: valid={}, invalid={}",
 				response.valid().size(),
@@ -88,4 +142,8 @@ public class TransactionController {
 		);
 		return response;
 	}
+
+	private static int sizeOf(List<?> periods) {
+		return periods == null ? 0 : periods.size();
+	}
 }
@@ -0,0 +1,25 @@
+package com.example.retirementsavings.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One record of the batch returns stream: the 1-based input record number with either the
+// user's returns or the reason their request failed.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchReturnsOutput(
+		long record,
+		String status,
+		ReturnsCalculationResponse result,
+		String message
+) {
+
+	public static final String OK = "ok";
+	public static final String FAILED = "failed";
+
+	public static BatchReturnsOutput ok(long record, ReturnsCalculationResponse result) {
+		return new BatchReturnsOutput(record, OK, result, null);
+	}
+
+	public static BatchReturnsOutput failed(long record, String message) {
+		return new BatchReturnsOutput(record, FAILED, null, message);
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.retirementsavings.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.util.List;
+
+@PeriodsOrRuleSet
+public record CombinedReturnsCalculationRequest(
+		@NotNull
+		@Min(0)
+		Integer age,
+		@NotNull
+		@Positive
+		Double wage,
+		@NotNull
+		@PositiveOrZero
+		Double inflation,
+		List<@Valid QPeriodInput> q,
+		List<@Valid PPeriodInput> p,
+		List<@Valid KPeriodInput> k,
+		@NotNull
+		List<@Valid ExpenseInput> transactions,
+		List<@Valid InstrumentRateInput> instruments,
+		// Registered rule set to use instead of inline q/p/k periods.
+		String ruleSetId
+) implements PeriodSource {
+
+	public CombinedReturnsCalculationRequest(
+			Integer age,
+			Double wage,
+			Double inflation,
+			List<QPeriodInput> q,
+			List<PPeriodInput> p,
+			List<KPeriodInput> k,
+			List<ExpenseInput> transactions,
+			List<InstrumentRateInput> instruments
+	) {
+		this(age, wage, inflation, q, p, k, transactions, instruments, null);
+	}
+}
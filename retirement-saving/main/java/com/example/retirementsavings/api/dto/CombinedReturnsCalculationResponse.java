@@ -0,0 +1,9 @@
+package com.example.retirementsavings.api.dto;
+
+import java.util.List;
+
+public record CombinedReturnsCalculationResponse(
+		ReturnsCalculationResponse nps,
+		ReturnsCalculationResponse index,
+		List<InstrumentReturnsOutput> instruments
+) {}
@@ -0,0 +1,8 @@
+package com.example.retirementsavings.api.dto;
+
+import java.util.List;
+
+public record EndpointTelemetryOutput(
+		String endpoint,
+		List<WindowTelemetryOutput> windows
+) {}
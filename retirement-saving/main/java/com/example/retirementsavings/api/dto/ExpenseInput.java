@@ -1,11 +1,12 @@
 package com.example.retirementsavings.api.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 import java.time.LocalDateTime;
 
@@ -16,7 +17,8 @@ import java.time.LocalDateTime;
 public class ExpenseInput {
 
 	@NotNull
-	@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+	@JsonDeserialize(using = FixedDateTimeDeserializer.class)
+	@JsonSerialize(using = FixedDateTimeSerializer.class)
 	private LocalDateTime date;
 
 	@NotNull
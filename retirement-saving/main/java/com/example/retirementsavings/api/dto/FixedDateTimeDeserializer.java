@@ -0,0 +1,117 @@
+package com.example.retirementsavings.api.dto;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.deser.std.StdScalarDeserializer;
+import tools.jackson.databind.ext.javatime.deser.LocalDateTimeDeserializer;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Reads "yyyy-MM-dd HH:mm:ss" dates straight from the parser's character buffer by digit
+// arithmetic, without a DateTimeFormatter or an intermediate String. Anything that is not a
+// well-formed date in that exact layout (other tokens, padding, out-of-range fields, days past the
+// end of the month) goes to Jackson's pattern-based deserializer, so lenient inputs and error
+// messages are the same as with @JsonFormat(pattern = PATTERN).
+public class FixedDateTimeDeserializer extends StdScalarDeserializer<LocalDateTime> {
+
+	public static final String PATTERN = "yyyy-MM-dd HH:mm:ss";
+	static final int LENGTH = PATTERN.length();
+
+	private static final LocalDateTimeDeserializer FALLBACK = new LocalDateTimeDeserializer(DateTimeFormatter.ofPattern(PATTERN));
+
+	public FixedDateTimeDeserializer() {
+		super(LocalDateTime.class);
+	}
+
+	@Override
+	public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) {
+		if (parser.hasToken(JsonToken.VALUE_STRING) && parser.getStringLength() == LENGTH) {
+			long key = parse(parser.getStringCharacters(), parser.getStringOffset());
+			if (key >= 0) {
+				return toDate(key);
+			}
+		}
+		return FALLBACK.deserialize(parser, context);
+	}
+
+	LocalDateTime toDate(long key) {
+		return create(key);
+	}
+
+	// Packs the fields as the decimal yyyyMMddHHmmss, or returns -1 when the text is not in the
+	// layout or a field is out of range.
+	static long parse(char[] text, int offset) {
+		if (text[offset + 4] != '-' || text[offset + 7] != '-' || text[offset + 10] != ' '
+				|| text[offset + 13] != ':' || text[offset + 16] != ':') {
+			return -1;
+		}
+		int year = digits(text, offset, 4);
+		int month = digits(text, offset + 5, 2);
+		int day = digits(text, offset + 8, 2);
+		int hour = digits(text, offset + 11, 2);
+		int minute = digits(text, offset + 14, 2);
+		int second = digits(text, offset + 17, 2);
+		if ((year | month | day | hour | minute | second) < 0
+				|| year == 0 || month == 0 || month > 12 || day == 0 || day > daysInMonth(year, month)
+				|| hour > 23 || minute > 59 || second > 59) {
+			return -1;
+		}
+		return ((((year * 100L + month) * 100 + day) * 100 + hour) * 100 + minute) * 100 + second;
+	}
+
+	static LocalDateTime create(long key) {
+		int second = (int) (key % 100);
+		int minute = (int) (key / 100 % 100);
+		int hour = (int) (key / 10_000 % 100);
+		int day = (int) (key / 1_000_000 % 100);
+		int month = (int) (key / 100_000_000 % 100);
+		int year = (int) (key / 10_000_000_000L);
+		return LocalDateTime.of(year, month, day, hour, minute, second);
+	}
+
+	// -1 unless every character is an ASCII digit.
+	private static int digits(char[] text, int offset, int count) {
+		int value = 0;
+		for (int i = offset; i < offset + count; i++) {
+			int digit = text[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	private static int daysInMonth(int year, int month) {
+		return switch (month) {
+			case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+			case 4, 6, 9, 11 -> 30;
+			default -> 31;
+		};
+	}
+
+	// For period bounds, which repeat across requests and rule sets: parsed dates are kept in a
+	// small direct-mapped table keyed by their digits, so a repeated bound is one array read and
+	// no allocation. Entries are immutable, so unsynchronized reads and overwrites are safe.
+	public static class Cached extends FixedDateTimeDeserializer {
+
+		private static final int SLOT_BITS = 10;
+		private static final Entry[] ENTRIES = new Entry[1 << SLOT_BITS];
+
+		@Override
+		LocalDateTime toDate(long key) {
+			int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - SLOT_BITS));
+			Entry entry = ENTRIES[slot];
+			if (entry != null && entry.key() == key) {
+				return entry.date();
+			}
+			LocalDateTime date = create(key);
+			ENTRIES[slot] = new Entry(key, date);
+			return date;
+		}
+
+		private record Entry(long key, LocalDateTime date) {}
+	}
+}
@@ -0,0 +1,48 @@
+package com.example.retirementsavings.api.dto;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Writes dates as "yyyy-MM-dd HH:mm:ss" by filling a char array digit by digit. Years outside
+// 1..9999 need a sign or more digits and go through the formatter; sub-second parts are dropped
+// as the pattern does.
+public class FixedDateTimeSerializer extends StdScalarSerializer<LocalDateTime> {
+
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(FixedDateTimeDeserializer.PATTERN);
+
+	public FixedDateTimeSerializer() {
+		super(LocalDateTime.class);
+	}
+
+	@Override
+	public void serialize(LocalDateTime value, JsonGenerator generator, SerializationContext context) {
+		int year = value.getYear();
+		if (year < 1 || year > 9999) {
+			generator.writeString(FORMATTER.format(value));
+			return;
+		}
+		char[] text = new char[FixedDateTimeDeserializer.LENGTH];
+		put(text, 0, year / 100);
+		put(text, 2, year % 100);
+		text[4] = '-';
+		put(text, 5, value.getMonthValue());
+		text[7] = '-';
+		put(text, 8, value.getDayOfMonth());
+		text[10] = ' ';
+		put(text, 11, value.getHour());
+		text[13] = ':';
+		put(text, 14, value.getMinute());
+		text[16] = ':';
+		put(text, 17, value.getSecond());
+		generator.writeString(text, 0, text.length);
+	}
+
+	private static void put(char[] text, int offset, int twoDigits) {
+		text[offset] = (char) ('0' + twoDigits / 10);
+		text[offset + 1] = (char) ('0' + twoDigits % 10);
+	}
+}
@@ -0,0 +1,13 @@
+package com.example.retirementsavings.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+
+public record InstrumentRateInput(
+		@NotBlank
+		String name,
+		// Annual return in percent, e.g. 7.11 for 7.11%. Omit it to use the rate registered under this
+		// name in the pricing table.
+		@PositiveOrZero
+		Double rate
+) {}
@@ -0,0 +1,9 @@
+package com.example.retirementsavings.api.dto;
+
+import java.util.List;
+
+public record InstrumentReturnsOutput(
+		String name,
+		double rate,
+		List<SavingsByDateOutput> savingsByDates
+) {}
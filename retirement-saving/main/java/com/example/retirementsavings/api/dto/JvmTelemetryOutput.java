@@ -0,0 +1,13 @@
+package com.example.retirementsavings.api.dto;
+
+// Process-wide counters since JVM start; heapUsedAfterLastGcBytes is -1 until the first collection.
+public record JvmTelemetryOutput(
+		long gcCount,
+		double gcPauseTotalMs,
+		long heapUsedBytes,
+		long heapUsedAfterLastGcBytes,
+		long heapMaxBytes,
+		double processCpuTimeMs,
+		double processCpuLoad,
+		double uptimeMs
+) {}
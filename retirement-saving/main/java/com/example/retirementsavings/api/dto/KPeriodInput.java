@@ -1,15 +1,18 @@
 package com.example.retirementsavings.api.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.NotNull;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 import java.time.LocalDateTime;
 
 public record KPeriodInput(
 		@NotNull
-		@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+		@JsonDeserialize(using = FixedDateTimeDeserializer.Cached.class)
+		@JsonSerialize(using = FixedDateTimeSerializer.class)
 		LocalDateTime start,
 		@NotNull
-		@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+		@JsonDeserialize(using = FixedDateTimeDeserializer.Cached.class)
+		@JsonSerialize(using = FixedDateTimeSerializer.class)
 		LocalDateTime end
 ) {}
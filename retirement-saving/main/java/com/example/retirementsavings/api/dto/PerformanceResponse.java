@@ -1,7 +1,11 @@
 package com.example.retirementsavings.api.dto;
 
+import java.util.List;
+
 public record PerformanceResponse(
 		String time,
 		String memory,
-		int threads
+		int threads,
+		List<EndpointTelemetryOutput> endpoints,
+		JvmTelemetryOutput jvm
 ) {}
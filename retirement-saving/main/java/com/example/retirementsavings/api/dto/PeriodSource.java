@@ -0,0 +1,15 @@
+package com.example.retirementsavings.api.dto;
+
+import java.util.List;
+
+// Request bodies whose q/p/k periods can be replaced by a registered rule set.
+public interface PeriodSource {
+
+	List<QPeriodInput> q();
+
+	List<PPeriodInput> p();
+
+	List<KPeriodInput> k();
+
+	String ruleSetId();
+}
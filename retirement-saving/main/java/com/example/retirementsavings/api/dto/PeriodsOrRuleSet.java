@@ -0,0 +1,23 @@
+package com.example.retirementsavings.api.dto;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// A request names a registered rule set or carries all three q, p and k period lists, not both.
+// Violations are reported on the offending field (q, p, k or ruleSetId), like a field constraint.
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = PeriodsOrRuleSetValidator.class)
+public @interface PeriodsOrRuleSet {
+
+	String message() default "must send either a ruleSetId or q, p and k periods";
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,42 @@
+package com.example.retirementsavings.api.dto;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+import java.util.List;
+
+public class PeriodsOrRuleSetValidator implements ConstraintValidator<PeriodsOrRuleSet, PeriodSource> {
+
+	public static final String MISSING_PERIODS = "must not be null unless a ruleSetId is given";
+	public static final String PERIODS_WITH_RULE_SET = "must not be combined with q, p or k periods";
+
+	@Override
+	public boolean isValid(PeriodSource request, ConstraintValidatorContext context) {
+		if (request == null) {
+			return true;
+		}
+		boolean valid = true;
+		context.disableDefaultConstraintViolation();
+		if (request.ruleSetId() == null) {
+			valid &= present("q", request.q(), context);
+			valid &= present("p", request.p(), context);
+			valid &= present("k", request.k(), context);
+		} else if (!isEmpty(request.q()) || !isEmpty(request.p()) || !isEmpty(request.k())) {
+			context.buildConstraintViolationWithTemplate(PERIODS_WITH_RULE_SET).addPropertyNode("ruleSetId").addConstraintViolation();
+			valid = false;
+		}
+		return valid;
+	}
+
+	private static boolean present(String field, List<?> periods, ConstraintValidatorContext context) {
+		if (periods != null) {
+			return true;
+		}
+		context.buildConstraintViolationWithTemplate(MISSING_PERIODS).addPropertyNode(field).addConstraintViolation();
+		return false;
+	}
+
+	private static boolean isEmpty(List<?> periods) {
+		return periods == null || periods.isEmpty();
+	}
+}
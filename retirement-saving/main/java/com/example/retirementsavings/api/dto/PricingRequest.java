@@ -0,0 +1,25 @@
+package com.example.retirementsavings.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.util.List;
+import java.util.Map;
+
+public record PricingRequest(
+		// Ascending by from; the first slab starts at 0.
+		@NotEmpty
+		List<@Valid TaxSlabInput> taxSlabs,
+		@NotNull
+		@PositiveOrZero
+		Double npsMaxDeduction,
+		// Share of annual income that can be deducted for NPS, e.g. 0.10.
+		@NotNull
+		@PositiveOrZero
+		Double npsIncomeRatioCap,
+		// Annual return in percent by instrument name; must include "nps" and "index".
+		@NotEmpty
+		Map<String, Double> instrumentRates
+) {}
@@ -0,0 +1,12 @@
+package com.example.retirementsavings.api.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record PricingResponse(
+		long version,
+		List<TaxSlabInput> taxSlabs,
+		double npsMaxDeduction,
+		double npsIncomeRatioCap,
+		Map<String, Double> instrumentRates
+) {}
@@ -1,8 +1,9 @@
 package com.example.retirementsavings.api.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 import java.time.LocalDateTime;
 
@@ -11,9 +12,11 @@ public record QPeriodInput(
 		@PositiveOrZero
 		Double fixed,
 		@NotNull
-		@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+		@JsonDeserialize(using = FixedDateTimeDeserializer.Cached.class)
+		@JsonSerialize(using = FixedDateTimeSerializer.class)
 		LocalDateTime start,
 		@NotNull
-		@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+		@JsonDeserialize(using = FixedDateTimeDeserializer.Cached.class)
+		@JsonSerialize(using = FixedDateTimeSerializer.class)
 		LocalDateTime end
 ) {}
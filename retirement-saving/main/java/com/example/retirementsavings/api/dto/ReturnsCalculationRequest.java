@@ -8,6 +8,7 @@ import jakarta.validation.constraints.PositiveOrZero;
 
 import java.util.List;
 
+@PeriodsOrRuleSet
 public record ReturnsCalculationRequest(
 		@NotNull
 		@Min(0)
@@ -18,12 +19,24 @@ public record ReturnsCalculationRequest(
 		@NotNull
 		@PositiveOrZero
 		Double inflation,
-		@NotNull
 		List<@Valid QPeriodInput> q,
-		@NotNull
 		List<@Valid PPeriodInput> p,
-		@NotNull
 		List<@Valid KPeriodInput> k,
 		@NotNull
-		List<@Valid ExpenseInput> transactions
-) {}
+		List<@Valid ExpenseInput> transactions,
+		// Registered rule set to use instead of inline q/p/k periods.
+		String ruleSetId
+) implements PeriodSource {
+
+	public ReturnsCalculationRequest(
+			Integer age,
+			Double wage,
+			Double inflation,
+			List<QPeriodInput> q,
+			List<PPeriodInput> p,
+			List<KPeriodInput> k,
+			List<ExpenseInput> transactions
+	) {
+		this(age, wage, inflation, q, p, k, transactions, null);
+	}
+}
@@ -0,0 +1,15 @@
+package com.example.retirementsavings.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record RuleSetRequest(
+		@NotNull
+		List<@Valid QPeriodInput> q,
+		@NotNull
+		List<@Valid PPeriodInput> p,
+		@NotNull
+		List<@Valid KPeriodInput> k
+) {}
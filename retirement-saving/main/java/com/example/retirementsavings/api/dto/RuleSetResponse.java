@@ -0,0 +1,8 @@
+package com.example.retirementsavings.api.dto;
+
+public record RuleSetResponse(
+		String ruleSetId,
+		int q,
+		int p,
+		int k
+) {}
@@ -1,13 +1,16 @@
 package com.example.retirementsavings.api.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 import java.time.LocalDateTime;
 
 public record SavingsByDateOutput(
-		@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+		@JsonDeserialize(using = FixedDateTimeDeserializer.Cached.class)
+		@JsonSerialize(using = FixedDateTimeSerializer.class)
 		LocalDateTime start,
-		@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+		@JsonDeserialize(using = FixedDateTimeDeserializer.Cached.class)
+		@JsonSerialize(using = FixedDateTimeSerializer.class)
 		LocalDateTime end,
 		double amount,
 		double profit,
@@ -0,0 +1,14 @@
+package com.example.retirementsavings.api.dto;
+
+import java.util.List;
+
+// Savings of every transaction appended to the session so far. invalid only lists the rejected
+// transactions of the batch that produced this response. After an append, nps and index hold only
+// the k windows that batch changed (identified by start and end); create and get hold all of them.
+public record SessionReturnsResponse(
+		String sessionId,
+		long transactions,
+		List<InvalidTransactionOutput> invalid,
+		ReturnsCalculationResponse nps,
+		ReturnsCalculationResponse index
+) {}
@@ -0,0 +1,15 @@
+package com.example.retirementsavings.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+public record TaxSlabInput(
+		// Annual income above which this slab's rate applies, until the next slab's from.
+		@NotNull
+		@PositiveOrZero
+		Double from,
+		// Marginal rate as a fraction, e.g. 0.10 for 10%.
+		@NotNull
+		@PositiveOrZero
+		Double rate
+) {}
@@ -6,16 +6,27 @@ import jakarta.validation.constraints.Positive;
 
 import java.util.List;
 
+@PeriodsOrRuleSet
 public record TransactionFilterRequest(
-		@NotNull
 		List<@Valid QPeriodInput> q,
-		@NotNull
 		List<@Valid PPeriodInput> p,
-		@NotNull
 		List<@Valid KPeriodInput> k,
 		@NotNull
 		@Positive
 		Double wage,
 		@NotNull
-		List<@Valid ExpenseInput> transactions
-) {}
+		List<@Valid ExpenseInput> transactions,
+		// Registered rule set to use instead of inline q/p/k periods.
+		String ruleSetId
+) implements PeriodSource {
+
+	public TransactionFilterRequest(
+			List<QPeriodInput> q,
+			List<PPeriodInput> p,
+			List<KPeriodInput> k,
+			Double wage,
+			List<ExpenseInput> transactions
+	) {
+		this(q, p, k, wage, transactions, null);
+	}
+}
@@ -0,0 +1,46 @@
+package com.example.retirementsavings.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+import java.time.LocalDateTime;
+
+// One record of the streaming validator: the transaction tagged with its outcome.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ValidatedTransactionOutput(
+		String status,
+		@JsonDeserialize(using = FixedDateTimeDeserializer.class)
+		@JsonSerialize(using = FixedDateTimeSerializer.class)
+		LocalDateTime date,
+		Double amount,
+		Double ceiling,
+		Double remanent,
+		String message
+) {
+
+	public static final String VALID = "valid";
+	public static final String INVALID = "invalid";
+
+	public static ValidatedTransactionOutput valid(TransactionOutput transaction) {
+		return new ValidatedTransactionOutput(
+				VALID,
+				transaction.getDate(),
+				transaction.getAmount(),
+				transaction.getCeiling(),
+				transaction.getRemanent(),
+				null
+		);
+	}
+
+	public static ValidatedTransactionOutput invalid(TransactionOutput transaction, String message) {
+		return new ValidatedTransactionOutput(
+				INVALID,
+				transaction.getDate(),
+				transaction.getAmount(),
+				transaction.getCeiling(),
+				transaction.getRemanent(),
+				message
+		);
+	}
+}
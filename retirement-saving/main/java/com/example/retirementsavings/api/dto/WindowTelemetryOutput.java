@@ -0,0 +1,16 @@
+package com.example.retirementsavings.api.dto;
+
+// Request statistics for one endpoint over one rolling window. Latencies are in milliseconds.
+public record WindowTelemetryOutput(
+		String window,
+		long requests,
+		long failures,
+		double throughputPerSecond,
+		double p50Ms,
+		double p95Ms,
+		double p99Ms,
+		double maxMs,
+		double cpuTimeMs,
+		long allocatedBytes,
+		double allocationRateBytesPerSecond
+) {}
@@ -0,0 +1,19 @@
+package com.example.retirementsavings.config;
+
+import com.example.retirementsavings.api.ColumnarHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// Adds the columnar binary converter after the default ones, so JSON stays the response format
+// for clients that accept anything and the binary one is only picked when asked for by name.
+@Configuration
+public class ColumnarWireConfig implements WebMvcConfigurer {
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(new ColumnarHttpMessageConverter());
+	}
+}
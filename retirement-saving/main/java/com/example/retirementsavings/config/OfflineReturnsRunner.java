@@ -0,0 +1,74 @@
+package com.example.retirementsavings.config;
+
+import com.example.retirementsavings.api.dto.RuleSetRequest;
+import com.example.retirementsavings.service.OfflineReturnsService;
+import com.example.retirementsavings.service.RuleSet;
+import com.example.retirementsavings.service.TransactionRulesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Offline mode: when retirement.offline.input is set, the returns of every binary transaction
+// file under it are computed at startup against the q/p/k periods in retirement.offline.rules
+// (a rule set JSON body). Run with spring.main.web-application-type=none so the process exits
+// once the returns files are written; any failure stops startup with a non-zero exit code.
+@Component
+@ConditionalOnProperty("retirement.offline.input")
+public class OfflineReturnsRunner implements ApplicationRunner {
+
+	private static final Logger LOG = LoggerFactory.getLogger(OfflineReturnsRunner.class);
+
+	private final OfflineReturnsService offlineReturnsService;
+	private final TransactionRulesService transactionRulesService;
+	private final JsonMapper jsonMapper;
+	private final Path input;
+	private final Path output;
+	private final Path rules;
+
+	public OfflineReturnsRunner(
+			OfflineReturnsService offlineReturnsService,
+			TransactionRulesService transactionRulesService,
+			JsonMapper jsonMapper,
+			@Value("${retirement.offline.input}") String input,
+			@Value("${retirement.offline.output}") String output,
+			@Value("${retirement.offline.rules}") String rules
+	) {
+		this.offlineReturnsService = offlineReturnsService;
+		this.transactionRulesService = transactionRulesService;
+		this.jsonMapper = jsonMapper;
+		this.input = Path.of(input);
+		this.output = Path.of(output);
+		this.rules = Path.of(rules);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		RuleSetRequest periods;
+		try (InputStream stream = Files.newInputStream(rules)) {
+			periods = jsonMapper.readValue(stream, RuleSetRequest.class);
+		}
+		RuleSet ruleSet = transactionRulesService.resolveRuleSet(null, periods.q(), periods.p(), periods.k());
+		LOG.info("Starting offline returns run: input={}, output={}, rules={}", input, output, rules);
+		long start = System.nanoTime();
+		List<OfflineReturnsService.FileSummary> summaries = offlineReturnsService.runAll(input, output, ruleSet);
+		long records = summaries.stream().mapToLong(OfflineReturnsService.FileSummary::records).sum();
+		long invalid = summaries.stream().mapToLong(OfflineReturnsService.FileSummary::invalid).sum();
+		LOG.info(
+				"Offline returns run completed: files={}, records={}, invalid={}, elapsedMs={}",
+				summaries.size(),
+				records,
+				invalid,
+				(System.nanoTime() - start) / 1_000_000
+		);
+	}
+}
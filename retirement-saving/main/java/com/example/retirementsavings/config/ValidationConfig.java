@@ -0,0 +1,31 @@
+package com.example.retirementsavings.config;
+
+import com.example.retirementsavings.api.FastRequestValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// With retirement.validation.fast (the default), @Valid transaction, period and returns bodies are
+// checked by FastRequestValidator; set it to false to go back to Spring's reflective Bean
+// Validation for every body, e.g. to compare the two. Bare expense lists (transactions:parse,
+// session appends) are checked by RequestConstraints in their handlers either way.
+@Configuration
+public class ValidationConfig implements WebMvcConfigurer {
+
+	private final jakarta.validation.Validator validator;
+	private final boolean fast;
+
+	public ValidationConfig(
+			jakarta.validation.Validator validator,
+			@Value("${retirement.validation.fast:true}") boolean fast
+	) {
+		this.validator = validator;
+		this.fast = fast;
+	}
+
+	@Override
+	public Validator getValidator() {
+		return fast ? new FastRequestValidator(validator) : null;
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
+import com.example.retirementsavings.api.dto.SavingsByDateOutput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Fixed-width binary result of one offline returns run, the output side of BinaryTransactionFile.
+// Little-endian, written through a memory mapping.
+//
+// Header, 64 bytes:
+//    0  int     magic "RSRT"
+//    4  short   format version
+//    6  short   reserved
+//    8  long    records read
+//   16  long    invalid records (duplicates and negative amounts)
+//   24  int     k period count
+//   28  int     reserved
+//   32  double  total transaction amount
+//   40  double  total ceiling
+//   48  16 bytes reserved
+// One 48-byte entry per k period follows, in rule set order: long start and end epoch seconds,
+// then doubles amount, NPS profit, NPS tax benefit and index fund profit. Values are rounded as
+// returns:nps and returns:index round them.
+public final class BinaryReturnsFile {
+
+	static final int MAGIC = 'R' | 'S' << 8 | 'R' << 16 | 'T' << 24;
+	static final short VERSION = 1;
+	static final int HEADER_BYTES = 64;
+	static final int ENTRY_BYTES = 48;
+
+	private BinaryReturnsFile() {
+	}
+
+	public record Contents(
+			long records,
+			long invalid,
+			double totalTransactionAmount,
+			double totalCeiling,
+			long[] starts,
+			long[] ends,
+			double[] amounts,
+			double[] npsProfits,
+			double[] npsTaxBenefits,
+			double[] indexProfits
+	) {}
+
+	// nps and index must price the same k savings, so their periods and amounts line up.
+	public static void write(
+			Path path,
+			long records,
+			long invalid,
+			ReturnsCalculationResponse nps,
+			ReturnsCalculationResponse index
+	) throws IOException {
+		int periods = nps.savingsByDates().size();
+		try (FileChannel channel = FileChannel.open(
+				path,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ,
+				StandardOpenOption.WRITE
+		)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) periods * ENTRY_BYTES)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(0, MAGIC)
+					.putShort(4, VERSION)
+					.putLong(8, records)
+					.putLong(16, invalid)
+					.putInt(24, periods)
+					.putDouble(32, nps.totalTransactionAmount())
+					.putDouble(40, nps.totalCeiling());
+			for (int i = 0; i < periods; i++) {
+				SavingsByDateOutput npsPeriod = nps.savingsByDates().get(i);
+				int position = HEADER_BYTES + i * ENTRY_BYTES;
+				buffer.putLong(position, TransactionBatch.toEpochSecond(npsPeriod.start()))
+						.putLong(position + 8, TransactionBatch.toEpochSecond(npsPeriod.end()))
+						.putDouble(position + 16, npsPeriod.amount())
+						.putDouble(position + 24, npsPeriod.profit())
+						.putDouble(position + 32, npsPeriod.taxBenefit())
+						.putDouble(position + 40, index.savingsByDates().get(i).profit());
+			}
+		}
+	}
+
+	public static Contents read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_BYTES) {
+				throw new IllegalArgumentException(path + " is not a returns file: shorter than its header");
+			}
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+				throw new IllegalArgumentException(path + " is not a version " + VERSION + " returns file");
+			}
+			int periods = buffer.getInt(24);
+			if (periods < 0 || size != HEADER_BYTES + (long) periods * ENTRY_BYTES) {
+				throw new IllegalArgumentException(path + " declares " + periods + " k periods but is " + size + " bytes long");
+			}
+			long[] starts = new long[periods];
+			long[] ends = new long[periods];
+			double[] amounts = new double[periods];
+			double[] npsProfits = new double[periods];
+			double[] npsTaxBenefits = new double[periods];
+			double[] indexProfits = new double[periods];
+			for (int i = 0; i < periods; i++) {
+				int position = HEADER_BYTES + i * ENTRY_BYTES;
+				starts[i] = buffer.getLong(position);
+				ends[i] = buffer.getLong(position + 8);
+				amounts[i] = buffer.getDouble(position + 16);
+				npsProfits[i] = buffer.getDouble(position + 24);
+				npsTaxBenefits[i] = buffer.getDouble(position + 32);
+				indexProfits[i] = buffer.getDouble(position + 40);
+			}
+			return new Contents(
+					buffer.getLong(8),
+					buffer.getLong(16),
+					buffer.getDouble(32),
+					buffer.getDouble(40),
+					starts,
+					ends,
+					amounts,
+					npsProfits,
+					npsTaxBenefits,
+					indexProfits
+			);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.example.retirementsavings.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Fixed-width binary transaction file for offline backfills: one account's expense history plus
+// the inputs its returns need. Little-endian, read and written through memory mappings.
+//
+// Header, 64 bytes:
+//    0  int     magic "RSTX"
+//    4  short   format version
+//    6  short   flags; bit 0 is set when records are in non-decreasing epoch-second order
+//    8  long    record count
+//   16  int     age
+//   20  int     reserved
+//   24  double  monthly wage
+//   32  double  inflation percent
+//   40  24 bytes reserved
+// Records, 16 bytes each, follow the header: long epoch second (UTC), double amount.
+public final class BinaryTransactionFile {
+
+	static final int MAGIC = 'R' | 'S' << 8 | 'T' << 16 | 'X' << 24;
+	static final short VERSION = 1;
+	static final short FLAG_SORTED = 1;
+	static final int HEADER_BYTES = 64;
+	static final int RECORD_BYTES = 16;
+	// One mapping is limited to 2 GiB, so records are mapped in windows of whole records.
+	private static final long WINDOW_BYTES = (long) (Integer.MAX_VALUE / RECORD_BYTES) * RECORD_BYTES;
+	// The batch is array-backed, so a file holds at most as many records as an array can.
+	private static final long MAX_RECORDS = Integer.MAX_VALUE - 8;
+
+	private BinaryTransactionFile() {
+	}
+
+	public record Header(long count, boolean sorted, int age, double wage, double inflation) {}
+
+	public record Contents(Header header, TransactionBatch batch) {}
+
+	// Copies the records straight from the mapping into the batch's epochSeconds and amount
+	// columns. A file flagged sorted is checked while copying, since the filter trusts the flag.
+	public static Contents read(Path path) throws IOException {
+		return read(path, MAX_RECORDS);
+	}
+
+	// As read(path), but a file declaring more than recordLimit records is rejected from its
+	// header, before the batch is allocated.
+	public static Contents read(Path path, long recordLimit) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_BYTES) {
+				throw new IllegalArgumentException(path + " is not a transaction file: shorter than its header");
+			}
+			Header header = readHeader(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN));
+			if (size != HEADER_BYTES + header.count() * RECORD_BYTES) {
+				throw new IllegalArgumentException(path + " declares " + header.count() + " records but is " + size + " bytes long");
+			}
+			if (header.count() > recordLimit) {
+				throw new IllegalArgumentException(path + " holds " + header.count() + " records, more than the "
+						+ recordLimit + " this heap can process at once; raise -Xmx or split the file");
+			}
+			TransactionBatch batch = new TransactionBatch((int) header.count());
+			long[] epochSeconds = batch.epochSeconds();
+			double[] amount = batch.amount();
+			int row = 0;
+			long previous = Long.MIN_VALUE;
+			for (long offset = HEADER_BYTES; offset < size; offset += WINDOW_BYTES) {
+				ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_BYTES, size - offset))
+						.order(ByteOrder.LITTLE_ENDIAN);
+				for (int position = 0; position < window.limit(); position += RECORD_BYTES, row++) {
+					long epochSecond = window.getLong(position);
+					double value = window.getDouble(position + Long.BYTES);
+					if (header.sorted() && epochSecond < previous) {
+						throw new IllegalArgumentException(path + " is flagged sorted but record #" + (row + 1) + " is out of order");
+					}
+					if (!Double.isFinite(value)) {
+						throw new IllegalArgumentException(path + " has a non-finite amount in record #" + (row + 1));
+					}
+					epochSeconds[row] = epochSecond;
+					amount[row] = value;
+					previous = epochSecond;
+				}
+			}
+			return new Contents(header, batch);
+		}
+	}
+
+	// Writes count records from the columns; the sorted flag is derived from the data.
+	public static Header write(
+			Path path,
+			int age,
+			double wage,
+			double inflation,
+			long[] epochSeconds,
+			double[] amounts,
+			int count
+	) throws IOException {
+		boolean sorted = true;
+		for (int i = 1; i < count && sorted; i++) {
+			sorted = epochSeconds[i] >= epochSeconds[i - 1];
+		}
+		Header header = new Header(count, sorted, age, wage, inflation);
+		long size = HEADER_BYTES + (long) count * RECORD_BYTES;
+		try (FileChannel channel = FileChannel.open(
+				path,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ,
+				StandardOpenOption.WRITE
+		)) {
+			ByteBuffer headerBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			headerBuffer.putInt(0, MAGIC)
+					.putShort(4, VERSION)
+					.putShort(6, sorted ? FLAG_SORTED : 0)
+					.putLong(8, count)
+					.putInt(16, age)
+					.putDouble(24, wage)
+					.putDouble(32, inflation);
+			int row = 0;
+			for (long offset = HEADER_BYTES; offset < size; offset += WINDOW_BYTES) {
+				ByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE, offset, Math.min(WINDOW_BYTES, size - offset))
+						.order(ByteOrder.LITTLE_ENDIAN);
+				for (int position = 0; position < window.limit(); position += RECORD_BYTES, row++) {
+					window.putLong(position, epochSeconds[row]);
+					window.putDouble(position + Long.BYTES, amounts[row]);
+				}
+			}
+		}
+		return header;
+	}
+
+	private static Header readHeader(Path path, ByteBuffer buffer) {
+		if (buffer.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException(path + " is not a transaction file: bad magic number");
+		}
+		if (buffer.getShort(4) != VERSION) {
+			throw new IllegalArgumentException(path + " has unsupported format version " + buffer.getShort(4));
+		}
+		Header header = new Header(
+				buffer.getLong(8),
+				(buffer.getShort(6) & FLAG_SORTED) != 0,
+				buffer.getInt(16),
+				buffer.getDouble(24),
+				buffer.getDouble(32)
+		);
+		if (header.count() < 0 || header.count() > MAX_RECORDS) {
+			throw new IllegalArgumentException(path + " declares an unsupported record count " + header.count());
+		}
+		if (header.age() < 0 || !(header.wage() > 0) || !(header.inflation() >= 0)) {
+			throw new IllegalArgumentException(path + " needs age >= 0, wage > 0 and inflation >= 0");
+		}
+		return header;
+	}
+}
@@ -0,0 +1,8 @@
+package com.example.retirementsavings.service;
+
+// Bulk ceiling/remanent rounding of amount[from, to) to multiples of step. Implemented outside the
+// main source set by VectorizedCeiling, so main compiles without the incubating Vector API.
+interface CeilingKernel {
+
+	void ceilingAndRemanent(double[] amount, double[] ceiling, double[] remanent, int from, int to, double step);
+}
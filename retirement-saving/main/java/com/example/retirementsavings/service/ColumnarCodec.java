@@ -0,0 +1,650 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationResponse;
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.InstrumentRateInput;
+import com.example.retirementsavings.api.dto.InstrumentReturnsOutput;
+import com.example.retirementsavings.api.dto.InvalidTransactionOutput;
+import com.example.retirementsavings.api.dto.KPeriodInput;
+import com.example.retirementsavings.api.dto.PPeriodInput;
+import com.example.retirementsavings.api.dto.QPeriodInput;
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
+import com.example.retirementsavings.api.dto.SavingsByDateOutput;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import com.example.retirementsavings.api.dto.TransactionFilterResponse;
+import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.example.retirementsavings.api.dto.TransactionValidationRequest;
+import com.example.retirementsavings.api.dto.TransactionValidationResponse;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Compact binary bodies for the transactions and returns endpoints, negotiated with the
+// application/x-retirement-columnar media type. All values are little-endian. A body starts with
+// an 8-byte header: int magic "RSCB", short format version, short message kind (Kind). Lists are
+// written column by column after an int count (-1 for an absent optional list): all dates as
+// long epoch seconds (UTC), then each double column, so decoding is a few bulk passes with no
+// text or date-pattern parsing. Strings are an int UTF-8 length (-1 for null) and the bytes.
+// Absent doubles are NaN, absent dates Long.MIN_VALUE, and inKPeriod is a byte (0, 1, 2 = absent).
+public final class ColumnarCodec {
+
+	public static final String MEDIA_TYPE = "application/x-retirement-columnar";
+	static final int MAGIC = 'R' | 'S' << 8 | 'C' << 16 | 'B' << 24;
+	static final short VERSION = 1;
+	private static final long NO_DATE = Long.MIN_VALUE;
+	private static final byte NO_FLAG = 2;
+
+	private ColumnarCodec() {
+	}
+
+	enum Kind {
+		EXPENSES,
+		TRANSACTIONS,
+		FILTER_REQUEST,
+		FILTER_RESPONSE,
+		VALIDATION_REQUEST,
+		VALIDATION_RESPONSE,
+		RETURNS_REQUEST,
+		RETURNS_RESPONSE,
+		COMBINED_RETURNS_REQUEST,
+		COMBINED_RETURNS_RESPONSE;
+
+		// Lists are told apart by their element type, so the generic type is needed for them.
+		static Kind of(Type type) {
+			if (type instanceof ParameterizedType parameterized
+					&& parameterized.getRawType() == List.class
+					&& parameterized.getActualTypeArguments().length == 1) {
+				Type element = parameterized.getActualTypeArguments()[0];
+				if (element == ExpenseInput.class) {
+					return EXPENSES;
+				}
+				return element == TransactionOutput.class ? TRANSACTIONS : null;
+			}
+			if (type == TransactionFilterRequest.class) {
+				return FILTER_REQUEST;
+			}
+			if (type == TransactionFilterResponse.class) {
+				return FILTER_RESPONSE;
+			}
+			if (type == TransactionValidationRequest.class) {
+				return VALIDATION_REQUEST;
+			}
+			if (type == TransactionValidationResponse.class) {
+				return VALIDATION_RESPONSE;
+			}
+			if (type == ReturnsCalculationRequest.class) {
+				return RETURNS_REQUEST;
+			}
+			if (type == ReturnsCalculationResponse.class) {
+				return RETURNS_RESPONSE;
+			}
+			if (type == CombinedReturnsCalculationRequest.class) {
+				return COMBINED_RETURNS_REQUEST;
+			}
+			return type == CombinedReturnsCalculationResponse.class ? COMBINED_RETURNS_RESPONSE : null;
+		}
+	}
+
+	public static boolean supports(Type type) {
+		return Kind.of(type) != null;
+	}
+
+	public static byte[] write(Object value, Type type) {
+		Kind kind = Kind.of(type);
+		if (kind == null) {
+			throw new IllegalArgumentException("No columnar encoding for " + type.getTypeName());
+		}
+		Writer writer = new Writer();
+		writer.putInt(MAGIC);
+		writer.putShort(VERSION);
+		writer.putShort((short) kind.ordinal());
+		switch (kind) {
+			case EXPENSES -> writer.expenses(castList(value));
+			case TRANSACTIONS -> writer.transactions(castList(value));
+			case FILTER_REQUEST -> {
+				TransactionFilterRequest request = (TransactionFilterRequest) value;
+				writer.periods(request.q(), request.p(), request.k());
+				writer.putNullableDouble(request.wage());
+				writer.expenses(request.transactions());
+				writer.string(request.ruleSetId());
+			}
+			case FILTER_RESPONSE -> {
+				TransactionFilterResponse response = (TransactionFilterResponse) value;
+				writer.transactions(response.valid());
+				writer.invalidTransactions(response.invalid());
+			}
+			case VALIDATION_REQUEST -> {
+				TransactionValidationRequest request = (TransactionValidationRequest) value;
+				writer.putNullableDouble(request.wage());
+				writer.transactions(request.transactions());
+			}
+			case VALIDATION_RESPONSE -> {
+				TransactionValidationResponse response = (TransactionValidationResponse) value;
+				writer.transactions(response.valid());
+				writer.invalidTransactions(response.invalid());
+			}
+			case RETURNS_REQUEST -> {
+				ReturnsCalculationRequest request = (ReturnsCalculationRequest) value;
+				writer.returnsInputs(request.age(), request.wage(), request.inflation());
+				writer.periods(request.q(), request.p(), request.k());
+				writer.expenses(request.transactions());
+				writer.string(request.ruleSetId());
+			}
+			case RETURNS_RESPONSE -> writer.returns((ReturnsCalculationResponse) value);
+			case COMBINED_RETURNS_REQUEST -> {
+				CombinedReturnsCalculationRequest request = (CombinedReturnsCalculationRequest) value;
+				writer.returnsInputs(request.age(), request.wage(), request.inflation());
+				writer.periods(request.q(), request.p(), request.k());
+				writer.expenses(request.transactions());
+				writer.instruments(request.instruments());
+				writer.string(request.ruleSetId());
+			}
+			case COMBINED_RETURNS_RESPONSE -> {
+				CombinedReturnsCalculationResponse response = (CombinedReturnsCalculationResponse) value;
+				writer.returns(response.nps());
+				writer.returns(response.index());
+				writer.putInt(response.instruments().size());
+				for (InstrumentReturnsOutput instrument : response.instruments()) {
+					writer.string(instrument.name());
+					writer.putDouble(instrument.rate());
+					writer.savingsByDates(instrument.savingsByDates());
+				}
+			}
+		}
+		return writer.toByteArray();
+	}
+
+	// Malformed, truncated or mismatched bodies fail with an IllegalArgumentException.
+	public static Object read(byte[] body, Type type) {
+		Kind kind = Kind.of(type);
+		if (kind == null) {
+			throw new IllegalArgumentException("No columnar encoding for " + type.getTypeName());
+		}
+		Reader reader = new Reader(body);
+		try {
+			if (reader.buffer.getInt() != MAGIC) {
+				throw new IllegalArgumentException("Not a columnar body: bad magic number");
+			}
+			short version = reader.buffer.getShort();
+			if (version != VERSION) {
+				throw new IllegalArgumentException("Unsupported columnar version " + version);
+			}
+			short actual = reader.buffer.getShort();
+			if (actual != kind.ordinal()) {
+				throw new IllegalArgumentException("Expected a " + kind + " body but got message kind " + actual);
+			}
+			Object value = switch (kind) {
+				case EXPENSES -> reader.expenses();
+				case TRANSACTIONS -> reader.transactions();
+				case FILTER_REQUEST -> {
+					List<QPeriodInput> q = reader.qPeriods();
+					List<PPeriodInput> p = reader.pPeriods();
+					List<KPeriodInput> k = reader.kPeriods();
+					yield new TransactionFilterRequest(q, p, k, reader.nullableDouble(), reader.expenses(), reader.string());
+				}
+				case FILTER_RESPONSE -> new TransactionFilterResponse(reader.transactions(), reader.invalidTransactions());
+				case VALIDATION_REQUEST -> new TransactionValidationRequest(reader.nullableDouble(), reader.transactions());
+				case VALIDATION_RESPONSE -> new TransactionValidationResponse(reader.transactions(), reader.invalidTransactions());
+				case RETURNS_REQUEST -> {
+					Integer age = reader.nullableInt();
+					Double wage = reader.nullableDouble();
+					Double inflation = reader.nullableDouble();
+					List<QPeriodInput> q = reader.qPeriods();
+					List<PPeriodInput> p = reader.pPeriods();
+					List<KPeriodInput> k = reader.kPeriods();
+					yield new ReturnsCalculationRequest(age, wage, inflation, q, p, k, reader.expenses(), reader.string());
+				}
+				case RETURNS_RESPONSE -> reader.returns();
+				case COMBINED_RETURNS_REQUEST -> {
+					Integer age = reader.nullableInt();
+					Double wage = reader.nullableDouble();
+					Double inflation = reader.nullableDouble();
+					List<QPeriodInput> q = reader.qPeriods();
+					List<PPeriodInput> p = reader.pPeriods();
+					List<KPeriodInput> k = reader.kPeriods();
+					List<ExpenseInput> transactions = reader.expenses();
+					List<InstrumentRateInput> instruments = reader.instruments();
+					yield new CombinedReturnsCalculationRequest(age, wage, inflation, q, p, k, transactions, instruments, reader.string());
+				}
+				case COMBINED_RETURNS_RESPONSE -> {
+					ReturnsCalculationResponse nps = reader.returns();
+					ReturnsCalculationResponse index = reader.returns();
+					int count = reader.count(Integer.BYTES + Double.BYTES + Integer.BYTES);
+					List<InstrumentReturnsOutput> instruments = new ArrayList<>(count);
+					for (int i = 0; i < count; i++) {
+						instruments.add(new InstrumentReturnsOutput(reader.string(), reader.buffer.getDouble(), reader.savingsByDates()));
+					}
+					yield new CombinedReturnsCalculationResponse(nps, index, instruments);
+				}
+			};
+			if (reader.buffer.hasRemaining()) {
+				throw new IllegalArgumentException(reader.buffer.remaining() + " trailing bytes after the " + kind + " body");
+			}
+			return value;
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Truncated " + kind + " body", e);
+		} catch (DateTimeException e) {
+			throw new IllegalArgumentException("Date out of range in " + kind + " body", e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> castList(Object value) {
+		return (List<T>) value;
+	}
+
+	private static long toEpochSecond(LocalDateTime date) {
+		return date == null ? NO_DATE : TransactionBatch.toEpochSecond(date);
+	}
+
+	private static LocalDateTime toDate(long epochSecond) {
+		return epochSecond == NO_DATE ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+	}
+
+	private static double orNaN(Double value) {
+		return value == null ? Double.NaN : value;
+	}
+
+	private static Double orNull(double value) {
+		return Double.isNaN(value) ? null : value;
+	}
+
+	private static final class Writer {
+
+		private ByteBuffer buffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+
+		private void ensure(long bytes) {
+			if (buffer.remaining() >= bytes) {
+				return;
+			}
+			long needed = buffer.position() + bytes;
+			if (needed > Integer.MAX_VALUE - 8) {
+				throw new IllegalArgumentException("Columnar body would exceed 2 GiB");
+			}
+			int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, 2L * buffer.capacity()));
+			buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN).put(buffer.flip());
+		}
+
+		private void putInt(int value) {
+			ensure(Integer.BYTES);
+			buffer.putInt(value);
+		}
+
+		private void putShort(short value) {
+			ensure(Short.BYTES);
+			buffer.putShort(value);
+		}
+
+		private void putDouble(double value) {
+			ensure(Double.BYTES);
+			buffer.putDouble(value);
+		}
+
+		private void putNullableDouble(Double value) {
+			putDouble(orNaN(value));
+		}
+
+		private void string(String value) {
+			if (value == null) {
+				putInt(-1);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			putInt(bytes.length);
+			ensure(bytes.length);
+			buffer.put(bytes);
+		}
+
+		private boolean count(List<?> values, int rowBytes) {
+			if (values == null) {
+				putInt(-1);
+				return false;
+			}
+			putInt(values.size());
+			ensure((long) values.size() * rowBytes);
+			return true;
+		}
+
+		private void returnsInputs(Integer age, Double wage, Double inflation) {
+			putInt(age == null ? Integer.MIN_VALUE : age);
+			putNullableDouble(wage);
+			putNullableDouble(inflation);
+		}
+
+		private void expenses(List<? extends ExpenseInput> expenses) {
+			if (!count(expenses, 2 * Long.BYTES)) {
+				return;
+			}
+			for (ExpenseInput expense : expenses) {
+				buffer.putLong(toEpochSecond(expense.getDate()));
+			}
+			for (ExpenseInput expense : expenses) {
+				buffer.putDouble(orNaN(expense.getAmount()));
+			}
+		}
+
+		private void transactions(List<? extends TransactionOutput> transactions) {
+			if (!count(transactions, 4 * Long.BYTES + 1)) {
+				return;
+			}
+			for (TransactionOutput transaction : transactions) {
+				buffer.putLong(toEpochSecond(transaction.getDate()));
+			}
+			for (TransactionOutput transaction : transactions) {
+				buffer.putDouble(orNaN(transaction.getAmount()));
+			}
+			for (TransactionOutput transaction : transactions) {
+				buffer.putDouble(orNaN(transaction.getCeiling()));
+			}
+			for (TransactionOutput transaction : transactions) {
+				buffer.putDouble(orNaN(transaction.getRemanent()));
+			}
+			for (TransactionOutput transaction : transactions) {
+				Boolean inKPeriod = transaction.getInKPeriod();
+				buffer.put(inKPeriod == null ? NO_FLAG : (byte) (inKPeriod ? 1 : 0));
+			}
+		}
+
+		private void invalidTransactions(List<InvalidTransactionOutput> transactions) {
+			transactions(transactions);
+			if (transactions != null) {
+				for (InvalidTransactionOutput transaction : transactions) {
+					string(transaction.getMessage());
+				}
+			}
+		}
+
+		private void periods(List<QPeriodInput> q, List<PPeriodInput> p, List<KPeriodInput> k) {
+			if (count(q, 3 * Long.BYTES)) {
+				for (QPeriodInput period : q) {
+					buffer.putDouble(orNaN(period.fixed()));
+				}
+				for (QPeriodInput period : q) {
+					buffer.putLong(toEpochSecond(period.start()));
+				}
+				for (QPeriodInput period : q) {
+					buffer.putLong(toEpochSecond(period.end()));
+				}
+			}
+			if (count(p, 3 * Long.BYTES)) {
+				for (PPeriodInput period : p) {
+					buffer.putDouble(orNaN(period.extra()));
+				}
+				for (PPeriodInput period : p) {
+					buffer.putLong(toEpochSecond(period.start()));
+				}
+				for (PPeriodInput period : p) {
+					buffer.putLong(toEpochSecond(period.end()));
+				}
+			}
+			if (count(k, 2 * Long.BYTES)) {
+				for (KPeriodInput period : k) {
+					buffer.putLong(toEpochSecond(period.start()));
+				}
+				for (KPeriodInput period : k) {
+					buffer.putLong(toEpochSecond(period.end()));
+				}
+			}
+		}
+
+		private void instruments(List<InstrumentRateInput> instruments) {
+			if (!count(instruments, Integer.BYTES + Double.BYTES)) {
+				return;
+			}
+			for (InstrumentRateInput instrument : instruments) {
+				string(instrument.name());
+				putNullableDouble(instrument.rate());
+			}
+		}
+
+		private void returns(ReturnsCalculationResponse response) {
+			putDouble(response.totalTransactionAmount());
+			putDouble(response.totalCeiling());
+			savingsByDates(response.savingsByDates());
+		}
+
+		private void savingsByDates(List<SavingsByDateOutput> savings) {
+			count(savings, 5 * Long.BYTES);
+			for (SavingsByDateOutput period : savings) {
+				buffer.putLong(toEpochSecond(period.start()));
+			}
+			for (SavingsByDateOutput period : savings) {
+				buffer.putLong(toEpochSecond(period.end()));
+			}
+			for (SavingsByDateOutput period : savings) {
+				buffer.putDouble(period.amount());
+			}
+			for (SavingsByDateOutput period : savings) {
+				buffer.putDouble(period.profit());
+			}
+			for (SavingsByDateOutput period : savings) {
+				buffer.putDouble(period.taxBenefit());
+			}
+		}
+
+		private byte[] toByteArray() {
+			return Arrays.copyOf(buffer.array(), buffer.position());
+		}
+	}
+
+	private static final class Reader {
+
+		private final ByteBuffer buffer;
+
+		private Reader(byte[] body) {
+			this.buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		// Checks the declared count against the bytes left, so a bad count cannot force a huge allocation.
+		private int count(int rowBytes) {
+			int count = buffer.getInt();
+			if (count < 0 || (long) count * rowBytes > buffer.remaining()) {
+				throw new IllegalArgumentException("Invalid list length " + count);
+			}
+			return count;
+		}
+
+		// -1 marks an absent optional list.
+		private int optionalCount(int rowBytes) {
+			int count = buffer.getInt();
+			if (count == -1) {
+				return -1;
+			}
+			buffer.position(buffer.position() - Integer.BYTES);
+			return count(rowBytes);
+		}
+
+		private Integer nullableInt() {
+			int value = buffer.getInt();
+			return value == Integer.MIN_VALUE ? null : value;
+		}
+
+		private Double nullableDouble() {
+			return orNull(buffer.getDouble());
+		}
+
+		private String string() {
+			int length = buffer.getInt();
+			if (length == -1) {
+				return null;
+			}
+			if (length < 0 || length > buffer.remaining()) {
+				throw new IllegalArgumentException("Invalid string length " + length);
+			}
+			String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+			buffer.position(buffer.position() + length);
+			return value;
+		}
+
+		private long[] longs(int count) {
+			long[] values = new long[count];
+			buffer.asLongBuffer().get(values);
+			buffer.position(buffer.position() + count * Long.BYTES);
+			return values;
+		}
+
+		private double[] doubles(int count) {
+			double[] values = new double[count];
+			buffer.asDoubleBuffer().get(values);
+			buffer.position(buffer.position() + count * Double.BYTES);
+			return values;
+		}
+
+		private List<ExpenseInput> expenses() {
+			int count = optionalCount(2 * Long.BYTES);
+			if (count < 0) {
+				return null;
+			}
+			long[] dates = longs(count);
+			double[] amounts = doubles(count);
+			List<ExpenseInput> expenses = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				// JSON cannot carry infinities, so neither does this format.
+				if (Double.isInfinite(amounts[i])) {
+					throw new IllegalArgumentException("Non-finite amount at transaction " + i);
+				}
+				expenses.add(new ExpenseInput(toDate(dates[i]), orNull(amounts[i])));
+			}
+			return expenses;
+		}
+
+		private List<TransactionOutput> transactions() {
+			int count = optionalCount(4 * Long.BYTES + 1);
+			if (count < 0) {
+				return null;
+			}
+			List<TransactionOutput> transactions = new ArrayList<>(count);
+			readTransactions(count, (date, amount, ceiling, remanent, inKPeriod) ->
+					transactions.add(new TransactionOutput(date, amount, ceiling, remanent, inKPeriod)));
+			return transactions;
+		}
+
+		private List<InvalidTransactionOutput> invalidTransactions() {
+			int count = optionalCount(4 * Long.BYTES + 1);
+			if (count < 0) {
+				return null;
+			}
+			List<InvalidTransactionOutput> transactions = new ArrayList<>(count);
+			readTransactions(count, (date, amount, ceiling, remanent, inKPeriod) -> {
+				InvalidTransactionOutput transaction = new InvalidTransactionOutput(date, amount, ceiling, remanent, null);
+				transaction.setInKPeriod(inKPeriod);
+				transactions.add(transaction);
+			});
+			for (InvalidTransactionOutput transaction : transactions) {
+				transaction.setMessage(string());
+			}
+			return transactions;
+		}
+
+		private void readTransactions(int count, TransactionRow row) {
+			long[] dates = longs(count);
+			double[] amounts = doubles(count);
+			double[] ceilings = doubles(count);
+			double[] remanents = doubles(count);
+			for (int i = 0; i < count; i++) {
+				byte flag = buffer.get();
+				row.accept(
+						toDate(dates[i]),
+						orNull(amounts[i]),
+						orNull(ceilings[i]),
+						orNull(remanents[i]),
+						flag == NO_FLAG ? null : flag == 1
+				);
+			}
+		}
+
+		private List<QPeriodInput> qPeriods() {
+			int count = optionalCount(3 * Long.BYTES);
+			if (count < 0) {
+				return null;
+			}
+			double[] fixed = doubles(count);
+			long[] starts = longs(count);
+			long[] ends = longs(count);
+			List<QPeriodInput> periods = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				periods.add(new QPeriodInput(orNull(fixed[i]), toDate(starts[i]), toDate(ends[i])));
+			}
+			return periods;
+		}
+
+		private List<PPeriodInput> pPeriods() {
+			int count = optionalCount(3 * Long.BYTES);
+			if (count < 0) {
+				return null;
+			}
+			double[] extra = doubles(count);
+			long[] starts = longs(count);
+			long[] ends = longs(count);
+			List<PPeriodInput> periods = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				periods.add(new PPeriodInput(orNull(extra[i]), toDate(starts[i]), toDate(ends[i])));
+			}
+			return periods;
+		}
+
+		private List<KPeriodInput> kPeriods() {
+			int count = optionalCount(2 * Long.BYTES);
+			if (count < 0) {
+				return null;
+			}
+			long[] starts = longs(count);
+			long[] ends = longs(count);
+			List<KPeriodInput> periods = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				periods.add(new KPeriodInput(toDate(starts[i]), toDate(ends[i])));
+			}
+			return periods;
+		}
+
+		private List<InstrumentRateInput> instruments() {
+			int count = optionalCount(Integer.BYTES + Double.BYTES);
+			if (count < 0) {
+				return null;
+			}
+			List<InstrumentRateInput> instruments = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				instruments.add(new InstrumentRateInput(string(), nullableDouble()));
+			}
+			return instruments;
+		}
+
+		private ReturnsCalculationResponse returns() {
+			double totalTransactionAmount = buffer.getDouble();
+			double totalCeiling = buffer.getDouble();
+			return new ReturnsCalculationResponse(totalTransactionAmount, totalCeiling, savingsByDates());
+		}
+
+		private List<SavingsByDateOutput> savingsByDates() {
+			int count = count(5 * Long.BYTES);
+			long[] starts = longs(count);
+			long[] ends = longs(count);
+			double[] amounts = doubles(count);
+			double[] profits = doubles(count);
+			double[] taxBenefits = doubles(count);
+			List<SavingsByDateOutput> savings = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				savings.add(new SavingsByDateOutput(toDate(starts[i]), toDate(ends[i]), amounts[i], profits[i], taxBenefits[i]));
+			}
+			return savings;
+		}
+	}
+
+	@FunctionalInterface
+	private interface TransactionRow {
+
+		void accept(LocalDateTime date, Double amount, Double ceiling, Double remanent, Boolean inKPeriod);
+	}
+}
@@ -0,0 +1,27 @@
+package com.example.retirementsavings.service;
+
+// Kahan-compensated running sum with the same accuracy as DoubleStream.sum(), for loops that
+// accumulate totals while doing other work instead of streaming a second time.
+final class CompensatedSum {
+
+	private double sum;
+	private double compensation;
+	private double simpleSum;
+
+	void add(double value) {
+		double corrected = value - compensation;
+		double next = sum + corrected;
+		compensation = (next - sum) - corrected;
+		sum = next;
+		simpleSum += value;
+	}
+
+	double value() {
+		double total = sum - compensation;
+		// Like DoubleStream.sum(), prefer the plain sum when infinities turned the compensation into NaN.
+		if (Double.isNaN(total) && Double.isInfinite(simpleSum)) {
+			return simpleSum;
+		}
+		return total;
+	}
+}
@@ -0,0 +1,123 @@
+package com.example.retirementsavings.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs the CPU-bound part of a request. On platform request threads the work stays inline. With
+// virtual request threads it moves to a small fixed pool of platform threads, so the number of
+// requests computing at once is bounded by cores, not by open connections, and requests stuck on
+// slow clients (reading the body, writing the response) never hold a compute thread. When the
+// pool and its queue are full the task is rejected with RejectedExecutionException. Offloaded
+// tasks are measured on the compute thread and their CPU time and allocation added to the
+// request's ThreadUsage.Offloaded attribute, since the request thread's counters cannot see them.
+@Component
+public class ComputeExecutor {
+
+	private final ThreadPoolExecutor pool;
+
+	public ComputeExecutor() {
+		this.pool = null;
+	}
+
+	@Autowired
+	public ComputeExecutor(
+			@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+			@Value("${retirement.compute.threads:0}") int threads,
+			@Value("${retirement.compute.queue-capacity:256}") int queueCapacity
+	) {
+		this.pool = virtualThreads ? newPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), queueCapacity) : null;
+	}
+
+	public boolean isOffloading() {
+		return pool != null;
+	}
+
+	public <T> T run(Supplier<T> task) {
+		if (pool == null) {
+			return task.get();
+		}
+		ThreadUsage.Offloaded offloaded = offloadedUsage();
+		long[] usage = new long[2];
+		Future<T> result = pool.submit(offloaded == null ? task::get : () -> measured(task, usage));
+		boolean completed = false;
+		try {
+			T value = result.get();
+			completed = true;
+			return value;
+		} catch (InterruptedException ex) {
+			result.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the compute pool", ex);
+		} catch (ExecutionException ex) {
+			completed = true;
+			if (ex.getCause() instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			if (ex.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException(ex.getCause());
+		} finally {
+			// Future.get makes the task's writes to usage visible here.
+			if (offloaded != null && completed) {
+				offloaded.add(usage[0], usage[1]);
+			}
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	private static <T> T measured(Supplier<T> task, long[] usage) {
+		long startCpuNanos = ThreadUsage.currentThreadCpuNanos();
+		long startAllocatedBytes = ThreadUsage.currentThreadAllocatedBytes();
+		try {
+			return task.get();
+		} finally {
+			usage[0] = startCpuNanos < 0 ? 0 : ThreadUsage.currentThreadCpuNanos() - startCpuNanos;
+			usage[1] = startAllocatedBytes < 0 ? 0 : ThreadUsage.currentThreadAllocatedBytes() - startAllocatedBytes;
+		}
+	}
+
+	private static ThreadUsage.Offloaded offloadedUsage() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null) {
+			return null;
+		}
+		Object offloaded = attributes.getAttribute(ThreadUsage.OFFLOADED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		return offloaded instanceof ThreadUsage.Offloaded usage ? usage : null;
+	}
+
+	private static ThreadPoolExecutor newPool(int threads, int queueCapacity) {
+		AtomicInteger counter = new AtomicInteger();
+		return new ThreadPoolExecutor(
+				threads,
+				threads,
+				0L,
+				TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				task -> {
+					Thread thread = new Thread(task, "compute-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				new ThreadPoolExecutor.AbortPolicy()
+		);
+	}
+}
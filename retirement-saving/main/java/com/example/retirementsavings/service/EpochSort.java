@@ -0,0 +1,100 @@
+package com.example.retirementsavings.service;
+
+import java.util.Arrays;
+
+// Orders row indices by a primitive epoch key with the index as tiebreak, without boxing.
+final class EpochSort {
+
+	private static final int INDEX_BITS = 31;
+	private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+	private static final long MAX_PACKED_RANGE = 1L << 32;
+
+	private EpochSort() {
+	}
+
+	static int[] identity(int count) {
+		int[] indices = new int[count];
+		for (int i = 0; i < count; i++) {
+			indices[i] = i;
+		}
+		return indices;
+	}
+
+	// Indices must be ascending so that equal keys come out in (key, index) order.
+	static int[] sort(long[] keys, int[] indices, int count) {
+		return sort(keys, indices, count, false);
+	}
+
+	// The packed keys are unique, so a parallel sort yields exactly the same order.
+	static int[] sort(long[] keys, int[] indices, int count, boolean parallel) {
+		if (count < 2) {
+			return Arrays.copyOf(indices, count);
+		}
+		long min = Long.MAX_VALUE;
+		long max = Long.MIN_VALUE;
+		boolean ascending = true;
+		for (int i = 0; i < count; i++) {
+			long key = keys[indices[i]];
+			ascending &= key >= max;
+			min = Math.min(min, key);
+			max = Math.max(max, key);
+		}
+		// Already in time order (presorted input files): ascending indices keep the tiebreak as is.
+		if (ascending) {
+			return Arrays.copyOf(indices, count);
+		}
+		// ~136 years of seconds fit beside a 31-bit index in one long, so a single primitive sort suffices.
+		if (max - min >= 0 && max - min < MAX_PACKED_RANGE) {
+			return packedSort(keys, indices, count, min, parallel);
+		}
+		return mergeSort(keys, indices, count);
+	}
+
+	private static int[] packedSort(long[] keys, int[] indices, int count, long min, boolean parallel) {
+		long[] packed = new long[count];
+		for (int i = 0; i < count; i++) {
+			int index = indices[i];
+			packed[i] = ((keys[index] - min) << INDEX_BITS) | index;
+		}
+		if (parallel) {
+			Arrays.parallelSort(packed);
+		} else {
+			Arrays.sort(packed);
+		}
+		int[] sorted = new int[count];
+		for (int i = 0; i < count; i++) {
+			sorted[i] = (int) (packed[i] & INDEX_MASK);
+		}
+		return sorted;
+	}
+
+	private static int[] mergeSort(long[] keys, int[] indices, int count) {
+		int[] sorted = Arrays.copyOf(indices, count);
+		int[] buffer = new int[count];
+		// Bottom-up merge sort is stable, so ascending input indices keep the index tiebreak.
+		for (int width = 1; width < count; width <<= 1) {
+			for (int low = 0; low < count - width; low += width << 1) {
+				int middle = low + width;
+				int high = Math.min(low + (width << 1), count);
+				merge(keys, sorted, buffer, low, middle, high);
+			}
+		}
+		return sorted;
+	}
+
+	private static void merge(long[] keys, int[] sorted, int[] buffer, int low, int middle, int high) {
+		if (keys[sorted[middle - 1]] <= keys[sorted[middle]]) {
+			return;
+		}
+		System.arraycopy(sorted, low, buffer, low, high - low);
+		int left = low;
+		int right = middle;
+		for (int i = low; i < high; i++) {
+			if (right >= high || (left < middle && keys[buffer[left]] <= keys[buffer[right]])) {
+				sorted[i] = buffer[left++];
+			} else {
+				sorted[i] = buffer[right++];
+			}
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.example.retirementsavings.service;
+
+// Open-addressing (linear probing) hash set of fixed-width long tuples. Used for duplicate
+// detection on the hot paths, where a String fingerprint per transaction is too expensive.
+// Not thread-safe: each request owns its own set.
+public final class FingerprintSet {
+
+	private static final int MIN_CAPACITY = 16;
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final int width;
+	private final int maxCapacity;
+	private final long[] scratch;
+	private long[] keys;
+	private boolean[] occupied;
+	private int mask;
+	private int size;
+	private int resizeAt;
+
+	public FingerprintSet(int width, int expectedSize) {
+		if (width < 1) {
+			throw new IllegalArgumentException("Fingerprint width must be positive");
+		}
+		this.width = width;
+		// keys is a single long[] of capacity * width entries, so the capacity is bounded by array size.
+		this.maxCapacity = Integer.highestOneBit((Integer.MAX_VALUE - 8) / width);
+		this.scratch = new long[width];
+		allocate(capacityFor(expectedSize));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	// Returns true when the tuple was not present yet, mirroring Set.add.
+	public boolean add(long first, long second) {
+		checkWidth(2);
+		scratch[0] = first;
+		scratch[1] = second;
+		return addScratch();
+	}
+
+	public boolean add(long first, long second, long third, long fourth) {
+		checkWidth(4);
+		scratch[0] = first;
+		scratch[1] = second;
+		scratch[2] = third;
+		scratch[3] = fourth;
+		return addScratch();
+	}
+
+	private boolean addScratch() {
+		int slot = (int) hash(scratch, 0) & mask;
+		while (occupied[slot]) {
+			if (matches(slot)) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		System.arraycopy(scratch, 0, keys, slot * width, width);
+		occupied[slot] = true;
+		if (++size > resizeAt) {
+			rehash();
+		}
+		return true;
+	}
+
+	private boolean matches(int slot) {
+		int offset = slot * width;
+		for (int i = 0; i < width; i++) {
+			if (keys[offset + i] != scratch[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void rehash() {
+		long[] oldKeys = keys;
+		boolean[] oldOccupied = occupied;
+		if (oldOccupied.length >= maxCapacity) {
+			throw new IllegalStateException("Fingerprint set cannot grow beyond " + size + " entries");
+		}
+		allocate(oldOccupied.length << 1);
+		for (int oldSlot = 0; oldSlot < oldOccupied.length; oldSlot++) {
+			if (!oldOccupied[oldSlot]) {
+				continue;
+			}
+			int slot = (int) hash(oldKeys, oldSlot * width) & mask;
+			while (occupied[slot]) {
+				slot = (slot + 1) & mask;
+			}
+			System.arraycopy(oldKeys, oldSlot * width, keys, slot * width, width);
+			occupied[slot] = true;
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity * width];
+		occupied = new boolean[capacity];
+		mask = capacity - 1;
+		// Keep the load factor at or below 1/2 so probe sequences stay short.
+		resizeAt = capacity >>> 1;
+	}
+
+	private long hash(long[] words, int offset) {
+		long hash = 0;
+		for (int i = 0; i < width; i++) {
+			hash = Long.rotateLeft((hash ^ words[offset + i]) * GOLDEN_GAMMA, 29);
+		}
+		// MurmurHash3 finalizer so that low bits depend on every input bit.
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	private void checkWidth(int expected) {
+		if (width != expected) {
+			throw new IllegalStateException("Fingerprint set holds " + width + " words per entry, not " + expected);
+		}
+	}
+
+	private int capacityFor(int expectedSize) {
+		long wanted = Math.max(MIN_CAPACITY, (long) expectedSize * 2);
+		if (wanted >= maxCapacity) {
+			return maxCapacity;
+		}
+		return Integer.highestOneBit((int) wanted - 1) << 1;
+	}
+}
@@ -0,0 +1,14 @@
+package com.example.retirementsavings.service;
+
+// A request the client must fix: a malformed streamed record, an unusable rule set reference or an
+// invalid pricing table. Only this type is answered with a 400; any other exception is a server error.
+public class InvalidRequestException extends RuntimeException {
+
+	public InvalidRequestException(String message) {
+		super(message);
+	}
+
+	public InvalidRequestException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,147 @@
+package com.example.retirementsavings.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Running savings per k window under appends. Time is compressed to the elementary segments
+// between k boundaries (starts and end + 1), each k window is a contiguous run of segments, and a
+// Fenwick tree over the segments turns both an append and a window sum into O(log k) work. The
+// windows an append lands in are found through a max tree of last segments over the windows
+// ordered by first segment, in O((windows + 1) log k), so an append never scans every window.
+final class KWindowSums {
+
+	private final long[] boundaries;
+	private final double[] tree;
+	private final int[] fromSegment;
+	private final int[] toSegment;
+	// Non-inverted windows ordered by first segment, those first segments, and a complete binary
+	// tree (leaves at leafBase) holding the largest last segment under each node.
+	private final int[] byFromSegment;
+	private final int[] sortedFromSegment;
+	private final int[] maxToSegment;
+	private final int leafBase;
+
+	// Windows are given in input order; inverted windows (start > end) always sum to zero.
+	KWindowSums(long[] starts, long[] ends) {
+		int count = starts.length;
+		long[] candidates = new long[2 * count];
+		int n = 0;
+		for (int i = 0; i < count; i++) {
+			if (starts[i] <= ends[i]) {
+				candidates[n++] = starts[i];
+				candidates[n++] = ends[i] + 1;
+			}
+		}
+		Arrays.sort(candidates, 0, n);
+		int distinct = 0;
+		for (int i = 0; i < n; i++) {
+			if (distinct == 0 || candidates[i] != candidates[distinct - 1]) {
+				candidates[distinct++] = candidates[i];
+			}
+		}
+		this.boundaries = Arrays.copyOf(candidates, distinct);
+		// Segment s covers [boundaries[s - 1], boundaries[s]); segment 0 is everything before the first boundary.
+		this.tree = new double[distinct + 2];
+		this.fromSegment = new int[count];
+		this.toSegment = new int[count];
+		for (int i = 0; i < count; i++) {
+			if (starts[i] <= ends[i]) {
+				fromSegment[i] = segmentOf(starts[i]);
+				toSegment[i] = segmentOf(ends[i]);
+			} else {
+				fromSegment[i] = 1;
+				toSegment[i] = 0;
+			}
+		}
+		// First segment in the high half, window index in the low half, so one primitive sort orders them.
+		long[] packed = new long[count];
+		int windows = 0;
+		for (int i = 0; i < count; i++) {
+			if (fromSegment[i] <= toSegment[i]) {
+				packed[windows++] = (long) fromSegment[i] << 32 | i;
+			}
+		}
+		Arrays.sort(packed, 0, windows);
+		this.byFromSegment = new int[windows];
+		this.sortedFromSegment = new int[windows];
+		int leaves = 1;
+		while (leaves < windows) {
+			leaves <<= 1;
+		}
+		this.leafBase = leaves;
+		this.maxToSegment = new int[2 * leaves];
+		Arrays.fill(maxToSegment, -1);
+		for (int i = 0; i < windows; i++) {
+			byFromSegment[i] = (int) packed[i];
+			sortedFromSegment[i] = (int) (packed[i] >>> 32);
+			maxToSegment[leaves + i] = toSegment[byFromSegment[i]];
+		}
+		for (int node = leaves - 1; node > 0; node--) {
+			maxToSegment[node] = Math.max(maxToSegment[2 * node], maxToSegment[2 * node + 1]);
+		}
+	}
+
+	// Adds value at date and sets the input index of every window containing date in touched.
+	void add(long date, double value, BitSet touched) {
+		int segment = segmentOf(date);
+		for (int i = segment + 1; i < tree.length; i += i & -i) {
+			tree[i] += value;
+		}
+		// Windows starting at or before the segment are a prefix of byFromSegment.
+		int low = 0;
+		int high = sortedFromSegment.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedFromSegment[middle] <= segment) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		collectCovering(1, 0, leafBase, low, segment, touched);
+	}
+
+	// Of the windows at positions [nodeFrom, nodeTo) below node, those before limit that end at
+	// or after segment.
+	private void collectCovering(int node, int nodeFrom, int nodeTo, int limit, int segment, BitSet touched) {
+		if (nodeFrom >= limit || maxToSegment[node] < segment) {
+			return;
+		}
+		if (node >= leafBase) {
+			touched.set(byFromSegment[node - leafBase]);
+			return;
+		}
+		int middle = (nodeFrom + nodeTo) >>> 1;
+		collectCovering(2 * node, nodeFrom, middle, limit, segment, touched);
+		collectCovering(2 * node + 1, middle, nodeTo, limit, segment, touched);
+	}
+
+	double sum(int window) {
+		int from = fromSegment[window];
+		int to = toSegment[window];
+		return from > to ? 0.0 : prefix(to + 1) - prefix(from);
+	}
+
+	// Sum of segments [0, end).
+	private double prefix(int end) {
+		double sum = 0.0;
+		for (int i = end; i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	private int segmentOf(long date) {
+		int low = 0;
+		int high = boundaries.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (boundaries[middle] <= date) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.retirementsavings.service;
+
+// Binary heap of q-period positions (in start order) whose top is the applicable q rule:
+// latest start wins and equal starts fall back to input order. Expired periods are removed
+// lazily, which is safe because callers only move forward in time.
+final class LatestStartHeap {
+
+	private final PeriodSchedule periods;
+	private final int[] heap;
+	private int size;
+
+	LatestStartHeap(PeriodSchedule periods) {
+		this.periods = periods;
+		this.heap = new int[periods.count];
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	int peek() {
+		return heap[0];
+	}
+
+	void push(int position) {
+		int child = size++;
+		while (child > 0) {
+			int parent = (child - 1) >>> 1;
+			if (!outranks(position, heap[parent])) {
+				break;
+			}
+			heap[child] = heap[parent];
+			child = parent;
+		}
+		heap[child] = position;
+	}
+
+	void evictEndedBefore(long date) {
+		while (size > 0 && periods.endByStart[heap[0]] < date) {
+			pop();
+		}
+	}
+
+	private void pop() {
+		int last = heap[--size];
+		int parent = 0;
+		while (true) {
+			int child = (parent << 1) + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && outranks(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (!outranks(heap[child], last)) {
+				break;
+			}
+			heap[parent] = heap[child];
+			parent = child;
+		}
+		heap[parent] = last;
+	}
+
+	private boolean outranks(int left, int right) {
+		long leftStart = periods.startByStart[left];
+		long rightStart = periods.startByStart[right];
+		// Positions follow (start, input order), so a lower position means earlier input for equal starts.
+		return leftStart != rightStart ? leftStart > rightStart : left < right;
+	}
+}
@@ -0,0 +1,103 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Runs the returns pipeline over binary transaction files for backfills. Each file is copied from
+// its mapping into a columnar batch and goes through base rounding, the filter sweep and k
+// aggregation without any per-record objects; its NPS and index fund returns are written to a
+// binary returns file. Files are processed one at a time, and large ones use the filter's
+// parallel sweep.
+//
+// A file is processed whole on the heap, which takes about 55 bytes per record at the peak (the
+// batch's five columns, the sort's packed keys and index arrays, and the filter's duplicate flags
+// and valid/invalid lists); HEAP_BYTES_PER_RECORD rounds that up. A file that would need more
+// than three quarters of the maximum heap is rejected from its header, before anything is
+// allocated, so a run either fits or fails with a message instead of an OutOfMemoryError.
+@Service
+public class OfflineReturnsService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(OfflineReturnsService.class);
+	public static final String INPUT_EXTENSION = ".rstx";
+	public static final String OUTPUT_EXTENSION = ".rsrt";
+	static final long HEAP_BYTES_PER_RECORD = 64;
+
+	private final TransactionFilterService transactionFilterService;
+	private final ReturnsCalculationService returnsCalculationService;
+	private final long heapBudget;
+
+	@Autowired
+	public OfflineReturnsService(
+			TransactionFilterService transactionFilterService,
+			ReturnsCalculationService returnsCalculationService
+	) {
+		this(transactionFilterService, returnsCalculationService, Runtime.getRuntime().maxMemory() / 4 * 3);
+	}
+
+	OfflineReturnsService(
+			TransactionFilterService transactionFilterService,
+			ReturnsCalculationService returnsCalculationService,
+			long heapBudget
+	) {
+		this.transactionFilterService = transactionFilterService;
+		this.returnsCalculationService = returnsCalculationService;
+		this.heapBudget = heapBudget;
+	}
+
+	// input is a transaction file or a directory of them (*.rstx); each result is written to
+	// outputDirectory under the input's name with the .rsrt extension.
+	public List<FileSummary> runAll(Path input, Path outputDirectory, RuleSet ruleSet) throws IOException {
+		List<Path> inputs;
+		if (Files.isDirectory(input)) {
+			try (Stream<Path> files = Files.list(input)) {
+				inputs = files.filter(file -> file.getFileName().toString().endsWith(INPUT_EXTENSION))
+						.sorted()
+						.toList();
+			}
+		} else {
+			inputs = List.of(input);
+		}
+		Files.createDirectories(outputDirectory);
+		List<FileSummary> summaries = new ArrayList<>(inputs.size());
+		for (Path file : inputs) {
+			summaries.add(run(file, outputDirectory.resolve(outputName(file)), ruleSet));
+		}
+		return summaries;
+	}
+
+	public FileSummary run(Path input, Path output, RuleSet ruleSet) throws IOException {
+		BinaryTransactionFile.Contents contents = BinaryTransactionFile.read(input, heapBudget / HEAP_BYTES_PER_RECORD);
+		BinaryTransactionFile.Header header = contents.header();
+		TransactionFilterResult filtered = transactionFilterService.process(contents.batch(), header.sorted(), ruleSet);
+		ReturnsCalculationService.PeriodSavings savings = returnsCalculationService.aggregate(filtered, ruleSet);
+		ReturnsCalculationResponse nps = returnsCalculationService.priceNps(savings, header.age(), header.wage(), header.inflation());
+		ReturnsCalculationResponse index = returnsCalculationService.priceIndex(savings, header.age(), header.wage(), header.inflation());
+		BinaryReturnsFile.write(output, header.count(), filtered.invalidCount(), nps, index);
+		LOG.debug(
+				"Offline returns written: input={}, records={}, invalid={}, kPeriods={}",
+				input,
+				header.count(),
+				filtered.invalidCount(),
+				savings.periods().size()
+		);
+		return new FileSummary(input, output, header.count(), filtered.invalidCount());
+	}
+
+	private static String outputName(Path input) {
+		String name = input.getFileName().toString();
+		String stem = name.endsWith(INPUT_EXTENSION) ? name.substring(0, name.length() - INPUT_EXTENSION.length()) : name;
+		return stem + OUTPUT_EXTENSION;
+	}
+
+	public record FileSummary(Path input, Path output, long records, long invalid) {}
+}
@@ -1,9 +1,15 @@
 package com.example.retirementsavings.service;
 
+import com.example.retirementsavings.api.dto.JvmTelemetryOutput;
 import com.example.retirementsavings.api.dto.PerformanceResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.lang.management.ThreadMXBean;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -16,6 +22,17 @@ public class PerformanceService {
 	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
 	private static final double BYTES_IN_MB = 1024.0 * 1024.0;
 
+	private final RequestTelemetry requestTelemetry;
+
+	public PerformanceService() {
+		this(new RequestTelemetry());
+	}
+
+	@Autowired
+	public PerformanceService(RequestTelemetry requestTelemetry) {
+		this.requestTelemetry = requestTelemetry;
+	}
+
 	public PerformanceResponse getCurrentMetrics() {
 		Runtime runtime = Runtime.getRuntime();
 		double usedMemoryMb = (runtime.totalMemory() - runtime.freeMemory()) / BYTES_IN_MB;
@@ -25,7 +42,51 @@ public class PerformanceService {
 		int threads = threadMXBean.getThreadCount();
 
 		String time = LocalDateTime.now().format(DATE_TIME_FORMATTER);
-		return new PerformanceResponse(time, memory, threads);
+		return new PerformanceResponse(time, memory, threads, requestTelemetry.snapshot(), jvmTelemetry());
+	}
+
+	private JvmTelemetryOutput jvmTelemetry() {
+		long gcCount = 0;
+		long gcPauseMillis = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			// Concurrent collectors also register beans for their background cycles (G1 Concurrent GC,
+			// ZGC/Shenandoah Cycles); their time does not stop application threads.
+			String name = collector.getName();
+			if (name.contains("Concurrent") || name.contains("Cycles")) {
+				continue;
+			}
+			gcCount += Math.max(collector.getCollectionCount(), 0);
+			gcPauseMillis += Math.max(collector.getCollectionTime(), 0);
+		}
+
+		long heapAfterLastGc = 0;
+		boolean collected = false;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			MemoryUsage afterGc = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+			if (afterGc != null) {
+				heapAfterLastGc += afterGc.getUsed();
+				collected = true;
+			}
+		}
+
+		MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		double processCpuTimeMs = -1;
+		double processCpuLoad = -1;
+		if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+			long cpuNanos = os.getProcessCpuTime();
+			processCpuTimeMs = cpuNanos < 0 ? -1 : cpuNanos / 1_000_000.0;
+			processCpuLoad = os.getProcessCpuLoad();
+		}
+		return new JvmTelemetryOutput(
+				gcCount,
+				gcPauseMillis,
+				heap.getUsed(),
+				collected && gcCount > 0 ? heapAfterLastGc : -1,
+				heap.getMax(),
+				processCpuTimeMs,
+				processCpuLoad,
+				ManagementFactory.getRuntimeMXBean().getUptime()
+		);
 	}
 
 	private String round2(double value) {
@@ -0,0 +1,116 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.KPeriodInput;
+import com.example.retirementsavings.api.dto.PPeriodInput;
+import com.example.retirementsavings.api.dto.QPeriodInput;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Well-formed periods (start <= end) laid out for sweep-line walks: one view ordered by
+// (start, input order) and one by (end, input order), both as primitive arrays.
+final class PeriodSchedule {
+
+	final int count;
+	final long[] startByStart;
+	final long[] endByStart;
+	final double[] valueByStart;
+	final long[] endByEnd;
+	final double[] valueByEnd;
+
+	private PeriodSchedule(long[] starts, long[] ends, double[] values, int count) {
+		this.count = count;
+		int[] identity = EpochSort.identity(count);
+		int[] startOrder = EpochSort.sort(starts, identity, count);
+		int[] endOrder = EpochSort.sort(ends, identity, count);
+		this.startByStart = new long[count];
+		this.endByStart = new long[count];
+		this.valueByStart = new double[count];
+		this.endByEnd = new long[count];
+		this.valueByEnd = new double[count];
+		for (int i = 0; i < count; i++) {
+			startByStart[i] = starts[startOrder[i]];
+			endByStart[i] = ends[startOrder[i]];
+			valueByStart[i] = values[startOrder[i]];
+			endByEnd[i] = ends[endOrder[i]];
+			valueByEnd[i] = values[endOrder[i]];
+		}
+	}
+
+	// Number of periods with start <= date, i.e. the start pointer of a sweep positioned at date.
+	int countStartedBy(long date) {
+		return firstIndexAbove(startByStart, date);
+	}
+
+	// Number of periods with end < date, i.e. the end pointer of a sweep positioned at date.
+	int countEndedBefore(long date) {
+		return firstIndexAbove(endByEnd, date - 1);
+	}
+
+	private static int firstIndexAbove(long[] sorted, long value) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] <= value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	static PeriodSchedule ofQ(List<QPeriodInput> periods) {
+		Builder builder = new Builder(periods.size());
+		for (QPeriodInput period : periods) {
+			builder.add(period.start(), period.end(), period.fixed());
+		}
+		return builder.build();
+	}
+
+	static PeriodSchedule ofP(List<PPeriodInput> periods) {
+		Builder builder = new Builder(periods.size());
+		for (PPeriodInput period : periods) {
+			builder.add(period.start(), period.end(), period.extra());
+		}
+		return builder.build();
+	}
+
+	static PeriodSchedule ofK(List<KPeriodInput> periods) {
+		Builder builder = new Builder(periods.size());
+		for (KPeriodInput period : periods) {
+			builder.add(period.start(), period.end(), 0.0);
+		}
+		return builder.build();
+	}
+
+	private static final class Builder {
+
+		private final long[] starts;
+		private final long[] ends;
+		private final double[] values;
+		private int count;
+
+		private Builder(int capacity) {
+			this.starts = new long[capacity];
+			this.ends = new long[capacity];
+			this.values = new double[capacity];
+		}
+
+		private void add(LocalDateTime start, LocalDateTime end, double value) {
+			// Inverted ranges never match any transaction, so they are dropped up front.
+			if (start.isAfter(end)) {
+				return;
+			}
+			starts[count] = TransactionBatch.toEpochSecond(start);
+			ends[count] = TransactionBatch.toEpochSecond(end);
+			values[count] = value;
+			count++;
+		}
+
+		private PeriodSchedule build() {
+			return new PeriodSchedule(starts, ends, values, count);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.example.retirementsavings.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Per-stage timers, payload-shape histograms and per-request allocation for the filter and
+// returns pipelines, published through the application's MeterRegistry (/actuator/prometheus).
+@Component
+public class PipelineMetrics {
+
+	public static final String FILTER = "filter";
+	public static final String RETURNS = "returns";
+
+	public static final String STAGE_BASE_ROUNDING = "base_rounding";
+	public static final String STAGE_SORT = "sort";
+	// q override, p addition, k marking and duplicate fingerprinting share one sweep over the rows.
+	public static final String STAGE_PERIOD_SWEEP = "period_sweep";
+	public static final String STAGE_VALIDATION = "validation";
+	public static final String STAGE_FILTER = "filter";
+	public static final String STAGE_K_AGGREGATION = "k_aggregation";
+	public static final String STAGE_PROFIT_AND_TAX = "profit_and_tax";
+
+	private static final String STAGE_TIMER = "retirement.pipeline.stage";
+	private static final String REQUEST_SIZE = "retirement.pipeline.request.size";
+	private static final String ALLOCATED_BYTES = "retirement.pipeline.allocated";
+	private static final PipelineMetrics NOOP = new PipelineMetrics();
+
+	private final MeterRegistry registry;
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+	private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+	public PipelineMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	private PipelineMetrics() {
+		this.registry = null;
+	}
+
+	// Records nothing; used where services are built by hand (tests, benchmarks).
+	public static PipelineMetrics noop() {
+		return NOOP;
+	}
+
+	public Recording start(String pipeline) {
+		return new Recording(pipeline);
+	}
+
+	private Timer stageTimer(String pipeline, String stage) {
+		return timers.computeIfAbsent(pipeline + '|' + stage, key -> Timer.builder(STAGE_TIMER)
+				.description("Time spent in one stage of a request pipeline")
+				.tag("pipeline", pipeline)
+				.tag("stage", stage)
+				.publishPercentileHistogram()
+				.register(registry));
+	}
+
+	private DistributionSummary requestSize(String pipeline, String dimension) {
+		return summaries.computeIfAbsent(REQUEST_SIZE + '|' + pipeline + '|' + dimension, key -> DistributionSummary.builder(REQUEST_SIZE)
+				.description("Number of transactions or periods in a request")
+				.tag("pipeline", pipeline)
+				.tag("dimension", dimension)
+				.publishPercentileHistogram()
+				.register(registry));
+	}
+
+	private DistributionSummary allocatedBytes(String pipeline) {
+		return summaries.computeIfAbsent(ALLOCATED_BYTES + '|' + pipeline, key -> DistributionSummary.builder(ALLOCATED_BYTES)
+				.description("Bytes allocated by the request thread while running a pipeline")
+				.baseUnit("bytes")
+				.tag("pipeline", pipeline)
+				.publishPercentileHistogram()
+				.register(registry));
+	}
+
+	// One pipeline run on the calling thread. Each stage() call closes the stage that started at the
+	// previous mark. Allocation is read from the calling thread only, so work handed to other threads
+	// (the parallel filter) is not included.
+	public final class Recording {
+
+		private final String pipeline;
+		private final long startAllocatedBytes;
+		private long lastMark;
+
+		private Recording(String pipeline) {
+			this.pipeline = pipeline;
+			this.startAllocatedBytes = registry != null ? ThreadUsage.currentThreadAllocatedBytes() : -1;
+			this.lastMark = System.nanoTime();
+		}
+
+		public void size(String dimension, int count) {
+			if (registry != null) {
+				requestSize(pipeline, dimension).record(count);
+			}
+		}
+
+		public void stage(String stage) {
+			long now = System.nanoTime();
+			if (registry != null) {
+				stageTimer(pipeline, stage).record(now - lastMark, TimeUnit.NANOSECONDS);
+			}
+			lastMark = now;
+		}
+
+		public void finish() {
+			if (registry != null && startAllocatedBytes >= 0) {
+				allocatedBytes(pipeline).record(ThreadUsage.currentThreadAllocatedBytes() - startAllocatedBytes);
+			}
+		}
+	}
+}
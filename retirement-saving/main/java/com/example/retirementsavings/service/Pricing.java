@@ -0,0 +1,122 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.PricingRequest;
+import com.example.retirementsavings.api.dto.TaxSlabInput;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One immutable version of the tax and rate tables the returns calculation prices against: the
+// compiled tax slabs, the NPS deduction limits and the annual rate of every named instrument.
+// A request reads one snapshot up front, so a table replaced mid-request never mixes versions.
+public final class Pricing {
+
+	public static final String NPS = "nps";
+	public static final String INDEX = "index";
+
+	private static final AtomicLong VERSIONS = new AtomicLong();
+	private static final Pricing DEFAULTS = of(new PricingRequest(
+			List.of(
+					new TaxSlabInput(0.0, 0.0),
+					new TaxSlabInput(700_000.0, 0.10),
+					new TaxSlabInput(1_000_000.0, 0.15),
+					new TaxSlabInput(1_200_000.0, 0.20),
+					new TaxSlabInput(1_500_000.0, 0.30)
+			),
+			200_000.0,
+			0.10,
+			Map.of(NPS, 7.11, INDEX, 14.49)
+	));
+
+	// Unique per table, so cached results priced against an older table are never reused.
+	private final long version;
+	private final TaxSlabs taxSlabs;
+	private final double npsMaxDeduction;
+	private final double npsIncomeRatioCap;
+	private final Map<String, Double> instrumentRates;
+	private final double npsRate;
+	private final double indexRate;
+
+	private Pricing(TaxSlabs taxSlabs, double npsMaxDeduction, double npsIncomeRatioCap, Map<String, Double> instrumentRates) {
+		this.version = VERSIONS.incrementAndGet();
+		this.taxSlabs = taxSlabs;
+		this.npsMaxDeduction = npsMaxDeduction;
+		this.npsIncomeRatioCap = npsIncomeRatioCap;
+		this.instrumentRates = instrumentRates;
+		this.npsRate = instrumentRates.get(NPS) / 100.0;
+		this.indexRate = instrumentRates.get(INDEX) / 100.0;
+	}
+
+	// The built-in slabs, a 7.11% NPS return and a 14.49% index fund return.
+	public static Pricing defaults() {
+		return DEFAULTS;
+	}
+
+	public static Pricing of(PricingRequest request) {
+		if (request == null) {
+			throw new InvalidRequestException("A pricing table is required");
+		}
+		TaxSlabs taxSlabs = TaxSlabs.of(request.taxSlabs());
+		if (request.npsMaxDeduction() == null || !(request.npsMaxDeduction() >= 0) || request.npsMaxDeduction().isInfinite()) {
+			throw new InvalidRequestException("npsMaxDeduction must be a finite amount >= 0");
+		}
+		if (request.npsIncomeRatioCap() == null || !(request.npsIncomeRatioCap() >= 0 && request.npsIncomeRatioCap() <= 1)) {
+			throw new InvalidRequestException("npsIncomeRatioCap must be between 0 and 1");
+		}
+		if (request.instrumentRates() == null) {
+			throw new InvalidRequestException("instrumentRates is required");
+		}
+		Map<String, Double> instrumentRates = new LinkedHashMap<>();
+		for (Map.Entry<String, Double> rate : request.instrumentRates().entrySet()) {
+			if (rate.getKey() == null || rate.getKey().isBlank()) {
+				throw new InvalidRequestException("Instrument names must not be blank");
+			}
+			if (rate.getValue() == null || !(rate.getValue() >= 0) || rate.getValue().isInfinite()) {
+				throw new InvalidRequestException("Rate of instrument " + rate.getKey() + " must be a finite percentage >= 0");
+			}
+			instrumentRates.put(rate.getKey(), rate.getValue());
+		}
+		if (!instrumentRates.containsKey(NPS) || !instrumentRates.containsKey(INDEX)) {
+			throw new InvalidRequestException("instrumentRates must include " + NPS + " and " + INDEX);
+		}
+		return new Pricing(
+				taxSlabs,
+				request.npsMaxDeduction(),
+				request.npsIncomeRatioCap(),
+				Collections.unmodifiableMap(instrumentRates)
+		);
+	}
+
+	public long version() {
+		return version;
+	}
+
+	public TaxSlabs taxSlabs() {
+		return taxSlabs;
+	}
+
+	public double npsMaxDeduction() {
+		return npsMaxDeduction;
+	}
+
+	public double npsIncomeRatioCap() {
+		return npsIncomeRatioCap;
+	}
+
+	// Annual return in percent, keyed by instrument name.
+	public Map<String, Double> instrumentRates() {
+		return instrumentRates;
+	}
+
+	// Annual return as a fraction, e.g. 0.0711.
+	public double npsRate() {
+		return npsRate;
+	}
+
+	public double indexRate() {
+		return indexRate;
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.PricingRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Holds the active Pricing. With retirement.pricing.file set, the table is read from that JSON file
+// (a PricingRequest body) at startup and again on every reload; otherwise the built-in defaults
+// apply until a table is PUT. A file that cannot be read, parsed or validated fails startup, or a
+// reload with a 400, with an InvalidRequestException naming the file. Swapping is a single
+// volatile write, so the returns hot path pays one volatile read per request and never waits on a
+// reload.
+@Service
+public class PricingRegistry {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PricingRegistry.class);
+
+	private final JsonMapper jsonMapper;
+	private final Path file;
+	private volatile Pricing current;
+
+	// Built-in defaults with no file to reload from; used where services are built by hand (tests, benchmarks).
+	public PricingRegistry() {
+		this.jsonMapper = null;
+		this.file = null;
+		this.current = Pricing.defaults();
+	}
+
+	@Autowired
+	public PricingRegistry(JsonMapper jsonMapper, @Value("${retirement.pricing.file:}") String file) {
+		this.jsonMapper = jsonMapper;
+		this.file = file.isBlank() ? null : Path.of(file);
+		this.current = this.file == null ? Pricing.defaults() : load();
+	}
+
+	public Pricing current() {
+		return current;
+	}
+
+	// Requests already running finish on the table they started with.
+	public Pricing replace(PricingRequest request) {
+		Pricing pricing = Pricing.of(request);
+		current = pricing;
+		LOG.debug("Pricing replaced: version={}, slabs={}", pricing.version(), pricing.taxSlabs().size());
+		return pricing;
+	}
+
+	// Re-reads retirement.pricing.file; a file that fails to parse or validate leaves the active table in place.
+	public Pricing reload() {
+		if (file == null) {
+			throw new InvalidRequestException("No pricing file is configured (retirement.pricing.file)");
+		}
+		Pricing pricing = load();
+		current = pricing;
+		return pricing;
+	}
+
+	private Pricing load() {
+		PricingRequest request;
+		try (InputStream stream = Files.newInputStream(file)) {
+			request = jsonMapper.readValue(stream, PricingRequest.class);
+		} catch (JacksonException ex) {
+			throw new InvalidRequestException("Pricing file " + file + " is not a valid pricing table: " + ex.getOriginalMessage(), ex);
+		} catch (IOException ex) {
+			throw new InvalidRequestException("Cannot read pricing file " + file + ": " + ex, ex);
+		}
+		if (request == null) {
+			throw new InvalidRequestException("Pricing file " + file + " holds no pricing table");
+		}
+		Pricing pricing;
+		try {
+			pricing = Pricing.of(request);
+		} catch (InvalidRequestException ex) {
+			throw new InvalidRequestException("Pricing file " + file + " is not a valid pricing table: " + ex.getMessage(), ex);
+		}
+		LOG.info("Pricing loaded from {}: version={}, slabs={}", file, pricing.version(), pricing.taxSlabs().size());
+		return pricing;
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.retirementsavings.service;
+
+import java.util.Arrays;
+
+// Which q period applies at any time, precomputed once per request: the period starts and ends
+// cut the timeline into elementary intervals and each interval stores its winning period (latest
+// start, then input order), so a lookup is a binary search however many periods overlap. Sweeps
+// over sorted dates can advance a segment cursor instead of searching again. Segment -1 is the
+// time before the first boundary, where no period applies.
+final class QPeriodIndex {
+
+	private static final QPeriodIndex EMPTY = new QPeriodIndex(new long[0], new double[0], new boolean[0]);
+
+	private final long[] boundaries;
+	private final double[] fixed;
+	private final boolean[] applies;
+
+	private QPeriodIndex(long[] boundaries, double[] fixed, boolean[] applies) {
+		this.boundaries = boundaries;
+		this.fixed = fixed;
+		this.applies = applies;
+	}
+
+	static QPeriodIndex of(PeriodSchedule q) {
+		if (q.count == 0) {
+			return EMPTY;
+		}
+		long[] candidates = new long[2 * q.count];
+		for (int i = 0; i < q.count; i++) {
+			candidates[2 * i] = q.startByStart[i];
+			candidates[2 * i + 1] = q.endByStart[i] + 1;
+		}
+		Arrays.sort(candidates);
+		int distinct = 0;
+		for (long candidate : candidates) {
+			if (distinct == 0 || candidate != candidates[distinct - 1]) {
+				candidates[distinct++] = candidate;
+			}
+		}
+		long[] boundaries = Arrays.copyOf(candidates, distinct);
+		double[] fixed = new double[distinct];
+		boolean[] applies = new boolean[distinct];
+		LatestStartHeap active = new LatestStartHeap(q);
+		int startPointer = 0;
+		for (int segment = 0; segment < distinct; segment++) {
+			long date = boundaries[segment];
+			while (startPointer < q.count && q.startByStart[startPointer] <= date) {
+				active.push(startPointer++);
+			}
+			active.evictEndedBefore(date);
+			if (!active.isEmpty()) {
+				applies[segment] = true;
+				fixed[segment] = q.valueByStart[active.peek()];
+			}
+		}
+		return new QPeriodIndex(boundaries, fixed, applies);
+	}
+
+	int segmentAt(long date) {
+		int low = 0;
+		int high = boundaries.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (boundaries[middle] <= date) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low - 1;
+	}
+
+	// Moves a cursor that sits at or before date forward to the segment containing date.
+	int advance(int segment, long date) {
+		while (segment + 1 < boundaries.length && boundaries[segment + 1] <= date) {
+			segment++;
+		}
+		return segment;
+	}
+
+	boolean applies(int segment) {
+		return segment >= 0 && applies[segment];
+	}
+
+	double fixed(int segment) {
+		return fixed[segment];
+	}
+
+	// The remanent after the q override at date, or the given remanent when no period applies.
+	double apply(long date, double remanent) {
+		int segment = segmentAt(date);
+		return applies(segment) ? fixed[segment] : remanent;
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.retirementsavings.service;
+
+import java.util.Arrays;
+
+// The q override and p extras as piecewise-constant functions of time, so the adjusted remanent
+// of a single transaction is two binary searches instead of a sweep over the whole batch. The q
+// side is a QPeriodIndex; for p, segment i starts at breakpoints[i] and runs up to the next
+// breakpoint, and dates before the first breakpoint are covered by no period.
+final class RemanentRules {
+
+	private final QPeriodIndex q;
+	private final long[] breakpoints;
+	private final double[] extra;
+
+	private RemanentRules(QPeriodIndex q, long[] breakpoints, double[] extra) {
+		this.q = q;
+		this.breakpoints = breakpoints;
+		this.extra = extra;
+	}
+
+	static RemanentRules of(PeriodSchedule q, PeriodSchedule p) {
+		long[] candidates = new long[2 * p.count];
+		int n = 0;
+		for (int i = 0; i < p.count; i++) {
+			candidates[n++] = p.startByStart[i];
+			candidates[n++] = p.endByStart[i] + 1;
+		}
+		Arrays.sort(candidates);
+		int distinct = 0;
+		for (int i = 0; i < n; i++) {
+			if (distinct == 0 || candidates[i] != candidates[distinct - 1]) {
+				candidates[distinct++] = candidates[i];
+			}
+		}
+		long[] breakpoints = Arrays.copyOf(candidates, distinct);
+		double[] extra = new double[distinct];
+
+		int pStartPointer = 0;
+		int pEndPointer = 0;
+		double activeExtra = 0.0;
+		for (int i = 0; i < distinct; i++) {
+			long date = breakpoints[i];
+			while (pStartPointer < p.count && p.startByStart[pStartPointer] <= date) {
+				activeExtra += p.valueByStart[pStartPointer++];
+			}
+			while (pEndPointer < p.count && p.endByEnd[pEndPointer] < date) {
+				activeExtra -= p.valueByEnd[pEndPointer++];
+			}
+			// Reset once no p is active, so rounding left over from earlier periods never leaks out.
+			if (pStartPointer == pEndPointer) {
+				activeExtra = 0.0;
+			}
+			extra[i] = activeExtra;
+		}
+		return new RemanentRules(QPeriodIndex.of(q), breakpoints, extra);
+	}
+
+	double apply(long date, double remanent) {
+		int segment = segmentOf(date);
+		double adjusted = q.apply(date, remanent);
+		return segment < 0 ? adjusted : adjusted + extra[segment];
+	}
+
+	private int segmentOf(long date) {
+		int low = 0;
+		int high = breakpoints.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (breakpoints[middle] <= date) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low - 1;
+	}
+}
@@ -0,0 +1,238 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.InstrumentRateInput;
+import com.example.retirementsavings.api.dto.KPeriodInput;
+import com.example.retirementsavings.api.dto.PPeriodInput;
+import com.example.retirementsavings.api.dto.PeriodSource;
+import com.example.retirementsavings.api.dto.PeriodsOrRuleSetValidator;
+import com.example.retirementsavings.api.dto.QPeriodInput;
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.example.retirementsavings.api.dto.TransactionValidationRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Hand-written form of the Bean Validation constraints on the transaction, period and returns
+// request bodies (@NotNull, @Positive, @PositiveOrZero, @Min(0), @NotBlank, @PeriodsOrRuleSet and
+// @Valid cascades), checked in one plain loop per list instead of reflectively per element.
+// Nothing is allocated unless a constraint fails; violations carry the same property paths and
+// constraint names as Hibernate Validator reports. Null list elements are skipped, as @Valid
+// skips them.
+// Keep in sync with the annotations on the DTOs.
+public final class RequestConstraints {
+
+	static final String NOT_NULL = "NotNull";
+	static final String POSITIVE = "Positive";
+	static final String POSITIVE_OR_ZERO = "PositiveOrZero";
+	static final String MIN = "Min";
+	static final String NOT_BLANK = "NotBlank";
+	static final String PERIODS_OR_RULE_SET = "PeriodsOrRuleSet";
+
+	private RequestConstraints() {
+	}
+
+	public record Violation(String field, String constraint, Object rejectedValue, String message) {}
+
+	// Returns the violations (empty when valid), or null when the target is not a body checked
+	// here and has to go through the reflective validator.
+	public static List<Violation> check(Object target) {
+		Checker checker = new Checker();
+		switch (target) {
+			case TransactionFilterRequest request -> {
+				checker.periodsOrRuleSet(request);
+				checker.periods(request.q(), request.p(), request.k());
+				checker.positive("wage", request.wage());
+				checker.expenses("transactions", request.transactions());
+			}
+			case TransactionValidationRequest request -> {
+				checker.positive("wage", request.wage());
+				checker.expenses("transactions", request.transactions());
+			}
+			case ReturnsCalculationRequest request -> {
+				checker.returnsInputs(request.age(), request.wage(), request.inflation());
+				checker.periodsOrRuleSet(request);
+				checker.periods(request.q(), request.p(), request.k());
+				checker.expenses("transactions", request.transactions());
+			}
+			case CombinedReturnsCalculationRequest request -> {
+				checker.returnsInputs(request.age(), request.wage(), request.inflation());
+				checker.periodsOrRuleSet(request);
+				checker.periods(request.q(), request.p(), request.k());
+				checker.expenses("transactions", request.transactions());
+				checker.instruments(request.instruments());
+			}
+			default -> {
+				return null;
+			}
+		}
+		return checker.violations == null ? List.of() : checker.violations;
+	}
+
+	// Bare expense lists (transactions:parse, session appends) are not @Valid bodies: Bean Validation
+	// only reaches their elements through reflective method validation on every request, so their
+	// handlers call this instead. Any violation is a 400, listing each path and message.
+	public static void requireValidExpenses(List<ExpenseInput> expenses) {
+		Checker checker = new Checker();
+		checker.expenseElements("", expenses);
+		if (checker.violations != null) {
+			StringBuilder message = new StringBuilder("Invalid expenses:");
+			for (Violation violation : checker.violations) {
+				message.append(' ').append(violation.field()).append(' ').append(violation.message()).append(';');
+			}
+			throw new InvalidRequestException(message.substring(0, message.length() - 1));
+		}
+	}
+
+	private static final class Checker {
+
+		private List<Violation> violations;
+
+		private void fail(String field, String constraint, Object value, String message) {
+			if (violations == null) {
+				violations = new ArrayList<>();
+			}
+			violations.add(new Violation(field, constraint, value, message));
+		}
+
+		private void notNull(String field, Object value) {
+			if (value == null) {
+				fail(field, NOT_NULL, null, "must not be null");
+			}
+		}
+
+		private void positive(String field, Double value) {
+			if (value == null) {
+				fail(field, NOT_NULL, null, "must not be null");
+			} else if (!(value > 0)) {
+				fail(field, POSITIVE, value, "must be greater than 0");
+			}
+		}
+
+		private void positiveOrZero(String field, Double value) {
+			if (value == null) {
+				fail(field, NOT_NULL, null, "must not be null");
+			} else if (!(value >= 0)) {
+				fail(field, POSITIVE_OR_ZERO, value, "must be greater than or equal to 0");
+			}
+		}
+
+		private void returnsInputs(Integer age, Double wage, Double inflation) {
+			if (age == null) {
+				fail("age", NOT_NULL, null, "must not be null");
+			} else if (age < 0) {
+				fail("age", MIN, age, "must be greater than or equal to 0");
+			}
+			positive("wage", wage);
+			positiveOrZero("inflation", inflation);
+		}
+
+		private void expenses(String field, List<? extends ExpenseInput> expenses) {
+			if (expenses == null) {
+				fail(field, NOT_NULL, null, "must not be null");
+				return;
+			}
+			expenseElements(field, expenses);
+		}
+
+		private void expenseElements(String field, List<?> expenses) {
+			for (int i = 0, size = expenses.size(); i < size; i++) {
+				if (!(expenses.get(i) instanceof ExpenseInput expense)) {
+					continue;
+				}
+				if (expense.getDate() == null) {
+					fail(path(field, i, "date"), NOT_NULL, null, "must not be null");
+				}
+				if (expense.getAmount() == null) {
+					fail(path(field, i, "amount"), NOT_NULL, null, "must not be null");
+				}
+				if (expense instanceof TransactionOutput transaction) {
+					if (transaction.getCeiling() == null) {
+						fail(path(field, i, "ceiling"), NOT_NULL, null, "must not be null");
+					}
+					if (transaction.getRemanent() == null) {
+						fail(path(field, i, "remanent"), NOT_NULL, null, "must not be null");
+					}
+				}
+			}
+		}
+
+		private void periodsOrRuleSet(PeriodSource request) {
+			if (request.ruleSetId() == null) {
+				if (request.q() == null) {
+					fail("q", PERIODS_OR_RULE_SET, null, PeriodsOrRuleSetValidator.MISSING_PERIODS);
+				}
+				if (request.p() == null) {
+					fail("p", PERIODS_OR_RULE_SET, null, PeriodsOrRuleSetValidator.MISSING_PERIODS);
+				}
+				if (request.k() == null) {
+					fail("k", PERIODS_OR_RULE_SET, null, PeriodsOrRuleSetValidator.MISSING_PERIODS);
+				}
+			} else if (!isEmpty(request.q()) || !isEmpty(request.p()) || !isEmpty(request.k())) {
+				fail("ruleSetId", PERIODS_OR_RULE_SET, request.ruleSetId(), PeriodsOrRuleSetValidator.PERIODS_WITH_RULE_SET);
+			}
+		}
+
+		private static boolean isEmpty(List<?> periods) {
+			return periods == null || periods.isEmpty();
+		}
+
+		private void periods(List<QPeriodInput> q, List<PPeriodInput> p, List<KPeriodInput> k) {
+			if (q != null) {
+				for (int i = 0, size = q.size(); i < size; i++) {
+					QPeriodInput period = q.get(i);
+					if (period != null && (period.fixed() == null || !(period.fixed() >= 0) || period.start() == null || period.end() == null)) {
+						positiveOrZero(path("q", i, "fixed"), period.fixed());
+						notNull(path("q", i, "start"), period.start());
+						notNull(path("q", i, "end"), period.end());
+					}
+				}
+			}
+			if (p != null) {
+				for (int i = 0, size = p.size(); i < size; i++) {
+					PPeriodInput period = p.get(i);
+					if (period != null && (period.extra() == null || !(period.extra() >= 0) || period.start() == null || period.end() == null)) {
+						positiveOrZero(path("p", i, "extra"), period.extra());
+						notNull(path("p", i, "start"), period.start());
+						notNull(path("p", i, "end"), period.end());
+					}
+				}
+			}
+			if (k != null) {
+				for (int i = 0, size = k.size(); i < size; i++) {
+					KPeriodInput period = k.get(i);
+					if (period != null && (period.start() == null || period.end() == null)) {
+						notNull(path("k", i, "start"), period.start());
+						notNull(path("k", i, "end"), period.end());
+					}
+				}
+			}
+		}
+
+		private void instruments(List<InstrumentRateInput> instruments) {
+			if (instruments == null) {
+				return;
+			}
+			for (int i = 0, size = instruments.size(); i < size; i++) {
+				InstrumentRateInput instrument = instruments.get(i);
+				if (instrument == null) {
+					continue;
+				}
+				if (instrument.name() == null || instrument.name().trim().isEmpty()) {
+					fail(path("instruments", i, "name"), NOT_BLANK, instrument.name(), "must not be blank");
+				}
+				if (instrument.rate() != null && !(instrument.rate() >= 0)) {
+					positiveOrZero(path("instruments", i, "rate"), instrument.rate());
+				}
+			}
+		}
+
+		// Only called once a check has failed, so valid bodies build no paths.
+		private static String path(String field, int index, String property) {
+			return field + "[" + index + "]." + property;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.EndpointTelemetryOutput;
+import com.example.retirementsavings.api.dto.WindowTelemetryOutput;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Rolling per-endpoint request statistics over the last 1, 5 and 15 minutes, fed by
+// RequestTelemetryFilter and read by the performance endpoint.
+@Component
+public class RequestTelemetry {
+
+	private static final long SLOT_MILLIS = 10_000;
+	private static final int[] WINDOW_MINUTES = {1, 5, 15};
+	private static final int SLOT_COUNT = (int) (WINDOW_MINUTES[WINDOW_MINUTES.length - 1] * 60_000L / SLOT_MILLIS);
+	// Keys come from route patterns, so this only guards against an unbounded set of paths.
+	private static final int MAX_ENDPOINTS = 64;
+	static final String OTHER_ENDPOINT = "other";
+
+	private final LongSupplier clock;
+	private final Map<String, RollingLatencyWindow> endpoints = new ConcurrentHashMap<>();
+
+	public RequestTelemetry() {
+		this(System::currentTimeMillis);
+	}
+
+	RequestTelemetry(LongSupplier clock) {
+		this.clock = clock;
+	}
+
+	public void record(String endpoint, long durationNanos, long cpuNanos, long allocatedBytes, boolean failed) {
+		window(endpoint).record(clock.getAsLong(), durationNanos, cpuNanos, allocatedBytes, failed);
+	}
+
+	public List<EndpointTelemetryOutput> snapshot() {
+		long now = clock.getAsLong();
+		List<EndpointTelemetryOutput> snapshot = new ArrayList<>(endpoints.size());
+		endpoints.forEach((endpoint, window) -> {
+			List<WindowTelemetryOutput> windows = new ArrayList<>(WINDOW_MINUTES.length);
+			for (int minutes : WINDOW_MINUTES) {
+				windows.add(window.snapshot(now, minutes + "m", (int) (minutes * 60_000L / SLOT_MILLIS)));
+			}
+			snapshot.add(new EndpointTelemetryOutput(endpoint, windows));
+		});
+		snapshot.sort(Comparator.comparing(EndpointTelemetryOutput::endpoint));
+		return snapshot;
+	}
+
+	private RollingLatencyWindow window(String endpoint) {
+		RollingLatencyWindow window = endpoints.get(endpoint);
+		if (window != null) {
+			return window;
+		}
+		if (endpoints.size() >= MAX_ENDPOINTS) {
+			endpoint = OTHER_ENDPOINT;
+		}
+		return endpoints.computeIfAbsent(endpoint, key -> new RollingLatencyWindow(SLOT_MILLIS, SLOT_COUNT));
+	}
+}
@@ -0,0 +1,138 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.BatchReturnsOutput;
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// NDJSON batch variant of returns:nps and returns:index for scheduled runs over many users. Each
+// input line is one ReturnsCalculationRequest and each output line carries its record number and
+// either the returns or the reason that user's request failed, in input order. Lines are parsed
+// and priced on a dedicated work-stealing pool while the request thread only reads and writes.
+// At most maxInFlight records are held at once: when the window is full the reader waits for the
+// oldest result to be written before taking the next line, so a slow client slows the pool down
+// instead of growing the backlog.
+@Service
+public class ReturnsBatchService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ReturnsBatchService.class);
+	private static final String RECORD_SEPARATOR = "\n";
+
+	private final ReturnsCalculationService returnsCalculationService;
+	private final ObjectReader requestReader;
+	private final ObjectWriter resultWriter;
+	private final ForkJoinPool pool;
+	private final int maxInFlight;
+
+	public ReturnsBatchService(
+			ReturnsCalculationService returnsCalculationService,
+			JsonMapper jsonMapper,
+			@Value("${retirement.returns.batch.parallelism:0}") int parallelism,
+			@Value("${retirement.returns.batch.max-in-flight:1024}") int maxInFlight
+	) {
+		if (maxInFlight < 1) {
+			throw new IllegalArgumentException("retirement.returns.batch.max-in-flight must be positive");
+		}
+		this.returnsCalculationService = returnsCalculationService;
+		this.requestReader = jsonMapper.readerFor(ReturnsCalculationRequest.class);
+		this.resultWriter = jsonMapper.writerFor(BatchReturnsOutput.class)
+				.withRootValueSeparator(RECORD_SEPARATOR);
+		// Async mode keeps submitted records roughly FIFO, which matches the in-order drain.
+		this.pool = new ForkJoinPool(
+				parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+				ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+				null,
+				true
+		);
+		this.maxInFlight = maxInFlight;
+	}
+
+	// A failing user only fails their own record. Only I/O errors on the streams end the batch;
+	// records already written stay written and the ones still in flight are cancelled.
+	public BatchCounts calculate(ReturnsResultCache.Mode mode, InputStream requests, OutputStream results) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(requests, StandardCharsets.UTF_8));
+		ArrayDeque<ForkJoinTask<BatchReturnsOutput>> pending = new ArrayDeque<>(Math.min(maxInFlight, 4096));
+		long records = 0;
+		long succeeded = 0;
+		try (SequenceWriter writer = resultWriter.writeValues(results)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank()) {
+					continue;
+				}
+				long recordNumber = ++records;
+				String json = line;
+				pending.addLast(pool.submit(() -> calculateRecord(mode, recordNumber, json)));
+				if (pending.size() >= maxInFlight) {
+					succeeded += write(writer, pending.removeFirst().join());
+				}
+			}
+			while (!pending.isEmpty()) {
+				succeeded += write(writer, pending.removeFirst().join());
+			}
+		} finally {
+			for (ForkJoinTask<BatchReturnsOutput> task : pending) {
+				task.cancel(false);
+			}
+		}
+		LOG.debug("Batch returns completed: mode={}, succeeded={}, failed={}", mode, succeeded, records - succeeded);
+		return new BatchCounts(succeeded, records - succeeded);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	private static int write(SequenceWriter writer, BatchReturnsOutput output) throws IOException {
+		writer.write(output);
+		return BatchReturnsOutput.OK.equals(output.status()) ? 1 : 0;
+	}
+
+	private BatchReturnsOutput calculateRecord(ReturnsResultCache.Mode mode, long recordNumber, String json) {
+		ReturnsCalculationRequest request;
+		try {
+			request = requestReader.readValue(json);
+		} catch (JacksonException e) {
+			return BatchReturnsOutput.failed(recordNumber, "Malformed record: " + e.getOriginalMessage());
+		}
+		if (request == null) {
+			return BatchReturnsOutput.failed(recordNumber, "Record must be a returns request");
+		}
+		// Streamed records skip @Valid, so they get the same checks as a returns:nps body here.
+		List<RequestConstraints.Violation> violations = RequestConstraints.check(request);
+		if (!violations.isEmpty()) {
+			RequestConstraints.Violation violation = violations.get(0);
+			return BatchReturnsOutput.failed(recordNumber, violation.field() + ": " + violation.message());
+		}
+		try {
+			return BatchReturnsOutput.ok(recordNumber, returnsCalculationService.calculateUncached(request, mode));
+		} catch (InvalidRequestException | UnknownRuleSetException e) {
+			return BatchReturnsOutput.failed(recordNumber, e.getMessage());
+		} catch (RuntimeException e) {
+			LOG.warn("Batch returns record #{} failed", recordNumber, e);
+			return BatchReturnsOutput.failed(recordNumber, "Calculation failed");
+		}
+	}
+
+	public record BatchCounts(long succeeded, long failed) {}
+}
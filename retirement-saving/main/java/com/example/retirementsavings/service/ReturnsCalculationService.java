@@ -1,59 +1,163 @@
 package com.example.retirementsavings.service;
 
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationResponse;
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.InstrumentRateInput;
+import com.example.retirementsavings.api.dto.InstrumentReturnsOutput;
 import com.example.retirementsavings.api.dto.KPeriodInput;
 import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
 import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
 import com.example.retirementsavings.api.dto.SavingsByDateOutput;
-import com.example.retirementsavings.api.dto.ExpenseInput;
 import com.example.retirementsavings.api.dto.TransactionFilterRequest;
-import com.example.retirementsavings.api.dto.TransactionFilterResponse;
-import com.example.retirementsavings.api.dto.TransactionOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 @Service
 public class ReturnsCalculationService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(ReturnsCalculationService.class);
-	private static final double NPS_RATE = 0.0711;
-	private static final double INDEX_RATE = 0.1449;
-	private static final double NPS_MAX_DEDUCTION = 200_000.0;
-	private static final double NPS_INCOME_RATIO_CAP = 0.10;
 	private static final int RETIREMENT_AGE = 60;
 	private static final int DEFAULT_YEARS_IF_ABOVE_RETIREMENT = 5;
 
-	private final TransactionBuilder transactionBuilder;
-	private final TransactionRulesService transactionRulesService;
 	private final TransactionFilterService transactionFilterService;
+	private final PipelineMetrics pipelineMetrics;
+	private final ReturnsResultCache resultCache;
+	private final PricingRegistry pricingRegistry;
+
+	public ReturnsCalculationService(TransactionFilterService transactionFilterService) {
+		this(transactionFilterService, PipelineMetrics.noop());
+	}
+
+	public ReturnsCalculationService(TransactionFilterService transactionFilterService, PipelineMetrics pipelineMetrics) {
+		this(transactionFilterService, pipelineMetrics, ReturnsResultCache.disabled());
+	}
+
+	public ReturnsCalculationService(
+			TransactionFilterService transactionFilterService,
+			PipelineMetrics pipelineMetrics,
+			ReturnsResultCache resultCache
+	) {
+		this(transactionFilterService, pipelineMetrics, resultCache, new PricingRegistry());
+	}
 
+	@Autowired
 	public ReturnsCalculationService(
-			TransactionBuilder transactionBuilder,
-			TransactionRulesService transactionRulesService,
-			TransactionFilterService transactionFilterService
+			TransactionFilterService transactionFilterService,
+			PipelineMetrics pipelineMetrics,
+			ReturnsResultCache resultCache,
+			PricingRegistry pricingRegistry
 	) {
-		this.transactionBuilder = transactionBuilder;
-		this.transactionRulesService = transactionRulesService;
 		this.transactionFilterService = transactionFilterService;
+		this.pipelineMetrics = pipelineMetrics;
+		this.resultCache = resultCache;
+		this.pricingRegistry = pricingRegistry;
 	}
 
 	public ReturnsCalculationResponse calculateNps(ReturnsCalculationRequest request) {
-		return calculate(request, NPS_RATE, true);
+		RuleSet registered = transactionFilterService.registeredRuleSet(toFilterRequest(request));
+		Pricing pricing = pricingRegistry.current();
+		return resultCache.get(
+				request,
+				registered,
+				pricing,
+				ReturnsResultCache.Mode.NPS,
+				() -> calculate(request, compile(registered, request), pricing, pricing.npsRate(), true)
+		);
 	}
 
 	public ReturnsCalculationResponse calculateIndex(ReturnsCalculationRequest request) {
-		return calculate(request, INDEX_RATE, false);
+		RuleSet registered = transactionFilterService.registeredRuleSet(toFilterRequest(request));
+		Pricing pricing = pricingRegistry.current();
+		return resultCache.get(
+				request,
+				registered,
+				pricing,
+				ReturnsResultCache.Mode.INDEX,
+				() -> calculate(request, compile(registered, request), pricing, pricing.indexRate(), false)
+		);
+	}
+
+	public CombinedReturnsCalculationResponse calculateAll(CombinedReturnsCalculationRequest request) {
+		List<InstrumentRateInput> instruments = request.instruments() == null ? List.of() : request.instruments();
+		LOG.debug(
+				"Starting combined returns calculation: age={}, wage={}, inflation={}, instruments={}",
+				request.age(),
+				request.wage(),
+				request.inflation(),
+				instruments.size()
+		);
+
+		// Filtering and k aggregation do not depend on the instrument, so they run once for all of them.
+		PipelineMetrics.Recording recording = pipelineMetrics.start(PipelineMetrics.RETURNS);
+		RuleSet ruleSet = transactionFilterService.resolveRuleSet(new TransactionFilterRequest(
+				request.q(),
+				request.p(),
+				request.k(),
+				request.wage(),
+				request.transactions(),
+				request.ruleSetId()
+		));
+		PeriodSavings savings = aggregate(request.transactions(), ruleSet, recording);
+		Pricing pricing = pricingRegistry.current();
+		int years = getInvestmentYears(request.age());
+		ReturnsCalculationResponse nps = toResponse(savings, pricing, pricing.npsRate(), request.inflation(), years, request.wage(), true);
+		ReturnsCalculationResponse index = toResponse(savings, pricing, pricing.indexRate(), request.inflation(), years, request.wage(), false);
+		List<InstrumentReturnsOutput> instrumentReturns = new ArrayList<>(instruments.size());
+		for (InstrumentRateInput instrument : instruments) {
+			double rate = instrumentRate(instrument, pricing);
+			instrumentReturns.add(new InstrumentReturnsOutput(
+					instrument.name(),
+					rate,
+					buildSavingsByDates(savings, pricing, rate / 100.0, request.inflation(), years, request.wage(), false)
+			));
+		}
+		recording.stage(PipelineMetrics.STAGE_PROFIT_AND_TAX);
+		recording.finish();
+
+		LOG.debug("Combined returns calculation completed: instruments={}", instrumentReturns.size());
+		return new CombinedReturnsCalculationResponse(nps, index, instrumentReturns);
+	}
+
+	// Batch runs see every user once, so they skip the result cache instead of evicting hot entries.
+	ReturnsCalculationResponse calculateUncached(ReturnsCalculationRequest request, ReturnsResultCache.Mode mode) {
+		RuleSet ruleSet = transactionFilterService.resolveRuleSet(toFilterRequest(request));
+		Pricing pricing = pricingRegistry.current();
+		return mode == ReturnsResultCache.Mode.NPS
+				? calculate(request, ruleSet, pricing, pricing.npsRate(), true)
+				: calculate(request, ruleSet, pricing, pricing.indexRate(), false);
+	}
+
+	// Prices k savings aggregated elsewhere (incremental sessions) the same way as a full run.
+	ReturnsCalculationResponse priceNps(PeriodSavings savings, int age, double wage, double inflation) {
+		Pricing pricing = pricingRegistry.current();
+		return toResponse(savings, pricing, pricing.npsRate(), inflation, getInvestmentYears(age), wage, true);
+	}
+
+	ReturnsCalculationResponse priceIndex(PeriodSavings savings, int age, double wage, double inflation) {
+		Pricing pricing = pricingRegistry.current();
+		return toResponse(savings, pricing, pricing.indexRate(), inflation, getInvestmentYears(age), wage, false);
+	}
+
+	// Inline periods are compiled only once a cache miss needs them.
+	private static RuleSet compile(RuleSet registered, ReturnsCalculationRequest request) {
+		return registered != null ? registered : RuleSet.inline(request.q(), request.p(), request.k());
 	}
 
-	private ReturnsCalculationResponse calculate(ReturnsCalculationRequest request, double annualRate, boolean includeNpsTaxBenefit) {
+	private ReturnsCalculationResponse calculate(
+			ReturnsCalculationRequest request,
+			RuleSet ruleSet,
+			Pricing pricing,
+			double annualRate,
+			boolean includeNpsTaxBenefit
+	) {
 		LOG.debug(
 				"Starting returns calculation: age={}, wage={}, inflation={}, rate={}, npsMode={}",
 				request.age(),
@@ -63,115 +167,126 @@ public class ReturnsCalculationService {
 				includeNpsTaxBenefit
 		);
 
-		TransactionFilterResponse filtered = transactionFilterService.filter(toFilterRequest(request));
-		List<TransactionOutput> validTransactionsForSavings = filtered.valid();
-		List<TransactionOutput> validTransactionsForTotals = getValidTransactionsForTotals(request.transactions());
+		PipelineMetrics.Recording recording = pipelineMetrics.start(PipelineMetrics.RETURNS);
+		PeriodSavings savings = aggregate(request.transactions(), ruleSet, recording);
+		ReturnsCalculationResponse response = toResponse(
+				savings,
+				pricing,
+				annualRate,
+				request.inflation(),
+				getInvestmentYears(request.age()),
+				request.wage(),
+				includeNpsTaxBenefit
+		);
+		recording.stage(PipelineMetrics.STAGE_PROFIT_AND_TAX);
+		recording.finish();
+		return response;
+	}
 
-		double totalTransactionAmount = validTransactionsForTotals.stream()
-				.mapToDouble(TransactionOutput::getAmount)
-				.sum();
-		double totalCeiling = validTransactionsForTotals.stream()
-				.mapToDouble(TransactionOutput::getCeiling)
-				.sum();
+	private PeriodSavings aggregate(List<ExpenseInput> transactions, RuleSet ruleSet, PipelineMetrics.Recording recording) {
+		TransactionFilterResult filtered = transactionFilterService.process(transactions, ruleSet);
+		recording.stage(PipelineMetrics.STAGE_FILTER);
+		return aggregate(filtered, ruleSet, recording);
+	}
 
-		int years = getInvestmentYears(request.age());
-		List<SavingsByDateOutput> savingsByDates = request.k().stream()
-				.map(period -> buildSavingsByDate(
-						period,
-						validTransactionsForSavings,
-						annualRate,
-						request.inflation(),
-						years,
-						request.wage(),
-						includeNpsTaxBenefit
-				))
-				.toList();
+	// Aggregates a filter run done elsewhere (binary transaction files) into k savings.
+	PeriodSavings aggregate(TransactionFilterResult filtered, RuleSet ruleSet) {
+		PipelineMetrics.Recording recording = pipelineMetrics.start(PipelineMetrics.RETURNS);
+		PeriodSavings savings = aggregate(filtered, ruleSet, recording);
+		recording.finish();
+		return savings;
+	}
 
-		LOG.debug(
-				"Returns calculation completed: validForTotals={}, validForSavings={}, savingsByDates={}",
-				validTransactionsForTotals.size(),
-				validTransactionsForSavings.size(),
-				savingsByDates.size()
+	private PeriodSavings aggregate(TransactionFilterResult filtered, RuleSet ruleSet, PipelineMetrics.Recording recording) {
+		// The filter run already carries the dedup'd, validated totals and the invested rows,
+		// so nothing is fingerprinted, validated or converted to DTOs a second time here.
+		TransactionBatch batch = filtered.batch();
+		// Sorting once turns every k window into two binary searches over prefix sums.
+		SavingsTimeline timeline = SavingsTimeline.of(
+				batch.epochSeconds(),
+				batch.remanent(),
+				filtered.validIndices(),
+				filtered.validCount()
 		);
-		return new ReturnsCalculationResponse(
-				round2(totalTransactionAmount),
-				round2(totalCeiling),
-				savingsByDates
+		List<KPeriodInput> periods = ruleSet.k();
+		double[] amounts = new double[periods.size()];
+		for (int i = 0; i < amounts.length; i++) {
+			amounts[i] = calculateAmountForPeriod(timeline, periods.get(i));
+		}
+		recording.stage(PipelineMetrics.STAGE_K_AGGREGATION);
+
+		LOG.debug(
+				"Savings aggregation completed: validForSavings={}, kPeriods={}",
+				filtered.validCount(),
+				amounts.length
 		);
+		return new PeriodSavings(filtered.totalTransactionAmount(), filtered.totalCeiling(), periods, amounts);
 	}
 
-	private SavingsByDateOutput buildSavingsByDate(
-			KPeriodInput period,
-			List<TransactionOutput> validTransactions,
+	private ReturnsCalculationResponse toResponse(
+			PeriodSavings savings,
+			Pricing pricing,
 			double annualRate,
 			double inflationPercent,
 			int years,
 			double wage,
 			boolean includeNpsTaxBenefit
 	) {
-		double amount = calculateAmountForPeriod(validTransactions, period);
-		double profit = calculateInflationAdjustedProfit(amount, annualRate, inflationPercent, years);
-		double taxBenefit = includeNpsTaxBenefit ? calculateNpsTaxBenefit(amount, wage) : 0.0;
-
-		return new SavingsByDateOutput(
-				period.start(),
-				period.end(),
-				round2(amount),
-				round2(profit),
-				round2(taxBenefit)
+		return new ReturnsCalculationResponse(
+				round2(savings.totalTransactionAmount()),
+				round2(savings.totalCeiling()),
+				buildSavingsByDates(savings, pricing, annualRate, inflationPercent, years, wage, includeNpsTaxBenefit)
 		);
 	}
 
-	private double calculateAmountForPeriod(List<TransactionOutput> transactions, KPeriodInput period) {
-		if (period.start().isAfter(period.end())) {
-			return 0.0;
-		}
-		return transactions.stream()
-				.filter(transaction -> isWithinInclusive(transaction.getDate(), period.start(), period.end()))
-				.mapToDouble(TransactionOutput::getRemanent)
-				.sum();
-	}
-
-	private boolean isWithinInclusive(LocalDateTime value, LocalDateTime start, LocalDateTime end) {
-		return !value.isBefore(start) && !value.isAfter(end);
-	}
-
-	private double calculateInflationAdjustedProfit(double principal, double annualRate, double inflationPercent, int years) {
-		if (principal <= 0) {
-			return 0.0;
+	private List<SavingsByDateOutput> buildSavingsByDates(
+			PeriodSavings savings,
+			Pricing pricing,
+			double annualRate,
+			double inflationPercent,
+			int years,
+			double wage,
+			boolean includeNpsTaxBenefit
+	) {
+		// Only the period amount varies between k periods, so compounding and the baseline tax
+		// are worked out once here and each period costs a few multiplications and comparisons.
+		GrowthFactors growth = GrowthFactors.of(annualRate, inflationPercent, years);
+		NpsTaxBenefit taxBenefit = includeNpsTaxBenefit ? new NpsTaxBenefit(pricing, wage) : null;
+		List<SavingsByDateOutput> savingsByDates = new ArrayList<>(savings.periods().size());
+		for (int i = 0; i < savings.periods().size(); i++) {
+			KPeriodInput period = savings.periods().get(i);
+			double amount = savings.amounts()[i];
+			savingsByDates.add(new SavingsByDateOutput(
+					period.start(),
+					period.end(),
+					round2(amount),
+					round2(growth.inflationAdjustedProfit(amount)),
+					round2(taxBenefit == null ? 0.0 : taxBenefit.forInvestment(amount))
+			));
 		}
-		double nominalAmount = principal * Math.pow(1 + annualRate, years);
-		double inflationAdjustedAmount = nominalAmount / Math.pow(1 + inflationPercent / 100.0, years);
-		return inflationAdjustedAmount - principal;
+		return savingsByDates;
 	}
 
-	private double calculateNpsTaxBenefit(double investedAmount, double monthlyWage) {
-		if (investedAmount <= 0) {
+	private double calculateAmountForPeriod(SavingsTimeline timeline, KPeriodInput period) {
+		if (period.start().isAfter(period.end())) {
 			return 0.0;
 		}
-
-		double annualIncome = monthlyWage * 12.0;
-		double deductionLimitByIncome = annualIncome * NPS_INCOME_RATIO_CAP;
-		double eligibleDeduction = Math.min(investedAmount, Math.min(deductionLimitByIncome, NPS_MAX_DEDUCTION));
-		double taxBefore = calculateTax(annualIncome);
-		double taxAfter = calculateTax(Math.max(annualIncome - eligibleDeduction, 0.0));
-		return taxBefore - taxAfter;
+		return timeline.sumBetween(
+				TransactionBatch.toEpochSecond(period.start()),
+				TransactionBatch.toEpochSecond(period.end())
+		);
 	}
 
-	private double calculateTax(double income) {
-		if (income <= 700_000.0) {
-			return 0.0;
-		}
-		if (income <= 1_000_000.0) {
-			return (income - 700_000.0) * 0.10;
-		}
-		if (income <= 1_200_000.0) {
-			return 30_000.0 + (income - 1_000_000.0) * 0.15;
+	// An instrument without a rate takes the one registered under its name in the pricing table.
+	private static double instrumentRate(InstrumentRateInput instrument, Pricing pricing) {
+		if (instrument.rate() != null) {
+			return instrument.rate();
 		}
-		if (income <= 1_500_000.0) {
-			return 60_000.0 + (income - 1_200_000.0) * 0.20;
+		Double rate = pricing.instrumentRates().get(instrument.name());
+		if (rate == null) {
+			throw new InvalidRequestException("Instrument " + instrument.name() + " has no rate and is not in the pricing table");
 		}
-		return 120_000.0 + (income - 1_500_000.0) * 0.30;
+		return rate;
 	}
 
 	private int getInvestmentYears(int age) {
@@ -190,25 +305,39 @@ public class ReturnsCalculationService {
 				request.p(),
 				request.k(),
 				request.wage(),
-				request.transactions()
+				request.transactions(),
+				request.ruleSetId()
 		);
 	}
 
-	private List<TransactionOutput> getValidTransactionsForTotals(List<ExpenseInput> transactions) {
-		List<TransactionOutput> validTransactions = new ArrayList<>();
-		Set<String> seen = new HashSet<>();
+	// The NPS deduction cap and the tax on the full income depend only on the wage and the table.
+	private static final class NpsTaxBenefit {
 
-		for (ExpenseInput transaction : transactions) {
-			String fingerprint = transactionRulesService.createFingerprint(transaction);
-			if (!seen.add(fingerprint)) {
-				continue;
-			}
-			if (transactionRulesService.validateNonNegativeAmount(transaction.getAmount()) != null) {
-				continue;
-			}
-			validTransactions.add(transactionBuilder.calculateCeilingAndRemanent(transaction.getDate(), transaction.getAmount()));
+		private final TaxSlabs taxSlabs;
+		private final double annualIncome;
+		private final double deductionCap;
+		private final double taxBefore;
+
+		private NpsTaxBenefit(Pricing pricing, double monthlyWage) {
+			this.taxSlabs = pricing.taxSlabs();
+			this.annualIncome = monthlyWage * 12.0;
+			this.deductionCap = Math.min(annualIncome * pricing.npsIncomeRatioCap(), pricing.npsMaxDeduction());
+			this.taxBefore = taxSlabs.tax(annualIncome);
 		}
 
-		return validTransactions;
+		private double forInvestment(double investedAmount) {
+			if (investedAmount <= 0) {
+				return 0.0;
+			}
+			double eligibleDeduction = Math.min(investedAmount, deductionCap);
+			return taxBefore - taxSlabs.tax(Math.max(annualIncome - eligibleDeduction, 0.0));
+		}
 	}
+
+	record PeriodSavings(
+			double totalTransactionAmount,
+			double totalCeiling,
+			List<KPeriodInput> periods,
+			double[] amounts
+	) {}
 }
@@ -0,0 +1,235 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.KPeriodInput;
+import com.example.retirementsavings.api.dto.PPeriodInput;
+import com.example.retirementsavings.api.dto.QPeriodInput;
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Finished returns responses keyed by the request content, the pricing table version and the mode.
+// The planner UI re-posts identical payloads when the user switches views, so those become a single
+// lookup. A key is a 128-bit hash of that content for bucketing plus the canonical content itself,
+// compared on every hit, so a hash collision can never return another request's result. Caffeine
+// evicts by W-TinyLFU within a byte budget estimated per entry, key included, and entries expire
+// after the TTL. Hit, miss and eviction counts are published as cache_*
+// metrics (cache="returns").
+@Component
+public class ReturnsResultCache {
+
+	public enum Mode { NPS, INDEX }
+
+	// Rough heap footprint of a response: the record and list shell plus one SavingsByDateOutput
+	// (two LocalDateTimes with their LocalDate/LocalTime) per k period.
+	private static final int RESPONSE_BYTES = 96;
+	private static final int PERIOD_BYTES = 160;
+	// Key record, its content array header and the map node holding it.
+	private static final int KEY_BYTES = 96;
+	private static final ReturnsResultCache DISABLED = new ReturnsResultCache();
+
+	private final Cache<Key, ReturnsCalculationResponse> cache;
+
+	@Autowired
+	public ReturnsResultCache(
+			@Value("${retirement.returns.cache.max-bytes:67108864}") long maxBytes,
+			@Value("${retirement.returns.cache.ttl:10m}") Duration ttl,
+			MeterRegistry registry
+	) {
+		this.cache = Caffeine.newBuilder()
+				.maximumWeight(maxBytes)
+				.weigher((Key key, ReturnsCalculationResponse response) -> weigh(key, response))
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, cache, "returns");
+	}
+
+	private ReturnsResultCache() {
+		this.cache = null;
+	}
+
+	// Always computes; used where services are built by hand (tests, benchmarks).
+	public static ReturnsResultCache disabled() {
+		return DISABLED;
+	}
+
+	// registered is the request's named rule set, or null for inline periods, which are keyed by
+	// content so a hit never compiles them; the calculation compiles them only on a miss.
+	public ReturnsCalculationResponse get(
+			ReturnsCalculationRequest request,
+			RuleSet registered,
+			Pricing pricing,
+			Mode mode,
+			Supplier<ReturnsCalculationResponse> calculation
+	) {
+		if (cache == null) {
+			return calculation.get();
+		}
+		Key key = keyOf(request, registered, pricing, mode);
+		ReturnsCalculationResponse cached = cache.getIfPresent(key);
+		if (cached != null) {
+			return cached;
+		}
+		// Computed outside the cache so a slow calculation never blocks lookups of other keys; two
+		// concurrent misses on the same key both compute and the later put wins.
+		ReturnsCalculationResponse response = calculation.get();
+		cache.put(key, response);
+		return response;
+	}
+
+	static Key keyOf(ReturnsCalculationRequest request, RuleSet registered, Pricing pricing, Mode mode) {
+		List<ExpenseInput> transactions = request.transactions();
+		// Upper bound on the values fed below, so the content array is sized once.
+		int periodValues = registered != null ? 1 : 4 + 5 * (request.q().size() + request.p().size()) + 4 * request.k().size();
+		Hasher hasher = new Hasher(5 + periodValues + 3 * transactions.size());
+		// A replaced or reloaded pricing table gets a new version, so older results stop matching.
+		hasher.putLong(pricing.version());
+		hasher.putInt(request.age());
+		hasher.putDouble(request.wage());
+		hasher.putDouble(request.inflation());
+		if (registered != null) {
+			// A registered set is identified by its compiled version, which changes on re-registration.
+			hasher.putLong(registered.version());
+		} else {
+			putPeriods(hasher, request);
+		}
+		hasher.putInt(transactions.size());
+		for (ExpenseInput transaction : transactions) {
+			hasher.putDate(transaction.getDate());
+			hasher.putDouble(transaction.getAmount());
+		}
+		return hasher.finish(mode);
+	}
+
+	private static void putPeriods(Hasher hasher, ReturnsCalculationRequest request) {
+		// Inline periods never share a version, so they are hashed by content; the marker keeps
+		// them apart from a registered set's version.
+		hasher.putLong(-1);
+		List<QPeriodInput> q = request.q();
+		hasher.putInt(q.size());
+		for (QPeriodInput period : q) {
+			hasher.putDouble(period.fixed());
+			hasher.putDate(period.start());
+			hasher.putDate(period.end());
+		}
+		List<PPeriodInput> p = request.p();
+		hasher.putInt(p.size());
+		for (PPeriodInput period : p) {
+			hasher.putDouble(period.extra());
+			hasher.putDate(period.start());
+			hasher.putDate(period.end());
+		}
+		List<KPeriodInput> k = request.k();
+		hasher.putInt(k.size());
+		for (KPeriodInput period : k) {
+			hasher.putDate(period.start());
+			hasher.putDate(period.end());
+		}
+	}
+
+	private static int weigh(Key key, ReturnsCalculationResponse response) {
+		long bytes = KEY_BYTES + (long) key.content().length * Long.BYTES
+				+ RESPONSE_BYTES + (long) response.savingsByDates().size() * PERIOD_BYTES;
+		return (int) Math.min(bytes, Integer.MAX_VALUE);
+	}
+
+	// content is the canonical input sequence the hash was computed from; equality compares it in
+	// full, so only identical requests share an entry.
+	record Key(long high, long low, Mode mode, long[] content) {
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Key key
+					&& high == key.high
+					&& low == key.low
+					&& mode == key.mode
+					&& Arrays.equals(content, key.content);
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(high) * 31 + mode.hashCode();
+		}
+	}
+
+	// Two independent 64-bit multiply-rotate lanes with the MurmurHash3 finalizer, fed field by field
+	// so the request is never serialized; the fed values are kept as the key's canonical content.
+	// Lists are length-prefixed and nulls get their own marker, so differently shaped requests cannot
+	// produce the same input sequence.
+	private static final class Hasher {
+
+		private static final long C1 = 0x87c37b91114253d5L;
+		private static final long C2 = 0x4cf5ad432745937fL;
+		private static final long NULL = 0x9e3779b97f4a7c15L;
+
+		private long h1 = 0x243f6a8885a308d3L;
+		private long h2 = 0x13198a2e03707344L;
+		private long[] content;
+		private int length;
+
+		Hasher(int capacity) {
+			this.content = new long[capacity];
+		}
+
+		void putInt(Integer value) {
+			putLong(value == null ? NULL : value);
+		}
+
+		void putDouble(Double value) {
+			// +0.0 and -0.0 compare equal in every calculation, so they must hash alike.
+			putLong(value == null ? NULL : Double.doubleToLongBits(value == 0.0 ? 0.0 : value));
+		}
+
+		void putDate(LocalDateTime date) {
+			if (date == null) {
+				putLong(NULL);
+				return;
+			}
+			putLong(TransactionBatch.toEpochSecond(date));
+			putLong(date.getNano());
+		}
+
+		void putLong(long value) {
+			h1 = Long.rotateLeft(h1 ^ Long.rotateLeft(value * C1, 31) * C2, 27) * 5 + 0x52dce729;
+			h2 = Long.rotateLeft(h2 ^ Long.rotateLeft(value * C2, 33) * C1, 31) * 5 + 0x38495ab5;
+			if (length == content.length) {
+				content = Arrays.copyOf(content, length * 2 + 1);
+			}
+			content[length++] = value;
+		}
+
+		Key finish(Mode mode) {
+			long a = h1 ^ length;
+			long b = h2 ^ length;
+			a += b;
+			b += a;
+			a = fmix64(a);
+			b = fmix64(b);
+			a += b;
+			b += a;
+			return new Key(a, b, mode, Arrays.copyOf(content, length));
+		}
+
+		private static long fmix64(long value) {
+			value ^= value >>> 33;
+			value *= 0xff51afd7ed558ccdL;
+			value ^= value >>> 33;
+			value *= 0xc4ceb9fe1a85ec53L;
+			value ^= value >>> 33;
+			return value;
+		}
+	}
+}
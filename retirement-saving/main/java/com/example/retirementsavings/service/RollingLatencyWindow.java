@@ -0,0 +1,155 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.WindowTelemetryOutput;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Ring of fixed-length time slots, each holding a log-linear latency histogram (HdrHistogram
+// layout: 16 linear sub-buckets per power of two, so any recorded value is within 1/16 of its
+// bucket bound) plus request, CPU and allocation totals. Recording is lock-free: a stale slot is
+// swapped out with a CAS and counters are plain atomic increments. A sample racing with a slot
+// swap may land in the retired slot and be dropped, which is acceptable for telemetry.
+final class RollingLatencyWindow {
+
+	static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+	// Latencies are kept in microseconds and clamped to 2^32 us (about 71 minutes).
+	private static final long MAX_TRACKABLE_MICROS = (1L << 32) - 1;
+	static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_MICROS) + 1;
+
+	private final long slotMillis;
+	private final AtomicReferenceArray<Slot> slots;
+
+	RollingLatencyWindow(long slotMillis, int slotCount) {
+		this.slotMillis = slotMillis;
+		this.slots = new AtomicReferenceArray<>(slotCount);
+	}
+
+	void record(long nowMillis, long durationNanos, long cpuNanos, long allocatedBytes, boolean failed) {
+		Slot slot = slotFor(nowMillis / slotMillis);
+		long micros = Math.min(Math.max(durationNanos / 1_000, 0), MAX_TRACKABLE_MICROS);
+		slot.buckets.incrementAndGet(bucketIndex(micros));
+		slot.requests.incrementAndGet();
+		if (failed) {
+			slot.failures.incrementAndGet();
+		}
+		if (cpuNanos > 0) {
+			slot.cpuNanos.addAndGet(cpuNanos);
+		}
+		if (allocatedBytes > 0) {
+			slot.allocatedBytes.addAndGet(allocatedBytes);
+		}
+		slot.maxMicros.accumulateAndGet(micros, Math::max);
+	}
+
+	// Merges the slots of the last windowSlots slot lengths, the current partial slot included.
+	WindowTelemetryOutput snapshot(long nowMillis, String label, int windowSlots) {
+		long currentEpoch = nowMillis / slotMillis;
+		long[] merged = new long[BUCKET_COUNT];
+		long requests = 0;
+		long failures = 0;
+		long cpuNanos = 0;
+		long allocatedBytes = 0;
+		long maxMicros = 0;
+		for (int i = 0; i < slots.length(); i++) {
+			Slot slot = slots.get(i);
+			if (slot == null || slot.epoch > currentEpoch || slot.epoch <= currentEpoch - windowSlots) {
+				continue;
+			}
+			for (int b = 0; b < BUCKET_COUNT; b++) {
+				merged[b] += slot.buckets.get(b);
+			}
+			requests += slot.requests.get();
+			failures += slot.failures.get();
+			cpuNanos += slot.cpuNanos.get();
+			allocatedBytes += slot.allocatedBytes.get();
+			maxMicros = Math.max(maxMicros, slot.maxMicros.get());
+		}
+		double windowSeconds = windowSlots * slotMillis / 1_000.0;
+		return new WindowTelemetryOutput(
+				label,
+				requests,
+				failures,
+				requests / windowSeconds,
+				percentileMillis(merged, requests, 0.50, maxMicros),
+				percentileMillis(merged, requests, 0.95, maxMicros),
+				percentileMillis(merged, requests, 0.99, maxMicros),
+				maxMicros / 1_000.0,
+				cpuNanos / 1_000_000.0,
+				allocatedBytes,
+				allocatedBytes / windowSeconds
+		);
+	}
+
+	private Slot slotFor(long epoch) {
+		int position = (int) Math.floorMod(epoch, (long) slots.length());
+		while (true) {
+			Slot slot = slots.get(position);
+			if (slot != null && slot.epoch == epoch) {
+				return slot;
+			}
+			if (slot != null && slot.epoch > epoch) {
+				// A concurrent recorder already moved on; count the sample in the newer slot.
+				return slot;
+			}
+			Slot fresh = new Slot(epoch);
+			if (slots.compareAndSet(position, slot, fresh)) {
+				return fresh;
+			}
+		}
+	}
+
+	// Reports the highest value equivalent to the bucket holding the requested rank, capped at the
+	// observed maximum so a single sample does not read higher than it was.
+	private static double percentileMillis(long[] buckets, long count, double percentile, long maxMicros) {
+		if (count == 0) {
+			return 0.0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile * count));
+		long seen = 0;
+		for (int b = 0; b < buckets.length; b++) {
+			seen += buckets[b];
+			if (seen >= rank) {
+				return Math.min(highestEquivalentValue(b), maxMicros) / 1_000.0;
+			}
+		}
+		return maxMicros / 1_000.0;
+	}
+
+	static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		int shift = magnitude - SUB_BUCKET_BITS;
+		return ((magnitude - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & SUB_BUCKET_MASK);
+	}
+
+	static long highestEquivalentValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int magnitude = (index >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+		int shift = magnitude - SUB_BUCKET_BITS;
+		long lowest = (long) (SUB_BUCKET_COUNT + (index & SUB_BUCKET_MASK)) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	private static final class Slot {
+
+		private final long epoch;
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+		private final AtomicLong requests = new AtomicLong();
+		private final AtomicLong failures = new AtomicLong();
+		private final AtomicLong cpuNanos = new AtomicLong();
+		private final AtomicLong allocatedBytes = new AtomicLong();
+		private final AtomicLong maxMicros = new AtomicLong();
+
+		private Slot(long epoch) {
+			this.epoch = epoch;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.KPeriodInput;
+import com.example.retirementsavings.api.dto.PPeriodInput;
+import com.example.retirementsavings.api.dto.QPeriodInput;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// q/p/k periods compiled into the sorted primitive structures the filter sweep reads. Immutable,
+// so one registered instance is shared by every request that references it by id. Inline periods
+// are compiled per request and have no id.
+public final class RuleSet {
+
+	private static final AtomicLong VERSIONS = new AtomicLong();
+
+	private final String id;
+	// Unique per compilation, so results cached against a registered set are never reused after
+	// the id is registered again with different periods.
+	private final long version;
+	private final List<QPeriodInput> q;
+	private final List<PPeriodInput> p;
+	private final List<KPeriodInput> k;
+	private final QPeriodIndex qIndex;
+	private final PeriodSchedule pSchedule;
+	private final PeriodSchedule kSchedule;
+
+	private RuleSet(String id, List<QPeriodInput> q, List<PPeriodInput> p, List<KPeriodInput> k) {
+		this.id = id;
+		this.version = VERSIONS.incrementAndGet();
+		this.q = q;
+		this.p = p;
+		this.k = k;
+		this.qIndex = QPeriodIndex.of(PeriodSchedule.ofQ(q));
+		this.pSchedule = PeriodSchedule.ofP(p);
+		this.kSchedule = PeriodSchedule.ofK(k);
+	}
+
+	static RuleSet registered(String id, List<QPeriodInput> q, List<PPeriodInput> p, List<KPeriodInput> k) {
+		return new RuleSet(id, List.copyOf(q), List.copyOf(p), List.copyOf(k));
+	}
+
+	public static RuleSet inline(List<QPeriodInput> q, List<PPeriodInput> p, List<KPeriodInput> k) {
+		return new RuleSet(null, q, p, k);
+	}
+
+	public String id() {
+		return id;
+	}
+
+	public long version() {
+		return version;
+	}
+
+	public List<QPeriodInput> q() {
+		return q;
+	}
+
+	public List<PPeriodInput> p() {
+		return p;
+	}
+
+	public List<KPeriodInput> k() {
+		return k;
+	}
+
+	QPeriodIndex qIndex() {
+		return qIndex;
+	}
+
+	PeriodSchedule pSchedule() {
+		return pSchedule;
+	}
+
+	PeriodSchedule kSchedule() {
+		return kSchedule;
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.retirementsavings.service;
+
+// Remanents sorted by time with prefix sums, so the savings of any inclusive [start, end]
+// window is two binary searches and a subtraction instead of a scan over all transactions.
+final class SavingsTimeline {
+
+	private final long[] epochSeconds;
+	private final double[] prefixSums;
+
+	private SavingsTimeline(long[] epochSeconds, double[] prefixSums) {
+		this.epochSeconds = epochSeconds;
+		this.prefixSums = prefixSums;
+	}
+
+	// Uses the rows listed in indices (ascending) of the epochSeconds/remanents columns.
+	static SavingsTimeline of(long[] epochSeconds, double[] remanents, int[] indices, int count) {
+		int[] sortedIndices = EpochSort.sort(epochSeconds, indices, count);
+		long[] sortedSeconds = new long[count];
+		// prefixSums[i] holds the sum of the first i remanents in time order.
+		double[] prefixSums = new double[count + 1];
+		for (int i = 0; i < count; i++) {
+			int index = sortedIndices[i];
+			sortedSeconds[i] = epochSeconds[index];
+			prefixSums[i + 1] = prefixSums[i] + remanents[index];
+		}
+		return new SavingsTimeline(sortedSeconds, prefixSums);
+	}
+
+	double sumBetween(long startInclusive, long endInclusive) {
+		if (startInclusive > endInclusive) {
+			return 0.0;
+		}
+		int from = firstIndexAtOrAfter(startInclusive);
+		int to = firstIndexAtOrAfter(endInclusive + 1);
+		return to > from ? prefixSums[to] - prefixSums[from] : 0.0;
+	}
+
+	private int firstIndexAtOrAfter(long epochSecond) {
+		int low = 0;
+		int high = epochSeconds.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (epochSeconds[middle] < epochSecond) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,80 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.TaxSlabInput;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Marginal income tax slabs compiled for lookup: the lower bounds sorted ascending, each slab's
+// rate, and the cumulative tax owed on all income up to each bound. Tax on an income is then one
+// binary search plus base + (income - bound) * rate, whatever the number of slabs. A slab applies
+// to income strictly above its bound, so income exactly on a bound is taxed by the slab below.
+public final class TaxSlabs {
+
+	private final double[] lowerBounds;
+	private final double[] rates;
+	private final double[] baseTax;
+
+	private TaxSlabs(double[] lowerBounds, double[] rates) {
+		this.lowerBounds = lowerBounds;
+		this.rates = rates;
+		this.baseTax = new double[lowerBounds.length];
+		for (int i = 1; i < lowerBounds.length; i++) {
+			baseTax[i] = baseTax[i - 1] + (lowerBounds[i] - lowerBounds[i - 1]) * rates[i - 1];
+		}
+	}
+
+	// The first slab must start at 0 and bounds must strictly increase; rates are fractions, e.g. 0.10.
+	public static TaxSlabs of(List<TaxSlabInput> slabs) {
+		if (slabs == null || slabs.isEmpty()) {
+			throw new InvalidRequestException("At least one tax slab is required");
+		}
+		double[] lowerBounds = new double[slabs.size()];
+		double[] rates = new double[slabs.size()];
+		for (int i = 0; i < lowerBounds.length; i++) {
+			TaxSlabInput slab = slabs.get(i);
+			if (slab == null || slab.from() == null || slab.rate() == null) {
+				throw new InvalidRequestException("Tax slab " + i + " needs a from and a rate");
+			}
+			lowerBounds[i] = slab.from();
+			rates[i] = slab.rate();
+			if (!Double.isFinite(lowerBounds[i]) || (i == 0 ? lowerBounds[i] != 0 : !(lowerBounds[i] > lowerBounds[i - 1]))) {
+				throw new InvalidRequestException("Tax slabs must start at 0 and their from values must strictly increase");
+			}
+			if (!(rates[i] >= 0 && rates[i] <= 1)) {
+				throw new InvalidRequestException("Tax slab rates must be between 0 and 1");
+			}
+		}
+		return new TaxSlabs(lowerBounds, rates);
+	}
+
+	public double tax(double income) {
+		if (!(income > lowerBounds[0])) {
+			return 0.0;
+		}
+		// Index of the last bound strictly below the income.
+		int low = 0;
+		int high = lowerBounds.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (lowerBounds[mid] < income) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return baseTax[low] + (income - lowerBounds[low]) * rates[low];
+	}
+
+	public int size() {
+		return lowerBounds.length;
+	}
+
+	public List<TaxSlabInput> slabs() {
+		List<TaxSlabInput> slabs = new ArrayList<>(lowerBounds.length);
+		for (int i = 0; i < lowerBounds.length; i++) {
+			slabs.add(new TaxSlabInput(lowerBounds[i], rates[i]));
+		}
+		return slabs;
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.retirementsavings.service;
+
+import java.lang.management.ManagementFactory;
+
+// Per-thread CPU time and allocated bytes from the HotSpot ThreadMXBean. Both return -1 when the
+// JVM does not support or has disabled the measurement, and on JDK 21 also on virtual threads, so
+// callers can skip the sample.
+public final class ThreadUsage {
+
+	// Request attribute holding the Offloaded usage of the current request.
+	public static final String OFFLOADED_ATTRIBUTE = ThreadUsage.class.getName() + ".offloaded";
+
+	private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+	private static final boolean ALLOCATION_SUPPORTED = THREADS != null
+			&& THREADS.isThreadAllocatedMemorySupported()
+			&& THREADS.isThreadAllocatedMemoryEnabled();
+	private static final boolean CPU_TIME_SUPPORTED = THREADS != null
+			&& THREADS.isCurrentThreadCpuTimeSupported()
+			&& THREADS.isThreadCpuTimeEnabled();
+
+	private ThreadUsage() {
+	}
+
+	public static long currentThreadAllocatedBytes() {
+		return ALLOCATION_SUPPORTED ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+	}
+
+	public static long currentThreadCpuNanos() {
+		return CPU_TIME_SUPPORTED ? THREADS.getCurrentThreadCpuTime() : -1;
+	}
+
+	// CPU time and allocation of work a request ran on ComputeExecutor's platform threads, which
+	// the serving thread cannot see in its own counters.
+	public static final class Offloaded {
+
+		private long cpuNanos;
+		private long allocatedBytes;
+
+		public synchronized void add(long cpuNanos, long allocatedBytes) {
+			this.cpuNanos += cpuNanos;
+			this.allocatedBytes += allocatedBytes;
+		}
+
+		public synchronized long cpuNanos() {
+			return cpuNanos;
+		}
+
+		public synchronized long allocatedBytes() {
+			return allocatedBytes;
+		}
+	}
+
+	private static com.sun.management.ThreadMXBean threadMXBean() {
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads) {
+			return threads;
+		}
+		return null;
+	}
+}
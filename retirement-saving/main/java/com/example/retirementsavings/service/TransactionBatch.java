@@ -0,0 +1,63 @@
+package com.example.retirementsavings.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Columnar (struct-of-arrays) form of a transaction list. Row i always refers to input index i,
+// so callers can go back to the request DTOs only when building the response.
+public final class TransactionBatch {
+
+	private final int size;
+	private final long[] epochSeconds;
+	private final double[] amount;
+	private final double[] ceiling;
+	private final double[] remanent;
+	private final boolean[] inK;
+
+	public TransactionBatch(int size) {
+		this.size = size;
+		this.epochSeconds = new long[size];
+		this.amount = new double[size];
+		this.ceiling = new double[size];
+		this.remanent = new double[size];
+		this.inK = new boolean[size];
+	}
+
+	public static long toEpochSecond(LocalDateTime date) {
+		// The API date layout has second resolution, so the epoch second is a lossless sort/compare key.
+		return date.toEpochSecond(ZoneOffset.UTC);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long[] epochSeconds() {
+		return epochSeconds;
+	}
+
+	public double[] amount() {
+		return amount;
+	}
+
+	public double[] ceiling() {
+		return ceiling;
+	}
+
+	public double[] remanent() {
+		return remanent;
+	}
+
+	public boolean[] inK() {
+		return inK;
+	}
+
+	// Returns the given row indices ordered by (time, index); indices must be ascending.
+	public int[] sortByTime(int[] indices, int count) {
+		return sortByTime(indices, count, false);
+	}
+
+	public int[] sortByTime(int[] indices, int count, boolean parallel) {
+		return EpochSort.sort(epochSeconds, indices, count, parallel);
+	}
+}
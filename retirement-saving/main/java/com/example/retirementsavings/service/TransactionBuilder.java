@@ -4,9 +4,12 @@ import com.example.retirementsavings.api.dto.ExpenseInput;
 import com.example.retirementsavings.api.dto.TransactionOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -14,23 +17,105 @@ public class TransactionBuilder {
 
 	private static final Logger LOG = LoggerFactory.getLogger(TransactionBuilder.class);
 	private static final double CEILING_STEP = 100.0;
+	private static final String VECTOR_MODULE = "jdk.incubator.vector";
+	private static final String VECTOR_KERNEL = "com.example.retirementsavings.service.VectorizedCeiling";
 
+	// Null on the scalar path.
+	private final CeilingKernel vectorKernel;
+
+	public TransactionBuilder() {
+		this(false);
+	}
+
+	// The vector path needs the incubating module on the boot layer; without it the flag is
+	// ignored and the scalar loop is used.
+	@Autowired
+	public TransactionBuilder(@Value("${retirement.builder.vectorized:false}") boolean vectorized) {
+		this.vectorKernel = vectorized ? loadVectorKernel() : null;
+	}
+
+	public boolean isVectorized() {
+		return vectorKernel != null;
+	}
+
+	// VectorizedCeiling is compiled separately against the incubating module (the vector source
+	// set), so it is only referenced by name and never linked unless the module is loaded.
+	private static CeilingKernel loadVectorKernel() {
+		if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+			LOG.warn("Vectorized ceiling requested but {} is not loaded; using the scalar path", VECTOR_MODULE);
+			return null;
+		}
+		try {
+			return Class.forName(VECTOR_KERNEL)
+					.asSubclass(CeilingKernel.class)
+					.getDeclaredConstructor()
+					.newInstance();
+		} catch (ReflectiveOperationException | LinkageError ex) {
+			LOG.warn("Vectorized ceiling requested but {} is unavailable; using the scalar path", VECTOR_KERNEL, ex);
+			return null;
+		}
+	}
+
+	// Row by row: building the outputs dominates, so staging amounts in scratch columns for the bulk
+	// kernel only adds 24 bytes per row (TransactionBuilderBenchmark).
 	public List<TransactionOutput> getCeilingAndRemnantForTranscations(List<ExpenseInput> expenses) {
 		LOG.debug("Calculating ceiling/remanent for {} expenses", expenses.size());
-		List<TransactionOutput> results = expenses.stream()
-				.map(this::getCeilingAndRemnantForATranscation)
-				.toList();
+		List<TransactionOutput> results = new ArrayList<>(expenses.size());
+		for (ExpenseInput expense : expenses) {
+			results.add(calculateCeilingAndRemanent(expense.getDate(), expense.getAmount()));
+		}
 		LOG.debug("Ceiling/remanent calculation completed for {} expenses", results.size());
 		return results;
 	}
 
+	public TransactionBatch getCeilingAndRemnantForBatch(List<ExpenseInput> expenses) {
+		LOG.debug("Calculating columnar ceiling/remanent for {} expenses", expenses.size());
+		TransactionBatch batch = new TransactionBatch(expenses.size());
+		fillBatch(expenses, batch, 0, expenses.size());
+		return batch;
+	}
+
+	// Fills rows [from, to) of the batch from the matching expenses; disjoint ranges may be filled concurrently.
+	public void fillBatch(List<ExpenseInput> expenses, TransactionBatch batch, int from, int to) {
+		long[] epochSeconds = batch.epochSeconds();
+		double[] amount = batch.amount();
+		for (int i = from; i < to; i++) {
+			ExpenseInput expense = expenses.get(i);
+			epochSeconds[i] = TransactionBatch.toEpochSecond(expense.getDate());
+			amount[i] = expense.getAmount();
+		}
+		calculateCeilingAndRemanent(batch, from, to);
+	}
+
+	public void calculateCeilingAndRemanent(TransactionBatch batch) {
+		calculateCeilingAndRemanent(batch, 0, batch.size());
+	}
+
+	private void calculateCeilingAndRemanent(TransactionBatch batch, int from, int to) {
+		calculateCeilingAndRemanent(batch.amount(), batch.ceiling(), batch.remanent(), from, to);
+	}
+
+	// Bulk rounding of amount[from, to) into ceiling and remanent; the vector and scalar paths
+	// produce bit-identical results.
+	public void calculateCeilingAndRemanent(double[] amount, double[] ceiling, double[] remanent, int from, int to) {
+		if (vectorKernel != null) {
+			vectorKernel.ceilingAndRemanent(amount, ceiling, remanent, from, to, CEILING_STEP);
+			return;
+		}
+		for (int i = from; i < to; i++) {
+			ceiling[i] = ceilingOf(amount[i]);
+			remanent[i] = ceiling[i] - amount[i];
+		}
+	}
+
 	public TransactionOutput calculateCeilingAndRemanent(LocalDateTime date, double amount) {
-		double ceiling = Math.ceil(amount / CEILING_STEP) * CEILING_STEP;
+		double ceiling = ceilingOf(amount);
 		double remanent = ceiling - amount;
 		return new TransactionOutput(date, amount, ceiling, remanent);
 	}
 
-	private TransactionOutput getCeilingAndRemnantForATranscation(ExpenseInput expense) {
-		return calculateCeilingAndRemanent(expense.getDate(), expense.getAmount());
+	// Primitive form for callers that only need the ceiling, e.g. per-transaction session appends.
+	public double ceilingOf(double amount) {
+		return Math.ceil(amount / CEILING_STEP) * CEILING_STEP;
 	}
 }
@@ -0,0 +1,22 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+
+import java.util.List;
+
+// Intermediate state of one filter run, kept columnar so callers such as the returns calculation
+// can reuse it without materializing response DTOs. Rows are indices into transactions/batch;
+// transactions is null when the batch was read from a binary transaction file.
+// Totals cover every first-occurrence, non-negative transaction, before q/p adjustments and
+// regardless of whether its final remanent is invested.
+public record TransactionFilterResult(
+		List<ExpenseInput> transactions,
+		TransactionBatch batch,
+		int[] validIndices,
+		int validCount,
+		int[] invalidIndices,
+		String[] invalidMessages,
+		int invalidCount,
+		double totalTransactionAmount,
+		double totalCeiling
+) {}
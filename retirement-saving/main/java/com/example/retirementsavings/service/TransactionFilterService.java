@@ -2,320 +2,448 @@ package com.example.retirementsavings.service;
 
 import com.example.retirementsavings.api.dto.ExpenseInput;
 import com.example.retirementsavings.api.dto.InvalidTransactionOutput;
-import com.example.retirementsavings.api.dto.KPeriodInput;
-import com.example.retirementsavings.api.dto.PPeriodInput;
-import com.example.retirementsavings.api.dto.QPeriodInput;
 import com.example.retirementsavings.api.dto.TransactionFilterRequest;
 import com.example.retirementsavings.api.dto.TransactionFilterResponse;
 import com.example.retirementsavings.api.dto.TransactionOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 @Service
 public class TransactionFilterService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(TransactionFilterService.class);
+	// Chunks per worker thread, so that uneven chunks still balance across the pool.
+	private static final int CHUNKS_PER_THREAD = 4;
+	private static final int MIN_CHUNK_SIZE = 16_384;
 	private final TransactionBuilder transactionBuilder;
 	private final TransactionRulesService transactionRulesService;
+	private final int parallelThreshold;
+	private final int minChunkSize;
+	private final ForkJoinPool pool;
+	private final PipelineMetrics pipelineMetrics;
 
 	public TransactionFilterService(TransactionBuilder transactionBuilder, TransactionRulesService transactionRulesService) {
+		this(
+				transactionBuilder,
+				transactionRulesService,
+				Integer.MAX_VALUE,
+				MIN_CHUNK_SIZE,
+				ForkJoinPool.commonPool(),
+				PipelineMetrics.noop()
+		);
+	}
+
+	@Autowired
+	public TransactionFilterService(
+			TransactionBuilder transactionBuilder,
+			TransactionRulesService transactionRulesService,
+			@Value("${retirement.filter.parallel-threshold:200000}") int parallelThreshold,
+			PipelineMetrics pipelineMetrics
+	) {
+		this(
+				transactionBuilder,
+				transactionRulesService,
+				parallelThreshold,
+				MIN_CHUNK_SIZE,
+				ForkJoinPool.commonPool(),
+				pipelineMetrics
+		);
+	}
+
+	TransactionFilterService(
+			TransactionBuilder transactionBuilder,
+			TransactionRulesService transactionRulesService,
+			int parallelThreshold,
+			int minChunkSize,
+			ForkJoinPool pool,
+			PipelineMetrics pipelineMetrics
+	) {
 		this.transactionBuilder = transactionBuilder;
 		this.transactionRulesService = transactionRulesService;
+		this.parallelThreshold = parallelThreshold;
+		this.minChunkSize = minChunkSize;
+		this.pool = pool;
+		this.pipelineMetrics = pipelineMetrics;
 	}
 
 	public TransactionFilterResponse filter(TransactionFilterRequest request) {
-		List<ExpenseInput> transactions = request.transactions();
-		LOG.debug(
-				"Starting temporal filtering: transactions={}, qPeriods={}, pPeriods={}, kPeriods={}",
-				transactions.size(),
-				request.q().size(),
-				request.p().size(),
-				request.k().size()
-		);
+		return toResponse(process(request));
+	}
+
+	public TransactionFilterResult process(TransactionFilterRequest request) {
+		return process(request.transactions(), resolveRuleSet(request));
+	}
+
+	public RuleSet resolveRuleSet(TransactionFilterRequest request) {
+		return transactionRulesService.resolveRuleSet(request.ruleSetId(), request.q(), request.p(), request.k());
+	}
+
+	// The named rule set, or null when the request carries valid inline periods (left uncompiled).
+	public RuleSet registeredRuleSet(TransactionFilterRequest request) {
+		return transactionRulesService.registeredRuleSet(request.ruleSetId(), request.q(), request.p(), request.k());
+	}
+
+	public TransactionFilterResult process(List<ExpenseInput> transactions, RuleSet ruleSet) {
+		boolean parallel = transactions.size() >= parallelThreshold;
+		PipelineMetrics.Recording recording = start(transactions.size(), ruleSet, parallel);
 		// Processing order is fixed: base rounding -> q override -> p addition -> k evaluation.
-		List<TransactionOutput> baseTransactions = transactionBuilder.getCeilingAndRemnantForTranscations(transactions);
-		double[] qFixedByIndex = computeApplicableQFixed(transactions, request.q());
-		double[] pExtraByIndex = computeApplicablePExtra(transactions, request.p());
+		// All stages work on the columnar batch; DTOs are only built for the response.
+		TransactionBatch batch = parallel
+				? buildBatchInParallel(transactions)
+				: transactionBuilder.getCeilingAndRemnantForBatch(transactions);
+		recording.stage(PipelineMetrics.STAGE_BASE_ROUNDING);
+		return filterBatch(transactions, batch, false, ruleSet, parallel, recording);
+	}
 
-		List<TransactionOutput> processedValid = new ArrayList<>();
-		List<InvalidTransactionOutput> invalid = new ArrayList<>();
-		Set<String> seen = new HashSet<>();
+	// Filters a batch whose epochSeconds and amount columns are already filled (binary transaction
+	// files), without any per-row objects. A presorted batch must be in time order and skips the
+	// sort. The result has no transactions list, so it cannot be turned into a filter response.
+	TransactionFilterResult process(TransactionBatch batch, boolean presorted, RuleSet ruleSet) {
+		boolean parallel = batch.size() >= parallelThreshold;
+		PipelineMetrics.Recording recording = start(batch.size(), ruleSet, parallel);
+		transactionBuilder.calculateCeilingAndRemanent(batch);
+		recording.stage(PipelineMetrics.STAGE_BASE_ROUNDING);
+		return filterBatch(null, batch, presorted, ruleSet, parallel, recording);
+	}
 
-		for (int i = 0; i < transactions.size(); i++) {
-			ExpenseInput transaction = transactions.get(i);
-			String fingerprint = transactionRulesService.createFingerprint(transaction);
+	private PipelineMetrics.Recording start(int transactionCount, RuleSet ruleSet, boolean parallel) {
+		LOG.debug(
+				"Starting temporal filtering: transactions={}, qPeriods={}, pPeriods={}, kPeriods={}, parallel={}",
+				transactionCount,
+				ruleSet.q().size(),
+				ruleSet.p().size(),
+				ruleSet.k().size(),
+				parallel
+		);
+		PipelineMetrics.Recording recording = pipelineMetrics.start(PipelineMetrics.FILTER);
+		recording.size("transactions", transactionCount);
+		recording.size("q", ruleSet.q().size());
+		recording.size("p", ruleSet.p().size());
+		recording.size("k", ruleSet.k().size());
+		return recording;
+	}
+
+	private TransactionFilterResult filterBatch(
+			List<ExpenseInput> transactions,
+			TransactionBatch batch,
+			boolean presorted,
+			RuleSet ruleSet,
+			boolean parallel,
+			PipelineMetrics.Recording recording
+	) {
+		int[] sortedIndices = presorted
+				? EpochSort.identity(batch.size())
+				: batch.sortByTime(EpochSort.identity(batch.size()), batch.size(), parallel);
+		recording.stage(PipelineMetrics.STAGE_SORT);
+		QPeriodIndex q = ruleSet.qIndex();
+		PeriodSchedule p = ruleSet.pSchedule();
+		PeriodSchedule k = ruleSet.kSchedule();
+		boolean[] duplicate = new boolean[batch.size()];
+		if (parallel) {
+			sweepInParallel(batch, sortedIndices, q, p, k, duplicate);
+		} else {
+			sweepRange(batch, sortedIndices, 0, batch.size(), q, p, k, RunningExtra.NONE, duplicate);
+		}
+		recording.stage(PipelineMetrics.STAGE_PERIOD_SWEEP);
+
+		double[] amount = batch.amount();
+		double[] ceiling = batch.ceiling();
+		double[] remanent = batch.remanent();
+		int[] validIndices = new int[batch.size()];
+		int validCount = 0;
+		int[] invalidIndices = new int[batch.size()];
+		String[] invalidMessages = new String[batch.size()];
+		int invalidCount = 0;
+		CompensatedSum totalTransactionAmount = new CompensatedSum();
+		CompensatedSum totalCeiling = new CompensatedSum();
+		// Per-row debug arguments box, so they are only built when debug logging is on.
+		boolean debug = LOG.isDebugEnabled();
+
+		// Always sequential and in input order, so the lists and totals do not depend on the chunking.
+		for (int i = 0; i < batch.size(); i++) {
 			// First occurrence wins; later occurrences are treated as invalid duplicates.
-			if (!seen.add(fingerprint)) {
-				LOG.debug("Duplicate transaction rejected at {}", transaction.getDate());
-				invalid.add(transactionRulesService.toInvalidTransaction(transaction, "Duplicate transaction"));
+			if (duplicate[i]) {
+				if (debug) {
+					LOG.debug("Duplicate transaction rejected at {}", dateOf(transactions, batch, i));
+				}
+				invalidIndices[invalidCount] = i;
+				invalidMessages[invalidCount++] = "Duplicate transaction";
 				continue;
 			}
-			String errorMessage = transactionRulesService.validateNonNegativeAmount(transaction.getAmount());
+			String errorMessage = transactionRulesService.validateNonNegativeAmount(amount[i]);
 			if (errorMessage != null) {
-				LOG.debug("Transaction rejected at {} due to amount validation", transaction.getDate());
-				invalid.add(transactionRulesService.toInvalidTransaction(transaction, errorMessage));
+				if (debug) {
+					LOG.debug("Transaction rejected at {} due to amount validation", dateOf(transactions, batch, i));
+				}
+				invalidIndices[invalidCount] = i;
+				invalidMessages[invalidCount++] = errorMessage;
 				continue;
 			}
-			TransactionOutput base = baseTransactions.get(i);
-			double remanent = base.getRemanent();
-			// q replaces remanent, while p always adds on top of the current remanent.
-			if (!Double.isNaN(qFixedByIndex[i])) {
-				remanent = qFixedByIndex[i];
-			}
-			remanent += pExtraByIndex[i];
-
-			TransactionOutput adjusted = new TransactionOutput(
-					transaction.getDate(),
-					transaction.getAmount(),
-					base.getCeiling(),
-					remanent,
-					null
-			);
-			if (adjusted.getRemanent() <= 0) {
-				LOG.debug("Transaction ignored at {} because remanent is not added: {}", transaction.getDate(), adjusted.getRemanent());
+			// Totals count every accepted transaction, including ones whose remanent ends up not invested.
+			totalTransactionAmount.add(amount[i]);
+			totalCeiling.add(ceiling[i]);
+			if (remanent[i] <= 0) {
+				if (debug) {
+					LOG.debug("Transaction ignored at {} because remanent is not added: {}", dateOf(transactions, batch, i), remanent[i]);
+				}
 				continue;
 			}
-			processedValid.add(adjusted);
+			validIndices[validCount++] = i;
 		}
 
-		boolean[] inKPeriodByIndex = computeKMembership(processedValid, request.k());
-		List<TransactionOutput> valid = new ArrayList<>(processedValid.size());
-		for (int i = 0; i < processedValid.size(); i++) {
-			TransactionOutput transaction = processedValid.get(i);
+		recording.stage(PipelineMetrics.STAGE_VALIDATION);
+		recording.finish();
+		LOG.debug(
+				"Temporal filtering completed: valid={}, invalid={}",
+				validCount,
+				invalidCount
+		);
+		return new TransactionFilterResult(
+				transactions,
+				batch,
+				validIndices,
+				validCount,
+				invalidIndices,
+				invalidMessages,
+				invalidCount,
+				totalTransactionAmount.value(),
+				totalCeiling.value()
+		);
+	}
+
+	private static LocalDateTime dateOf(List<ExpenseInput> transactions, TransactionBatch batch, int row) {
+		return transactions != null
+				? transactions.get(row).getDate()
+				: LocalDateTime.ofEpochSecond(batch.epochSeconds()[row], 0, ZoneOffset.UTC);
+	}
+
+	private TransactionFilterResponse toResponse(TransactionFilterResult result) {
+		List<ExpenseInput> transactions = result.transactions();
+		TransactionBatch batch = result.batch();
+		List<TransactionOutput> valid = new ArrayList<>(result.validCount());
+		for (int v = 0; v < result.validCount(); v++) {
+			int i = result.validIndices()[v];
+			ExpenseInput transaction = transactions.get(i);
 			// Reuse TransactionOutput for all APIs and fill inKPeriod only for this endpoint.
 			valid.add(new TransactionOutput(
 					transaction.getDate(),
 					transaction.getAmount(),
-					transaction.getCeiling(),
-					transaction.getRemanent(),
-					inKPeriodByIndex[i]
+					batch.ceiling()[i],
+					batch.remanent()[i],
+					batch.inK()[i]
 			));
 		}
-
-		LOG.debug(
-				"Temporal filtering completed: valid={}, invalid={}",
-				valid.size(),
-				invalid.size()
-		);
+		List<InvalidTransactionOutput> invalid = new ArrayList<>(result.invalidCount());
+		for (int v = 0; v < result.invalidCount(); v++) {
+			ExpenseInput transaction = transactions.get(result.invalidIndices()[v]);
+			invalid.add(transactionRulesService.toInvalidTransaction(transaction, result.invalidMessages()[v]));
+		}
 		return new TransactionFilterResponse(valid, invalid);
 	}
 
-	private double[] computeApplicableQFixed(List<ExpenseInput> transactions, List<QPeriodInput> periods) {
-		double[] qFixedByIndex = new double[transactions.size()];
-		// NaN means "no q-period match" for that transaction index.
-		for (int i = 0; i < qFixedByIndex.length; i++) {
-			qFixedByIndex[i] = Double.NaN;
-		}
-		if (transactions.isEmpty() || periods.isEmpty()) {
-			return qFixedByIndex;
+	private TransactionBatch buildBatchInParallel(List<ExpenseInput> transactions) {
+		TransactionBatch batch = new TransactionBatch(transactions.size());
+		int chunkCount = chunkCount(transactions.size());
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(chunkCount);
+		for (int c = 0; c < chunkCount; c++) {
+			int from = chunkBoundary(transactions.size(), chunkCount, c);
+			int to = chunkBoundary(transactions.size(), chunkCount, c + 1);
+			tasks.add(pool.submit(() -> transactionBuilder.fillBatch(transactions, batch, from, to)));
 		}
+		tasks.forEach(ForkJoinTask::join);
+		return batch;
+	}
 
-		List<IndexedQPeriod> qPeriods = new ArrayList<>(periods.size());
-		for (int i = 0; i < periods.size(); i++) {
-			QPeriodInput period = periods.get(i);
-			if (period.start().isAfter(period.end())) {
-				continue;
+	// Splits the time-sorted rows into chunks that never cut through a timestamp. Duplicates share
+	// their timestamp, so each duplicate group is deduplicated entirely inside one chunk.
+	private void sweepInParallel(
+			TransactionBatch batch,
+			int[] sortedIndices,
+			QPeriodIndex q,
+			PeriodSchedule p,
+			PeriodSchedule k,
+			boolean[] duplicate
+	) {
+		long[] epochSeconds = batch.epochSeconds();
+		int size = sortedIndices.length;
+		int chunkCount = chunkCount(size);
+		int[] chunkStarts = new int[chunkCount + 1];
+		int chunks = 0;
+		int from = 0;
+		for (int c = 1; c <= chunkCount && from < size; c++) {
+			int to = Math.max(from, chunkBoundary(size, chunkCount, c));
+			while (to > 0 && to < size && epochSeconds[sortedIndices[to]] == epochSeconds[sortedIndices[to - 1]]) {
+				to++;
+			}
+			if (to > from) {
+				chunkStarts[chunks++] = from;
 			}
-			qPeriods.add(new IndexedQPeriod(i, period.fixed(), period.start(), period.end()));
+			from = to;
 		}
-		if (qPeriods.isEmpty()) {
-			return qFixedByIndex;
+		chunkStarts[chunks] = size;
+		RunningExtra[] seeds = replayRunningExtra(epochSeconds, sortedIndices, chunkStarts, chunks, p);
+
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+		for (int c = 0; c < chunks; c++) {
+			int chunkFrom = chunkStarts[c];
+			int chunkTo = chunkStarts[c + 1];
+			RunningExtra seed = seeds[c];
+			tasks.add(pool.submit(() -> sweepRange(batch, sortedIndices, chunkFrom, chunkTo, q, p, k, seed, duplicate)));
 		}
+		tasks.forEach(ForkJoinTask::join);
+		LOG.debug("Parallel sweep used {} chunks for {} transactions", chunks, size);
+	}
 
-		// Sweep-line preparation: process period starts/ends in chronological order.
-		List<IndexedQPeriod> starts = new ArrayList<>(qPeriods);
-		starts.sort(Comparator
-				.comparing(IndexedQPeriod::start)
-				.thenComparing(IndexedQPeriod::order));
-
-		List<IndexedQPeriod> ends = new ArrayList<>(qPeriods);
-		ends.sort(Comparator
-				.comparing(IndexedQPeriod::end)
-				.thenComparing(IndexedQPeriod::order));
-
-		TreeSet<IndexedQPeriod> activeQPeriods = new TreeSet<>(Comparator
-				.comparing(IndexedQPeriod::start, Comparator.reverseOrder())
-				.thenComparing(IndexedQPeriod::order));
-
-		List<IndexedTransaction> indexedTransactions = toIndexedTransactions(transactions);
+	// The running p extra is a floating-point sum whose bits depend on the order of its additions and
+	// subtractions, so it cannot be recomputed from the pointers alone. Replays the sequential sweep's
+	// p events up to each chunk start instead, jumping between the transactions that trigger an event.
+	private RunningExtra[] replayRunningExtra(
+			long[] epochSeconds,
+			int[] sortedIndices,
+			int[] chunkStarts,
+			int chunks,
+			PeriodSchedule p
+	) {
+		RunningExtra[] seeds = new RunningExtra[chunks];
 		int startPointer = 0;
 		int endPointer = 0;
-
-		for (IndexedTransaction indexedTransaction : indexedTransactions) {
-			LocalDateTime date = indexedTransaction.date();
-			// start <= date means the range starts inclusively at start.
-			while (startPointer < starts.size() && !starts.get(startPointer).start().isAfter(date)) {
-				activeQPeriods.add(starts.get(startPointer));
-				startPointer++;
-			}
-			// end < date removes only already-expired ranges, so end is inclusive.
-			while (endPointer < ends.size() && ends.get(endPointer).end().isBefore(date)) {
-				activeQPeriods.remove(ends.get(endPointer));
-				endPointer++;
-			}
-			// Highest-priority q rule is latest start; tie breaks by input order.
-			if (!activeQPeriods.isEmpty()) {
-				qFixedByIndex[indexedTransaction.index()] = activeQPeriods.first().fixed();
+		double activeExtra = 0.0;
+		int position = 0;
+		for (int c = 0; c < chunks; c++) {
+			while (true) {
+				int nextStart = startPointer < p.count
+						? firstPositionAtOrAfter(epochSeconds, sortedIndices, position, p.startByStart[startPointer])
+						: sortedIndices.length;
+				int nextEnd = endPointer < p.count
+						? firstPositionAtOrAfter(epochSeconds, sortedIndices, position, p.endByEnd[endPointer] + 1)
+						: sortedIndices.length;
+				int trigger = Math.min(nextStart, nextEnd);
+				if (trigger >= chunkStarts[c]) {
+					break;
+				}
+				long date = epochSeconds[sortedIndices[trigger]];
+				while (startPointer < p.count && p.startByStart[startPointer] <= date) {
+					activeExtra += p.valueByStart[startPointer++];
+				}
+				while (endPointer < p.count && p.endByEnd[endPointer] < date) {
+					activeExtra -= p.valueByEnd[endPointer++];
+				}
+				position = trigger + 1;
 			}
+			seeds[c] = new RunningExtra(startPointer, endPointer, activeExtra);
 		}
-
-		return qFixedByIndex;
+		return seeds;
 	}
 
-	private double[] computeApplicablePExtra(List<ExpenseInput> transactions, List<PPeriodInput> periods) {
-		double[] pExtraByIndex = new double[transactions.size()];
-		if (transactions.isEmpty() || periods.isEmpty()) {
-			return pExtraByIndex;
-		}
-
-		List<IndexedPPeriod> pPeriods = new ArrayList<>(periods.size());
-		for (int i = 0; i < periods.size(); i++) {
-			PPeriodInput period = periods.get(i);
-			if (period.start().isAfter(period.end())) {
-				continue;
+	private static int firstPositionAtOrAfter(long[] epochSeconds, int[] sortedIndices, int from, long date) {
+		int low = from;
+		int high = sortedIndices.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (epochSeconds[sortedIndices[middle]] < date) {
+				low = middle + 1;
+			} else {
+				high = middle;
 			}
-			pPeriods.add(new IndexedPPeriod(i, period.extra(), period.start(), period.end()));
 		}
-		if (pPeriods.isEmpty()) {
-			return pExtraByIndex;
-		}
-
-		// Sweep-line over p periods while maintaining running extra amount.
-		List<IndexedPPeriod> starts = new ArrayList<>(pPeriods);
-		starts.sort(Comparator
-				.comparing(IndexedPPeriod::start)
-				.thenComparing(IndexedPPeriod::order));
-
-		List<IndexedPPeriod> ends = new ArrayList<>(pPeriods);
-		ends.sort(Comparator
-				.comparing(IndexedPPeriod::end)
-				.thenComparing(IndexedPPeriod::order));
-
-		List<IndexedTransaction> indexedTransactions = toIndexedTransactions(transactions);
-		int startPointer = 0;
-		int endPointer = 0;
-		double activeExtra = 0.0;
-
-		for (IndexedTransaction indexedTransaction : indexedTransactions) {
-			LocalDateTime date = indexedTransaction.date();
-			// Add all p-period extras that are active at this timestamp.
-			while (startPointer < starts.size() && !starts.get(startPointer).start().isAfter(date)) {
-				activeExtra += starts.get(startPointer).extra();
-				startPointer++;
-			}
-			// Remove extras for periods that ended before this timestamp.
-			while (endPointer < ends.size() && ends.get(endPointer).end().isBefore(date)) {
-				activeExtra -= ends.get(endPointer).extra();
-				endPointer++;
-			}
-			// All active p periods contribute cumulatively.
-			pExtraByIndex[indexedTransaction.index()] = activeExtra;
-		}
-
-		return pExtraByIndex;
+		return low;
 	}
 
-	private boolean[] computeKMembership(List<TransactionOutput> transactions, List<KPeriodInput> kPeriods) {
-		boolean[] inKPeriodByIndex = new boolean[transactions.size()];
-		if (transactions.isEmpty()) {
-			return inKPeriodByIndex;
-		}
+	private int chunkCount(int size) {
+		return Math.max(1, Math.min(pool.getParallelism() * CHUNKS_PER_THREAD, size / minChunkSize));
+	}
 
-		// Mark whether each transaction falls in at least one k period.
-		List<IndexedProcessedTransaction> sortedTransactions = toIndexedProcessedTransactions(transactions);
-		markKMembership(inKPeriodByIndex, sortedTransactions, kPeriods);
-		return inKPeriodByIndex;
+	private static int chunkBoundary(int size, int chunkCount, int chunk) {
+		return (int) ((long) size * chunk / chunkCount);
 	}
 
-	private void markKMembership(
-			boolean[] inKPeriodByIndex,
-			List<IndexedProcessedTransaction> sortedTransactions,
-			List<KPeriodInput> kPeriods
+	// Sweeps the rows sortedIndices[from, to) in time order, advancing the q segment cursor and the
+	// p and k start/end pointers together, writing the adjusted remanent and k membership of every
+	// row and flagging repeated (date, amount) pairs. Starts are inclusive (start <= date) and ends
+	// are inclusive (a period only expires once end < date). The q and k state at the first row is
+	// found by binary search and the p state is passed in, so ranges can be swept independently
+	// and the result does not depend on how the rows were partitioned.
+	private void sweepRange(
+			TransactionBatch batch,
+			int[] sortedIndices,
+			int from,
+			int to,
+			QPeriodIndex q,
+			PeriodSchedule p,
+			PeriodSchedule k,
+			RunningExtra pSeed,
+			boolean[] duplicate
 	) {
-		if (kPeriods.isEmpty()) {
+		if (from >= to) {
 			return;
 		}
-
-		List<IndexedKPeriod> starts = new ArrayList<>(kPeriods.size());
-		List<IndexedKPeriod> ends = new ArrayList<>(kPeriods.size());
-		for (int i = 0; i < kPeriods.size(); i++) {
-			KPeriodInput period = kPeriods.get(i);
-			if (period.start().isAfter(period.end())) {
-				continue;
+		long[] epochSeconds = batch.epochSeconds();
+		double[] amount = batch.amount();
+		double[] remanent = batch.remanent();
+		boolean[] inK = batch.inK();
+		long firstDate = epochSeconds[sortedIndices[from]];
+		int qSegment = q.segmentAt(firstDate);
+		int pStartPointer = pSeed.startPointer();
+		int pEndPointer = pSeed.endPointer();
+		double activeExtra = pSeed.value();
+		int kStartPointer = k.countStartedBy(firstDate);
+		int kEndPointer = k.countEndedBefore(firstDate);
+		// Duplicates share a timestamp, and rows with equal timestamps are adjacent and in input
+		// order, so each run of equal timestamps is deduplicated on its own and the first occurrence
+		// wins. The set only covers the current run, so its size follows the longest run rather than
+		// the range, and a lone row needs none.
+		FingerprintSet seen = null;
+		int runEnd = from;
+
+		for (int s = from; s < to; s++) {
+			int index = sortedIndices[s];
+			long date = epochSeconds[index];
+			qSegment = q.advance(qSegment, date);
+			// Add all p-period extras that are active at this timestamp, then drop the expired ones.
+			while (pStartPointer < p.count && p.startByStart[pStartPointer] <= date) {
+				activeExtra += p.valueByStart[pStartPointer++];
 			}
-			IndexedKPeriod indexedPeriod = new IndexedKPeriod(i, period.start(), period.end());
-			starts.add(indexedPeriod);
-			ends.add(indexedPeriod);
-		}
-		if (starts.isEmpty()) {
-			return;
-		}
-
-		starts.sort(Comparator
-				.comparing(IndexedKPeriod::start)
-				.thenComparing(IndexedKPeriod::order));
-		ends.sort(Comparator
-				.comparing(IndexedKPeriod::end)
-				.thenComparing(IndexedKPeriod::order));
-
-		int activeCount = 0;
-		int startPointer = 0;
-		int endPointer = 0;
-
-		for (IndexedProcessedTransaction transaction : sortedTransactions) {
-			LocalDateTime date = transaction.date();
-			while (startPointer < starts.size() && !starts.get(startPointer).start().isAfter(date)) {
-				activeCount++;
-				startPointer++;
+			while (pEndPointer < p.count && p.endByEnd[pEndPointer] < date) {
+				activeExtra -= p.valueByEnd[pEndPointer++];
+			}
+			while (kStartPointer < k.count && k.startByStart[kStartPointer] <= date) {
+				kStartPointer++;
 			}
-			while (endPointer < ends.size() && ends.get(endPointer).end().isBefore(date)) {
-				activeCount--;
-				endPointer++;
+			while (kEndPointer < k.count && k.endByEnd[kEndPointer] < date) {
+				kEndPointer++;
 			}
+
+			// q replaces remanent, while p always adds on top of the current remanent.
+			if (q.applies(qSegment)) {
+				remanent[index] = q.fixed(qSegment);
+			}
+			remanent[index] += activeExtra;
 			// Any active k range marks this transaction as inKPeriod.
-			inKPeriodByIndex[transaction.index()] = activeCount > 0;
+			inK[index] = kStartPointer > kEndPointer;
+			if (s == runEnd) {
+				runEnd = s + 1;
+				while (runEnd < to && epochSeconds[sortedIndices[runEnd]] == date) {
+					runEnd++;
+				}
+				seen = runEnd - s > 1 ? transactionRulesService.newExpenseFingerprintSet(runEnd - s) : null;
+			}
+			duplicate[index] = seen != null && !transactionRulesService.markFirstOccurrence(seen, date, amount[index]);
 		}
 	}
 
-	private List<IndexedTransaction> toIndexedTransactions(List<ExpenseInput> transactions) {
-		List<IndexedTransaction> indexedTransactions = new ArrayList<>(transactions.size());
-		for (int i = 0; i < transactions.size(); i++) {
-			indexedTransactions.add(new IndexedTransaction(i, transactions.get(i).getDate()));
-		}
-		indexedTransactions.sort(Comparator
-				.comparing(IndexedTransaction::date)
-				.thenComparing(IndexedTransaction::index));
-		return indexedTransactions;
-	}
+	// Position of the p sweep (start/end pointers and running extra) just before a range's first row.
+	private record RunningExtra(int startPointer, int endPointer, double value) {
 
-	private List<IndexedProcessedTransaction> toIndexedProcessedTransactions(List<TransactionOutput> transactions) {
-		List<IndexedProcessedTransaction> indexedTransactions = new ArrayList<>(transactions.size());
-		for (int i = 0; i < transactions.size(); i++) {
-			TransactionOutput transaction = transactions.get(i);
-			indexedTransactions.add(new IndexedProcessedTransaction(i, transaction.getDate(), transaction.getRemanent()));
-		}
-		indexedTransactions.sort(Comparator
-				.comparing(IndexedProcessedTransaction::date)
-				.thenComparing(IndexedProcessedTransaction::index));
-		return indexedTransactions;
+		private static final RunningExtra NONE = new RunningExtra(0, 0, 0.0);
 	}
-
-	private record IndexedTransaction(int index, LocalDateTime date) {}
-
-	private record IndexedProcessedTransaction(int index, LocalDateTime date, double remanent) {}
-
-	private record IndexedQPeriod(int order, double fixed, LocalDateTime start, LocalDateTime end) {}
-
-	private record IndexedPPeriod(int order, double extra, LocalDateTime start, LocalDateTime end) {}
-
-	private record IndexedKPeriod(int order, LocalDateTime start, LocalDateTime end) {}
 }
@@ -2,23 +2,118 @@ package com.example.retirementsavings.service;
 
 import com.example.retirementsavings.api.dto.ExpenseInput;
 import com.example.retirementsavings.api.dto.InvalidTransactionOutput;
+import com.example.retirementsavings.api.dto.KPeriodInput;
+import com.example.retirementsavings.api.dto.PPeriodInput;
+import com.example.retirementsavings.api.dto.QPeriodInput;
 import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
+
 @Service
 public class TransactionRulesService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(TransactionRulesService.class);
 	private static final double EPSILON = 1e-6;
+	private static final int EXPENSE_FINGERPRINT_WIDTH = 2;
+	private static final int TRANSACTION_FINGERPRINT_WIDTH = 4;
+	private static final Pattern RULE_SET_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+	// Registered q/p/k calendars, compiled once and shared by every request that names them.
+	private final Cache<String, RuleSet> ruleSets;
+
+	public TransactionRulesService() {
+		this(1_000, Duration.ofHours(24));
+	}
+
+	@Autowired
+	public TransactionRulesService(
+			@Value("${retirement.rule-sets.max-entries:1000}") long maxRuleSets,
+			@Value("${retirement.rule-sets.ttl:24h}") Duration ttl
+	) {
+		this.ruleSets = Caffeine.newBuilder()
+				.maximumSize(maxRuleSets)
+				.expireAfterAccess(ttl)
+				.build();
+	}
+
+	// Registering an existing id replaces its periods; requests already running keep the old set.
+	public RuleSet registerRuleSet(String ruleSetId, List<QPeriodInput> q, List<PPeriodInput> p, List<KPeriodInput> k) {
+		if (ruleSetId == null || !RULE_SET_ID.matcher(ruleSetId).matches()) {
+			throw new InvalidRequestException("Rule set id must be 1-64 letters, digits, '.', '_' or '-'");
+		}
+		RuleSet ruleSet = RuleSet.registered(ruleSetId, q, p, k);
+		ruleSets.put(ruleSetId, ruleSet);
+		LOG.debug("Rule set registered: id={}, q={}, p={}, k={}", ruleSetId, q.size(), p.size(), k.size());
+		return ruleSet;
+	}
+
+	public void deleteRuleSet(String ruleSetId) {
+		if (ruleSets.getIfPresent(ruleSetId) == null) {
+			throw new UnknownRuleSetException(ruleSetId);
+		}
+		ruleSets.invalidate(ruleSetId);
+	}
+
+	// A request either names a registered rule set or carries all three period lists inline.
+	public RuleSet resolveRuleSet(String ruleSetId, List<QPeriodInput> q, List<PPeriodInput> p, List<KPeriodInput> k) {
+		RuleSet registered = registeredRuleSet(ruleSetId, q, p, k);
+		return registered != null ? registered : RuleSet.inline(q, p, k);
+	}
 
-	public String createFingerprint(ExpenseInput expense) {
-		return expense.getDate() + "|" + expense.getAmount();
+	// Same checks as resolveRuleSet, but inline periods are not compiled: returns null for them, so
+	// callers that may not need the compiled set (cache hits) can defer that work.
+	public RuleSet registeredRuleSet(String ruleSetId, List<QPeriodInput> q, List<PPeriodInput> p, List<KPeriodInput> k) {
+		if (ruleSetId == null) {
+			if (q == null || p == null || k == null) {
+				throw new InvalidRequestException("q, p and k are required unless a ruleSetId is given");
+			}
+			return null;
+		}
+		if (!isEmpty(q) || !isEmpty(p) || !isEmpty(k)) {
+			throw new InvalidRequestException("Send either a ruleSetId or q, p and k periods, not both");
+		}
+		RuleSet ruleSet = ruleSets.getIfPresent(ruleSetId);
+		if (ruleSet == null) {
+			throw new UnknownRuleSetException(ruleSetId);
+		}
+		return ruleSet;
 	}
 
-	public String createFingerprint(TransactionOutput transaction) {
-		return transaction.getDate() + "|" + transaction.getAmount() + "|" + transaction.getCeiling() + "|" + transaction.getRemanent();
+	private static boolean isEmpty(List<?> periods) {
+		return periods == null || periods.isEmpty();
+	}
+
+	// Expense fingerprint: (epoch second, amount bits). doubleToLongBits distinguishes exactly the
+	// values Double.toString does (0.0 vs -0.0, one canonical NaN), and API dates carry no sub-second part.
+	public FingerprintSet newExpenseFingerprintSet(int expectedSize) {
+		return new FingerprintSet(EXPENSE_FINGERPRINT_WIDTH, expectedSize);
+	}
+
+	public boolean markFirstOccurrence(FingerprintSet seen, long epochSecond, double amount) {
+		return seen.add(epochSecond, Double.doubleToLongBits(amount));
+	}
+
+	// Transaction fingerprint additionally covers ceiling and remanent.
+	public FingerprintSet newTransactionFingerprintSet(int expectedSize) {
+		return new FingerprintSet(TRANSACTION_FINGERPRINT_WIDTH, expectedSize);
+	}
+
+	public boolean markFirstOccurrence(FingerprintSet seen, TransactionOutput transaction) {
+		return seen.add(
+				TransactionBatch.toEpochSecond(transaction.getDate()),
+				Double.doubleToLongBits(transaction.getAmount()),
+				Double.doubleToLongBits(transaction.getCeiling()),
+				Double.doubleToLongBits(transaction.getRemanent())
+		);
 	}
 
 	public String validateNonNegativeAmount(double amount) {
@@ -0,0 +1,117 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.InvalidTransactionOutput;
+import com.example.retirementsavings.api.dto.KPeriodInput;
+import com.example.retirementsavings.api.dto.SessionCreateRequest;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// Incremental state of one session: the filter and k aggregation of everything appended so far.
+// A transaction's remanent only depends on its own date and the registered q/p periods, so each
+// append is a dedup probe, one rule lookup and one Fenwick update, never a re-sort or re-sweep,
+// and only the k windows containing appended transactions need pricing again.
+// Appends are serialized per session; different sessions never share state.
+final class TransactionSession {
+
+	private final String id;
+	private final int age;
+	private final double wage;
+	private final double inflation;
+	private final List<KPeriodInput> k;
+	private final RemanentRules rules;
+	private final KWindowSums windowSums;
+	private final TransactionRulesService transactionRulesService;
+	private final FingerprintSet seen;
+	private final CompensatedSum totalTransactionAmount = new CompensatedSum();
+	private final CompensatedSum totalCeiling = new CompensatedSum();
+	private long accepted;
+
+	TransactionSession(String id, SessionCreateRequest request, TransactionRulesService transactionRulesService) {
+		this.id = id;
+		this.age = request.age();
+		this.wage = request.wage();
+		this.inflation = request.inflation();
+		this.k = List.copyOf(request.k());
+		this.rules = RemanentRules.of(PeriodSchedule.ofQ(request.q()), PeriodSchedule.ofP(request.p()));
+		long[] starts = new long[k.size()];
+		long[] ends = new long[k.size()];
+		for (int i = 0; i < k.size(); i++) {
+			starts[i] = TransactionBatch.toEpochSecond(k.get(i).start());
+			ends[i] = TransactionBatch.toEpochSecond(k.get(i).end());
+		}
+		this.windowSums = new KWindowSums(starts, ends);
+		this.transactionRulesService = transactionRulesService;
+		this.seen = transactionRulesService.newExpenseFingerprintSet(0);
+	}
+
+	String id() {
+		return id;
+	}
+
+	int age() {
+		return age;
+	}
+
+	double wage() {
+		return wage;
+	}
+
+	double inflation() {
+		return inflation;
+	}
+
+	long accepted() {
+		return accepted;
+	}
+
+	// Same outcome as re-filtering the whole history: the first (date, amount) occurrence wins,
+	// negatives are rejected, and only positive adjusted remanents count towards k savings. Sets the
+	// input index of every k window whose sum changed in touched.
+	List<InvalidTransactionOutput> append(TransactionBuilder transactionBuilder, List<ExpenseInput> transactions, BitSet touched) {
+		List<InvalidTransactionOutput> invalid = new ArrayList<>();
+		for (ExpenseInput transaction : transactions) {
+			long date = TransactionBatch.toEpochSecond(transaction.getDate());
+			double amount = transaction.getAmount();
+			if (!transactionRulesService.markFirstOccurrence(seen, date, amount)) {
+				invalid.add(transactionRulesService.toInvalidTransaction(transaction, "Duplicate transaction"));
+				continue;
+			}
+			String errorMessage = transactionRulesService.validateNonNegativeAmount(amount);
+			if (errorMessage != null) {
+				invalid.add(transactionRulesService.toInvalidTransaction(transaction, errorMessage));
+				continue;
+			}
+			double ceiling = transactionBuilder.ceilingOf(amount);
+			accepted++;
+			totalTransactionAmount.add(amount);
+			totalCeiling.add(ceiling);
+			double remanent = rules.apply(date, ceiling - amount);
+			if (remanent > 0) {
+				windowSums.add(date, remanent, touched);
+			}
+		}
+		return invalid;
+	}
+
+	ReturnsCalculationService.PeriodSavings savings() {
+		double[] amounts = new double[k.size()];
+		for (int i = 0; i < amounts.length; i++) {
+			amounts[i] = windowSums.sum(i);
+		}
+		return new ReturnsCalculationService.PeriodSavings(totalTransactionAmount.value(), totalCeiling.value(), k, amounts);
+	}
+
+	// Totals plus only the given k windows, in input order.
+	ReturnsCalculationService.PeriodSavings savings(BitSet windows) {
+		List<KPeriodInput> periods = new ArrayList<>(windows.cardinality());
+		double[] amounts = new double[windows.cardinality()];
+		for (int i = windows.nextSetBit(0); i >= 0; i = windows.nextSetBit(i + 1)) {
+			amounts[periods.size()] = windowSums.sum(i);
+			periods.add(k.get(i));
+		}
+		return new ReturnsCalculationService.PeriodSavings(totalTransactionAmount.value(), totalCeiling.value(), periods, amounts);
+	}
+}
@@ -0,0 +1,110 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.InvalidTransactionOutput;
+import com.example.retirementsavings.api.dto.SessionCreateRequest;
+import com.example.retirementsavings.api.dto.SessionReturnsResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+// Stateful alternative to re-posting the full history to returns:*: periods, wage and age are
+// registered once and transactions are appended in batches. An append answers with the updated
+// totals and only the k windows it changed; get returns every window. Sessions live in memory only
+// and expire after retirement.session.ttl without activity.
+@Service
+public class TransactionSessionService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(TransactionSessionService.class);
+
+	private final TransactionBuilder transactionBuilder;
+	private final TransactionRulesService transactionRulesService;
+	private final ReturnsCalculationService returnsCalculationService;
+	private final Cache<String, TransactionSession> sessions;
+
+	public TransactionSessionService(
+			TransactionBuilder transactionBuilder,
+			TransactionRulesService transactionRulesService,
+			ReturnsCalculationService returnsCalculationService,
+			@Value("${retirement.session.ttl:30m}") Duration ttl,
+			@Value("${retirement.session.max-sessions:10000}") long maxSessions
+	) {
+		this.transactionBuilder = transactionBuilder;
+		this.transactionRulesService = transactionRulesService;
+		this.returnsCalculationService = returnsCalculationService;
+		this.sessions = Caffeine.newBuilder()
+				.expireAfterAccess(ttl)
+				.maximumSize(maxSessions)
+				.build();
+	}
+
+	public SessionReturnsResponse create(SessionCreateRequest request) {
+		TransactionSession session = new TransactionSession(UUID.randomUUID().toString(), request, transactionRulesService);
+		sessions.put(session.id(), session);
+		LOG.debug(
+				"Session created: id={}, q={}, p={}, k={}",
+				session.id(),
+				request.q().size(),
+				request.p().size(),
+				request.k().size()
+		);
+		return toResponse(session, List.of(), session.savings());
+	}
+
+	public SessionReturnsResponse append(String sessionId, List<ExpenseInput> transactions) {
+		TransactionSession session = find(sessionId);
+		synchronized (session) {
+			BitSet touched = new BitSet();
+			List<InvalidTransactionOutput> invalid = session.append(transactionBuilder, transactions, touched);
+			LOG.debug(
+					"Session {} appended {} transactions: invalid={}, accepted total={}",
+					sessionId,
+					transactions.size(),
+					invalid.size(),
+					session.accepted()
+			);
+			return toResponse(session, invalid, session.savings(touched));
+		}
+	}
+
+	public SessionReturnsResponse get(String sessionId) {
+		TransactionSession session = find(sessionId);
+		synchronized (session) {
+			return toResponse(session, List.of(), session.savings());
+		}
+	}
+
+	public void delete(String sessionId) {
+		sessions.invalidate(find(sessionId).id());
+	}
+
+	private TransactionSession find(String sessionId) {
+		TransactionSession session = sessions.getIfPresent(sessionId);
+		if (session == null) {
+			throw new UnknownSessionException(sessionId);
+		}
+		return session;
+	}
+
+	private SessionReturnsResponse toResponse(
+			TransactionSession session,
+			List<InvalidTransactionOutput> invalid,
+			ReturnsCalculationService.PeriodSavings savings
+	) {
+		return new SessionReturnsResponse(
+				session.id(),
+				session.accepted(),
+				invalid,
+				returnsCalculationService.priceNps(savings, session.age(), session.wage(), session.inflation()),
+				returnsCalculationService.priceIndex(savings, session.age(), session.wage(), session.inflation())
+		);
+	}
+}
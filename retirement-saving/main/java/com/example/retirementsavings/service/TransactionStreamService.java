@@ -0,0 +1,130 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.example.retirementsavings.api.dto.ValidatedTransactionOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// NDJSON variants of transactions:parse and transactions:validator. Records are read and written
+// one at a time, so memory use does not depend on the payload size.
+@Service
+public class TransactionStreamService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(TransactionStreamService.class);
+	private static final String RECORD_SEPARATOR = "\n";
+
+	private final TransactionBuilder transactionBuilder;
+	private final TransactionValidator transactionValidator;
+	private final ObjectReader expenseReader;
+	private final ObjectReader transactionReader;
+	private final ObjectWriter transactionWriter;
+	private final ObjectWriter validatedTransactionWriter;
+
+	public TransactionStreamService(
+			TransactionBuilder transactionBuilder,
+			TransactionValidator transactionValidator,
+			JsonMapper jsonMapper
+	) {
+		this.transactionBuilder = transactionBuilder;
+		this.transactionValidator = transactionValidator;
+		this.expenseReader = jsonMapper.readerFor(ExpenseInput.class);
+		this.transactionReader = jsonMapper.readerFor(TransactionOutput.class);
+		this.transactionWriter = jsonMapper.writerFor(TransactionOutput.class)
+				.withRootValueSeparator(RECORD_SEPARATOR);
+		this.validatedTransactionWriter = jsonMapper.writerFor(ValidatedTransactionOutput.class)
+				.withRootValueSeparator(RECORD_SEPARATOR);
+	}
+
+	// Returns the number of transactions written. A malformed record fails the whole stream
+	// with an InvalidRequestException; transactions before it may already have been written.
+	public long parse(InputStream expenses, OutputStream transactions) throws IOException {
+		long count = 0;
+		try (
+				MappingIterator<ExpenseInput> iterator = expenseReader.readValues(expenses);
+				SequenceWriter writer = transactionWriter.writeValues(transactions)
+		) {
+			while (hasNextRecord(iterator, count + 1)) {
+				ExpenseInput expense = nextRecord(iterator, ++count);
+				if (expense == null || expense.getDate() == null || expense.getAmount() == null) {
+					throw new InvalidRequestException("Expense record #" + count + " must have a date and an amount");
+				}
+				writer.write(transactionBuilder.calculateCeilingAndRemanent(expense.getDate(), expense.getAmount()));
+			}
+		}
+		LOG.debug("Streamed ceiling/remanent for {} expenses", count);
+		return count;
+	}
+
+	// Emits each transaction tagged valid/invalid in input order. Only the validator's dedup
+	// state grows with the stream; malformed records fail it as in parse.
+	public ValidationCounts validate(double wage, InputStream transactions, OutputStream results) throws IOException {
+		if (!(wage > 0)) {
+			throw new InvalidRequestException("Wage must be positive");
+		}
+		TransactionValidator.Session session = transactionValidator.startSession(wage, 0);
+		long valid = 0;
+		long invalid = 0;
+		try (
+				MappingIterator<TransactionOutput> iterator = transactionReader.readValues(transactions);
+				SequenceWriter writer = validatedTransactionWriter.writeValues(results)
+		) {
+			while (hasNextRecord(iterator, valid + invalid + 1)) {
+				long recordNumber = valid + invalid + 1;
+				TransactionOutput transaction = nextRecord(iterator, recordNumber);
+				if (transaction == null
+						|| transaction.getDate() == null
+						|| transaction.getAmount() == null
+						|| transaction.getCeiling() == null
+						|| transaction.getRemanent() == null) {
+					throw new InvalidRequestException(
+							"Transaction record #" + recordNumber + " must have a date, amount, ceiling and remanent"
+					);
+				}
+				String errorMessage = session.validate(transaction);
+				if (errorMessage != null) {
+					writer.write(ValidatedTransactionOutput.invalid(transaction, errorMessage));
+					invalid++;
+				} else {
+					writer.write(ValidatedTransactionOutput.valid(transaction));
+					valid++;
+				}
+			}
+		}
+		LOG.debug("Streamed validation completed: valid={}, invalid={}", valid, invalid);
+		return new ValidationCounts(valid, invalid);
+	}
+
+	private <T> boolean hasNextRecord(MappingIterator<T> iterator, long recordNumber) throws IOException {
+		try {
+			return iterator.hasNextValue();
+		} catch (JacksonException e) {
+			throw malformedRecord(recordNumber, e);
+		}
+	}
+
+	private <T> T nextRecord(MappingIterator<T> iterator, long recordNumber) throws IOException {
+		try {
+			return iterator.nextValue();
+		} catch (JacksonException e) {
+			throw malformedRecord(recordNumber, e);
+		}
+	}
+
+	private InvalidRequestException malformedRecord(long recordNumber, JacksonException e) {
+		return new InvalidRequestException("Malformed record #" + recordNumber + ": " + e.getOriginalMessage(), e);
+	}
+
+	public record ValidationCounts(long valid, long invalid) {}
+}
@@ -9,9 +9,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 @Service
 public class TransactionValidator {
@@ -26,30 +24,63 @@ public class TransactionValidator {
 	}
 
 	public TransactionValidationResponse validate(TransactionValidationRequest request) {
-		double maxInvestableAmount = request.wage() * MAX_INVESTABLE_WAGE_RATIO;
-		double currentInvested = 0.0;
+		Session session = startSession(request.wage(), request.transactions().size());
 		LOG.debug(
 				"Starting transaction validation for {} transactions with maxInvestableAmount={}",
 				request.transactions().size(),
-				maxInvestableAmount
+				session.maxInvestableAmount
 		);
 
 		List<TransactionOutput> valid = new ArrayList<>();
 		List<InvalidTransactionOutput> invalid = new ArrayList<>();
-		Set<String> seenTransactions = new HashSet<>();
-
 		for (TransactionOutput transaction : request.transactions()) {
-			String fingerprint = transactionRulesService.createFingerprint(transaction);
-			if (!seenTransactions.add(fingerprint)) {
+			String errorMessage = session.validate(transaction);
+			if (errorMessage != null) {
+				invalid.add(transactionRulesService.toInvalidTransaction(transaction, errorMessage));
+			} else {
+				valid.add(transaction);
+			}
+		}
+
+		LOG.debug("Validation completed: valid={}, invalid={}", valid.size(), invalid.size());
+		return new TransactionValidationResponse(valid, invalid);
+	}
+
+	// Validation state for transactions that arrive one at a time; expectedSize only presizes the dedup set.
+	public Session startSession(double wage, int expectedSize) {
+		return new Session(wage * MAX_INVESTABLE_WAGE_RATIO, transactionRulesService.newTransactionFingerprintSet(expectedSize));
+	}
+
+	private String validateInvestmentLimit(double currentInvested, double maxInvestableAmount, TransactionOutput transaction) {
+		if (currentInvested + transaction.getRemanent() > maxInvestableAmount + EPSILON) {
+			return "Transaction exceeds maximum investable amount based on wage";
+		}
+		return null;
+	}
+
+	// Holds the dedup fingerprints and the running invested amount, so memory is bounded by the
+	// number of distinct transactions rather than by the transactions themselves.
+	public final class Session {
+
+		private final double maxInvestableAmount;
+		private final FingerprintSet seenTransactions;
+		private double currentInvested;
+
+		private Session(double maxInvestableAmount, FingerprintSet seenTransactions) {
+			this.maxInvestableAmount = maxInvestableAmount;
+			this.seenTransactions = seenTransactions;
+		}
+
+		// Returns null when the transaction is accepted, otherwise the reason it was rejected.
+		public String validate(TransactionOutput transaction) {
+			if (!transactionRulesService.markFirstOccurrence(seenTransactions, transaction)) {
 				LOG.debug("Duplicate transaction detected at {}", transaction.getDate());
-				invalid.add(transactionRulesService.toInvalidTransaction(transaction, "Duplicate transaction"));
-				continue;
+				return "Duplicate transaction";
 			}
 
 			String errorMessage = transactionRulesService.validateTransactionConsistency(transaction);
 			if (errorMessage != null) {
-				invalid.add(transactionRulesService.toInvalidTransaction(transaction, errorMessage));
-				continue;
+				return errorMessage;
 			}
 
 			errorMessage = validateInvestmentLimit(currentInvested, maxInvestableAmount, transaction);
@@ -59,22 +90,11 @@ public class TransactionValidator {
 						transaction.getDate(),
 						transaction.getRemanent()
 				);
-				invalid.add(transactionRulesService.toInvalidTransaction(transaction, errorMessage));
-				continue;
+				return errorMessage;
 			}
 
-			valid.add(transaction);
 			currentInvested += transaction.getRemanent();
+			return null;
 		}
-
-		LOG.debug("Validation completed: valid={}, invalid={}", valid.size(), invalid.size());
-		return new TransactionValidationResponse(valid, invalid);
-	}
-
-	private String validateInvestmentLimit(double currentInvested, double maxInvestableAmount, TransactionOutput transaction) {
-		if (currentInvested + transaction.getRemanent() > maxInvestableAmount + EPSILON) {
-			return "Transaction exceeds maximum investable amount based on wage";
-		}
-		return null;
 	}
 }
@@ -0,0 +1,8 @@
+package com.example.retirementsavings.service;
+
+public class UnknownRuleSetException extends RuntimeException {
+
+	public UnknownRuleSetException(String ruleSetId) {
+		super("Unknown or expired rule set: " + ruleSetId);
+	}
+}
@@ -0,0 +1,8 @@
+package com.example.retirementsavings.service;
+
+public class UnknownSessionException extends RuntimeException {
+
+	public UnknownSessionException(String sessionId) {
+		super("Unknown or expired session: " + sessionId);
+	}
+}
@@ -0,0 +1,172 @@
+package com.example.retirementsavings.api;
+
+import com.example.retirementsavings.config.ValidationConfig;
+import com.example.retirementsavings.service.ComputeExecutor;
+import com.example.retirementsavings.service.InvalidRequestException;
+import com.example.retirementsavings.service.TransactionBuilder;
+import com.example.retirementsavings.service.TransactionFilterService;
+import com.example.retirementsavings.service.TransactionRulesService;
+import com.example.retirementsavings.service.TransactionStreamService;
+import com.example.retirementsavings.service.TransactionValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Invalid bodies must fail the same way with retirement.validation.fast on and off.
+class FastRequestValidatorTest {
+
+	private static final String INVALID_FILTER = """
+			{"q":[{"fixed":-1,"start":"2023-01-01 00:00:00","end":"2023-02-01 00:00:00"}],"p":[],"k":[],
+			 "wage":0,"transactions":[{"date":"2023-01-05 10:00:00","amount":250},{"date":null,"amount":null}]}
+			""";
+	private static final String MISSING_PERIODS = """
+			{"q":[],"wage":1000,"transactions":[]}
+			""";
+	private static final String PERIODS_WITH_RULE_SET = """
+			{"q":[],"p":[],"k":[{"start":"2023-01-01 00:00:00","end":"2023-02-01 00:00:00"}],"ruleSetId":"weekly",
+			 "wage":1000,"transactions":[]}
+			""";
+	private static final String INVALID_PARSE = """
+			[{"date":"2023-01-05 10:00:00","amount":250},{"date":"2023-01-06 10:00:00"}]
+			""";
+
+	private final LocalValidatorFactoryBean beanValidator = new LocalValidatorFactoryBean();
+
+	@BeforeEach
+	void startValidator() {
+		beanValidator.afterPropertiesSet();
+	}
+
+	@AfterEach
+	void closeValidator() {
+		beanValidator.close();
+	}
+
+	@Test
+	void invalidFilterBodyFailsTheSameWayOnBothPaths() throws Exception {
+		String fast = outcome(mockMvc(true), "/blackrock/challenge/v1/transactions:filter", INVALID_FILTER);
+		String reflective = outcome(mockMvc(false), "/blackrock/challenge/v1/transactions:filter", INVALID_FILTER);
+
+		assertEquals(reflective, fast);
+		assertEquals(MethodArgumentNotValidException.class.getName(), fast.lines().findFirst().orElseThrow());
+	}
+
+	// Periods or a rule set is a validation error on the field, not a failure inside the service.
+	@Test
+	void periodsOrRuleSetFailsAsAFieldErrorOnBothPaths() throws Exception {
+		for (String body : new String[] {MISSING_PERIODS, PERIODS_WITH_RULE_SET}) {
+			String fast = outcome(mockMvc(true), "/blackrock/challenge/v1/transactions:filter", body);
+			String reflective = outcome(mockMvc(false), "/blackrock/challenge/v1/transactions:filter", body);
+
+			assertEquals(reflective, fast);
+			assertEquals(MethodArgumentNotValidException.class.getName(), fast.lines().findFirst().orElseThrow());
+			assertTrue(fast.contains(" PeriodsOrRuleSet "), fast);
+		}
+	}
+
+	@Test
+	void invalidParseListFailsTheSameWayOnBothPaths() throws Exception {
+		String fast = outcome(mockMvc(true), "/blackrock/challenge/v1/transactions:parse", INVALID_PARSE);
+		String reflective = outcome(mockMvc(false), "/blackrock/challenge/v1/transactions:parse", INVALID_PARSE);
+
+		assertEquals(reflective, fast);
+		assertEquals(InvalidRequestException.class.getName(), fast.lines().findFirst().orElseThrow());
+		assertTrue(fast.contains("[1].amount must not be null"), fast);
+	}
+
+	// Bare expense lists are checked by RequestConstraints in the handler; method validation would
+	// hand every element to Hibernate Validator reflectively.
+	@Test
+	void parseBodiesNeverReachBeanValidation() throws Exception {
+		List<String> calls = new ArrayList<>();
+		jakarta.validation.Validator recording = (jakarta.validation.Validator) Proxy.newProxyInstance(
+				getClass().getClassLoader(),
+				new Class<?>[] {jakarta.validation.Validator.class},
+				(proxy, method, arguments) -> {
+					calls.add(method.getName());
+					try {
+						return method.invoke(beanValidator, arguments);
+					} catch (InvocationTargetException ex) {
+						throw ex.getCause();
+					}
+				}
+		);
+		MockMvc mockMvc = mockMvc(recording, true);
+
+		MvcResult valid = mockMvc.perform(post("/blackrock/challenge/v1/transactions:parse")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"date\":\"2023-01-05 10:00:00\",\"amount\":250}]")).andReturn();
+		assertEquals(200, valid.getResponse().getStatus());
+		assertEquals(List.of(), calls);
+		outcome(mockMvc, "/blackrock/challenge/v1/transactions:parse", INVALID_PARSE);
+		assertEquals(List.of(), calls);
+
+		outcome(mockMvc, "/blackrock/challenge/v1/transactions:filter", INVALID_FILTER);
+		assertEquals(List.of(), calls);
+	}
+
+	// Wired the way ValidationConfig wires the application: without the fast validator MVC falls
+	// back to the context's Bean Validation validator.
+	private MockMvc mockMvc(boolean fast) {
+		return mockMvc(beanValidator, fast);
+	}
+
+	private MockMvc mockMvc(jakarta.validation.Validator reflective, boolean fast) {
+		Validator configured = new ValidationConfig(reflective, fast).getValidator();
+		TransactionRulesService rules = new TransactionRulesService();
+		TransactionBuilder builder = new TransactionBuilder();
+		TransactionValidator validator = new TransactionValidator(rules);
+		TransactionController controller = new TransactionController(
+				builder,
+				validator,
+				new TransactionFilterService(builder, rules),
+				new TransactionStreamService(builder, validator, new JsonMapper()),
+				new ComputeExecutor()
+		);
+		return MockMvcBuilders.standaloneSetup(controller)
+				.setControllerAdvice(new ApiExceptionHandler())
+				.setValidator(configured != null ? configured : beanValidator)
+				.build();
+	}
+
+	// Exception type, status, error message and body, plus each field error's path, constraint,
+	// rejected value and message for body validation failures.
+	private static String outcome(MockMvc mockMvc, String path, String body) throws Exception {
+		MvcResult result = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+		assertEquals(400, result.getResponse().getStatus());
+		Exception exception = result.getResolvedException();
+		StringBuilder outcome = new StringBuilder(exception.getClass().getName())
+				.append('\n').append(result.getResponse().getStatus())
+				.append('\n').append(result.getResponse().getErrorMessage())
+				.append('\n').append(result.getResponse().getContentAsString());
+		if (exception instanceof MethodArgumentNotValidException invalid) {
+			outcome.append('\n').append(invalid.getBindingResult().getFieldErrors().stream()
+					.map(error -> error.getField() + " " + error.getCode() + " " + error.getRejectedValue() + " " + error.getDefaultMessage())
+					.sorted()
+					.collect(Collectors.joining("\n")));
+		} else {
+			assertInstanceOf(InvalidRequestException.class, exception);
+			outcome.append('\n').append(exception.getMessage());
+		}
+		return outcome.toString();
+	}
+}
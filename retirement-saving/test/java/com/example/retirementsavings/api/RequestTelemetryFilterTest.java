@@ -0,0 +1,95 @@
+package com.example.retirementsavings.api;
+
+import com.example.retirementsavings.api.dto.WindowTelemetryOutput;
+import com.example.retirementsavings.service.ComputeExecutor;
+import com.example.retirementsavings.service.RequestTelemetry;
+import com.example.retirementsavings.service.ThreadUsage;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestTelemetryFilterTest {
+
+	private static final String ENDPOINT = "POST /blackrock/challenge/v1/transactions:filter";
+	private static final int ALLOCATED_BYTES = 32 << 20;
+
+	// With virtual request threads the serving thread reports no CPU time or allocation, so the
+	// sample must come from the compute thread the work was offloaded to.
+	@Test
+	void countsWorkOffloadedFromVirtualRequestThreads() throws Exception {
+		ComputeExecutor executor = new ComputeExecutor(true, 1, 4);
+		RequestTelemetry telemetry = new RequestTelemetry();
+		RequestTelemetryFilter filter = new RequestTelemetryFilter(telemetry);
+		Throwable[] failure = new Throwable[1];
+		try {
+			Thread request = Thread.ofVirtual().unstarted(() -> {
+				try {
+					assertEquals(-1, ThreadUsage.currentThreadCpuNanos());
+					filter.doFilter(
+							new MockHttpServletRequest("POST", "/blackrock/challenge/v1/transactions:filter"),
+							new MockHttpServletResponse(),
+							new MockFilterChain(new ComputingServlet(executor))
+					);
+				} catch (Throwable ex) {
+					failure[0] = ex;
+				}
+			});
+			request.start();
+			request.join();
+		} finally {
+			executor.shutdown();
+		}
+		if (failure[0] != null) {
+			throw new AssertionError(failure[0]);
+		}
+
+		WindowTelemetryOutput minute = telemetry.snapshot().get(0).windows().get(0);
+		assertEquals(ENDPOINT, telemetry.snapshot().get(0).endpoint());
+		assertEquals(1, minute.requests());
+		assertTrue(minute.cpuTimeMs() > 0, "cpu " + minute.cpuTimeMs());
+		assertTrue(minute.allocatedBytes() >= ALLOCATED_BYTES, "allocated " + minute.allocatedBytes());
+	}
+
+	// Stands in for DispatcherServlet: exposes the request to RequestContextHolder and runs the
+	// handler's compute on the executor.
+	private static final class ComputingServlet extends HttpServlet {
+
+		private final ComputeExecutor executor;
+
+		ComputingServlet(ComputeExecutor executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		protected void service(HttpServletRequest request, HttpServletResponse response) {
+			request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/blackrock/challenge/v1/transactions:filter");
+			RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+			try {
+				long checksum = executor.run(() -> {
+					byte[] buffer = new byte[ALLOCATED_BYTES];
+					long sum = 0;
+					for (int round = 0; round < 20; round++) {
+						for (int i = 0; i < buffer.length; i += 64) {
+							buffer[i] = (byte) (buffer[i] + i + round);
+							sum += buffer[i];
+						}
+					}
+					return sum;
+				});
+				response.setStatus(checksum == Long.MIN_VALUE ? 500 : 200);
+			} finally {
+				RequestContextHolder.resetRequestAttributes();
+			}
+		}
+	}
+}
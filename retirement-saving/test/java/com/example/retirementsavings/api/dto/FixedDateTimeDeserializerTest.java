@@ -0,0 +1,109 @@
+package com.example.retirementsavings.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ValueDeserializer;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FixedDateTimeDeserializerTest {
+
+	private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern(FixedDateTimeDeserializer.PATTERN);
+
+	private final JsonMapper jsonMapper = new JsonMapper();
+	// Jackson's own pattern-based handling, as the DTOs were annotated before.
+	private final JsonMapper patternMapper = JsonMapper.builder().addMixIn(ExpenseInput.class, PatternDate.class).build();
+
+	@Test
+	void matchesPatternFormatterOnRandomDates() throws IOException {
+		Random random = new Random(42);
+		for (int i = 0; i < 20_000; i++) {
+			LocalDateTime date = LocalDateTime.of(
+					1 + random.nextInt(9999),
+					1 + random.nextInt(12),
+					1,
+					random.nextInt(24),
+					random.nextInt(60),
+					random.nextInt(60)
+			);
+			date = date.plusDays(random.nextInt(date.toLocalDate().lengthOfMonth()));
+			String json = jsonMapper.writeValueAsString(new ExpenseInput(date, 1.0));
+
+			assertEquals(patternMapper.writeValueAsString(new ExpenseInput(date, 1.0)), json);
+			assertEquals("{\"date\":\"" + FORMAT.format(date) + "\",\"amount\":1.0}", json);
+			assertEquals(date, jsonMapper.readValue(json, ExpenseInput.class).getDate());
+		}
+	}
+
+	@Test
+	void handlesUnusualInputLikeThePatternDeserializer() {
+		List<String> dates = List.of(
+				"\"2024-02-29 23:59:59\"",
+				"\"2023-02-29 00:00:00\"",
+				"\"2023-04-31 12:00:00\"",
+				"\"2023-13-01 00:00:00\"",
+				"\"2023-00-10 00:00:00\"",
+				"\"2023-01-01 24:00:00\"",
+				"\"2023-01-01 23:60:00\"",
+				"\"0000-01-01 00:00:00\"",
+				"\"2023-01-01T00:00:00\"",
+				"\"2023/01/01 00:00:00\"",
+				"\"2023-01-01 00:00\"",
+				"\" 2023-01-01 00:00:00\"",
+				"\"2023-01-01 00:00:00 \"",
+				"\"+2023-01-01 00:00:0\"",
+				"\"2023-0a-01 00:00:00\"",
+				"\"\"",
+				"null",
+				"17",
+				"[2023, 1, 1, 0, 0, 0]",
+				"{}"
+		);
+		for (String date : dates) {
+			String json = "{\"date\":" + date + ",\"amount\":1.0}";
+			assertEquals(outcome(patternMapper, json), outcome(jsonMapper, json), date);
+		}
+	}
+
+	@Test
+	void reusesRepeatedPeriodBounds() throws IOException {
+		String json = "{\"start\":\"2023-01-01 00:00:00\",\"end\":\"2023-12-31 23:59:59\"}";
+
+		KPeriodInput first = jsonMapper.readValue(json, KPeriodInput.class);
+		KPeriodInput second = jsonMapper.readValue(json, KPeriodInput.class);
+
+		assertEquals(LocalDateTime.of(2023, 1, 1, 0, 0), first.start());
+		assertEquals(LocalDateTime.of(2023, 12, 31, 23, 59, 59), first.end());
+		assertSame(first.start(), second.start());
+		assertSame(first.end(), second.end());
+		assertEquals(json, jsonMapper.writeValueAsString(second));
+	}
+
+	private static String outcome(JsonMapper mapper, String json) {
+		try {
+			return "value " + mapper.readValue(json, ExpenseInput.class).getDate();
+		} catch (JacksonException e) {
+			return e.getClass().getSimpleName() + ": " + e.getOriginalMessage();
+		}
+	}
+
+	private abstract static class PatternDate {
+
+		@JsonFormat(pattern = FixedDateTimeDeserializer.PATTERN)
+		@JsonDeserialize(using = ValueDeserializer.None.class)
+		@JsonSerialize(using = ValueSerializer.None.class)
+		private LocalDateTime date;
+	}
+}
@@ -0,0 +1,209 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationResponse;
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.InstrumentRateInput;
+import com.example.retirementsavings.api.dto.InvalidTransactionOutput;
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import com.example.retirementsavings.api.dto.TransactionFilterResponse;
+import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.example.retirementsavings.api.dto.TransactionValidationRequest;
+import com.example.retirementsavings.api.dto.TransactionValidationResponse;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarCodecTest {
+
+	// Generic list types as the transactions:parse endpoint declares them.
+	private static List<ExpenseInput> expenseList;
+	private static List<TransactionOutput> transactionList;
+
+	private final TransactionRulesService rules = new TransactionRulesService();
+	private final TransactionFilterService filterService = new TransactionFilterService(new TransactionBuilder(), rules);
+	private final ReturnsCalculationService returnsService = new ReturnsCalculationService(filterService);
+
+	@Test
+	void roundTripsParseAndFilterBodies() throws Exception {
+		Type expenses = ColumnarCodecTest.class.getDeclaredField("expenseList").getGenericType();
+		Type transactions = ColumnarCodecTest.class.getDeclaredField("transactionList").getGenericType();
+		for (long seed = 0; seed < 200; seed++) {
+			String context = "seed " + seed;
+			TransactionFilterRequest request = TransactionFilterServiceTest.randomRequest(new Random(seed));
+
+			@SuppressWarnings("unchecked")
+			List<ExpenseInput> parsedExpenses = (List<ExpenseInput>) roundTrip(request.transactions(), expenses);
+			assertSameExpenses(request.transactions(), parsedExpenses, context);
+			List<TransactionOutput> built = new TransactionBuilder().getCeilingAndRemnantForTranscations(request.transactions());
+			@SuppressWarnings("unchecked")
+			List<TransactionOutput> parsedTransactions = (List<TransactionOutput>) roundTrip(built, transactions);
+			assertSameTransactions(built, parsedTransactions, context);
+
+			TransactionFilterRequest filterRequest = (TransactionFilterRequest) roundTrip(request, TransactionFilterRequest.class);
+			assertEquals(request.q(), filterRequest.q(), context);
+			assertEquals(request.p(), filterRequest.p(), context);
+			assertEquals(request.k(), filterRequest.k(), context);
+			assertEquals(request.wage(), filterRequest.wage(), context);
+			assertSameExpenses(request.transactions(), filterRequest.transactions(), context);
+			assertNull(filterRequest.ruleSetId(), context);
+
+			TransactionFilterResponse response = filterService.filter(request);
+			TransactionFilterResponse decoded = (TransactionFilterResponse) roundTrip(response, TransactionFilterResponse.class);
+			assertSameTransactions(response.valid(), decoded.valid(), context);
+			assertSameTransactions(response.invalid(), decoded.invalid(), context);
+			for (int i = 0; i < response.invalid().size(); i++) {
+				assertEquals(response.invalid().get(i).getMessage(), decoded.invalid().get(i).getMessage(), context);
+			}
+			// Computing on the decoded request gives the same answer as on the original one.
+			TransactionFilterServiceTest.assertSameResponse(response, filterService.filter(filterRequest), context);
+		}
+	}
+
+	@Test
+	void roundTripsValidatorBodies() {
+		List<TransactionOutput> transactions = new ArrayList<>(new TransactionBuilder().getCeilingAndRemnantForTranscations(List.of(
+				new ExpenseInput(LocalDateTime.of(2023, 10, 12, 20, 15, 30), 250.0),
+				new ExpenseInput(LocalDateTime.of(2023, 2, 28, 15, 49, 30), -375.0)
+		)));
+		transactions.add(new TransactionOutput(LocalDateTime.of(2023, 7, 1, 0, 0), 620.0, 700.0, 80.0, true));
+		TransactionValidationRequest request = new TransactionValidationRequest(50_000.0, transactions);
+
+		TransactionValidationRequest decodedRequest = (TransactionValidationRequest) roundTrip(request, TransactionValidationRequest.class);
+		assertEquals(request.wage(), decodedRequest.wage());
+		assertSameTransactions(request.transactions(), decodedRequest.transactions(), "validator request");
+
+		TransactionValidationResponse response = new TransactionValidator(rules).validate(request);
+		TransactionValidationResponse decoded = (TransactionValidationResponse) roundTrip(response, TransactionValidationResponse.class);
+		assertSameTransactions(response.valid(), decoded.valid(), "validator response");
+		assertSameTransactions(response.invalid(), decoded.invalid(), "validator response");
+		assertFalse(decoded.invalid().isEmpty());
+		for (int i = 0; i < response.invalid().size(); i++) {
+			assertEquals(response.invalid().get(i).getMessage(), decoded.invalid().get(i).getMessage());
+		}
+	}
+
+	@Test
+	void roundTripsReturnsBodies() {
+		for (long seed = 0; seed < 100; seed++) {
+			String context = "seed " + seed;
+			TransactionFilterRequest filterRequest = TransactionFilterServiceTest.randomRequest(new Random(seed));
+			ReturnsCalculationRequest request = new ReturnsCalculationRequest(
+					29,
+					62_500.0,
+					5.5,
+					filterRequest.q(),
+					filterRequest.p(),
+					filterRequest.k(),
+					filterRequest.transactions().stream().filter(expense -> expense.getAmount() >= 0).toList()
+			);
+			ReturnsCalculationRequest decodedRequest = (ReturnsCalculationRequest) roundTrip(request, ReturnsCalculationRequest.class);
+			assertEquals(request.age(), decodedRequest.age(), context);
+			assertEquals(request.wage(), decodedRequest.wage(), context);
+			assertEquals(request.inflation(), decodedRequest.inflation(), context);
+			assertEquals(request.k(), decodedRequest.k(), context);
+			assertSameExpenses(request.transactions(), decodedRequest.transactions(), context);
+
+			ReturnsCalculationResponse nps = returnsService.calculateNps(request);
+			assertEquals(nps, roundTrip(nps, ReturnsCalculationResponse.class), context);
+			assertEquals(nps, returnsService.calculateNps(decodedRequest), context);
+
+			CombinedReturnsCalculationRequest combined = new CombinedReturnsCalculationRequest(
+					request.age(),
+					request.wage(),
+					request.inflation(),
+					request.q(),
+					request.p(),
+					request.k(),
+					request.transactions(),
+					List.of(new InstrumentRateInput("bonds", 4.2), new InstrumentRateInput("gold ü", 6.0))
+			);
+			CombinedReturnsCalculationRequest decodedCombined = (CombinedReturnsCalculationRequest) roundTrip(combined, CombinedReturnsCalculationRequest.class);
+			assertEquals(combined.instruments(), decodedCombined.instruments(), context);
+			CombinedReturnsCalculationResponse all = returnsService.calculateAll(combined);
+			assertEquals(all, roundTrip(all, CombinedReturnsCalculationResponse.class), context);
+			assertEquals(all, returnsService.calculateAll(decodedCombined), context);
+		}
+	}
+
+	@Test
+	void keepsAbsentOptionalValues() {
+		TransactionFilterRequest request = new TransactionFilterRequest(null, null, null, null, List.of(new ExpenseInput(null, null)), "weekly");
+
+		TransactionFilterRequest decoded = (TransactionFilterRequest) roundTrip(request, TransactionFilterRequest.class);
+
+		assertNull(decoded.q());
+		assertNull(decoded.p());
+		assertNull(decoded.k());
+		assertNull(decoded.wage());
+		assertNull(decoded.transactions().get(0).getDate());
+		assertNull(decoded.transactions().get(0).getAmount());
+		assertEquals("weekly", decoded.ruleSetId());
+	}
+
+	@Test
+	void rejectsMalformedBodies() {
+		TransactionFilterRequest request = TransactionFilterServiceTest.randomRequest(new Random(3));
+		byte[] body = ColumnarCodec.write(request, TransactionFilterRequest.class);
+
+		assertTrue(ColumnarCodec.supports(TransactionFilterRequest.class));
+		assertFalse(ColumnarCodec.supports(String.class));
+		for (int length = 0; length < body.length; length++) {
+			byte[] truncated = Arrays.copyOf(body, length);
+			assertThrows(IllegalArgumentException.class, () -> ColumnarCodec.read(truncated, TransactionFilterRequest.class), "length " + length);
+		}
+		assertThrows(IllegalArgumentException.class, () -> ColumnarCodec.read(Arrays.copyOf(body, body.length + 1), TransactionFilterRequest.class));
+		assertThrows(IllegalArgumentException.class, () -> ColumnarCodec.read(body, ReturnsCalculationRequest.class));
+		byte[] badMagic = body.clone();
+		badMagic[0] = 'X';
+		assertThrows(IllegalArgumentException.class, () -> ColumnarCodec.read(badMagic, TransactionFilterRequest.class));
+		byte[] hugeCount = ColumnarCodec.write(new TransactionFilterRequest(null, null, null, 1.0, List.of()), TransactionFilterRequest.class);
+		// The q count sits right after the 8-byte header.
+		hugeCount[11] = 0x7f;
+		assertThrows(IllegalArgumentException.class, () -> ColumnarCodec.read(hugeCount, TransactionFilterRequest.class));
+		byte[] infinite = ColumnarCodec.write(
+				new TransactionFilterRequest(null, null, null, 1.0, List.of(new ExpenseInput(LocalDateTime.of(2023, 1, 1, 0, 0), Double.POSITIVE_INFINITY))),
+				TransactionFilterRequest.class
+		);
+		assertThrows(IllegalArgumentException.class, () -> ColumnarCodec.read(infinite, TransactionFilterRequest.class));
+	}
+
+	private static Object roundTrip(Object value, Type type) {
+		return ColumnarCodec.read(ColumnarCodec.write(value, type), type);
+	}
+
+	private static void assertSameExpenses(List<ExpenseInput> expected, List<ExpenseInput> actual, String context) {
+		assertEquals(expected.size(), actual.size(), context);
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getDate(), actual.get(i).getDate(), context);
+			assertEquals(expected.get(i).getAmount(), actual.get(i).getAmount(), context);
+		}
+	}
+
+	private static void assertSameTransactions(List<? extends TransactionOutput> expected, List<? extends TransactionOutput> actual, String context) {
+		assertEquals(expected.size(), actual.size(), context);
+		for (int i = 0; i < expected.size(); i++) {
+			TransactionOutput expectedTransaction = expected.get(i);
+			TransactionOutput actualTransaction = actual.get(i);
+			assertEquals(expectedTransaction.getDate(), actualTransaction.getDate(), context);
+			assertEquals(expectedTransaction.getAmount(), actualTransaction.getAmount(), context);
+			assertEquals(expectedTransaction.getCeiling(), actualTransaction.getCeiling(), context);
+			assertEquals(expectedTransaction.getRemanent(), actualTransaction.getRemanent(), context);
+			assertEquals(expectedTransaction.getInKPeriod(), actualTransaction.getInKPeriod(), context);
+			assertEquals(expectedTransaction instanceof InvalidTransactionOutput, actualTransaction instanceof InvalidTransactionOutput, context);
+		}
+	}
+}
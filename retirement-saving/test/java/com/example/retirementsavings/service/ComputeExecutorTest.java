@@ -0,0 +1,87 @@
+package com.example.retirementsavings.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComputeExecutorTest {
+
+	@Test
+	void runsInlineOnPlatformRequestThreads() {
+		ComputeExecutor executor = new ComputeExecutor(false, 2, 4);
+
+		assertFalse(executor.isOffloading());
+		assertSame(Thread.currentThread(), executor.run(Thread::currentThread));
+	}
+
+	@Test
+	void offloadsToPlatformThreadsAndPropagatesFailures() throws Exception {
+		ComputeExecutor executor = new ComputeExecutor(true, 2, 4);
+		try {
+			Thread request = Thread.ofVirtual().unstarted(() -> {
+				Thread worker = executor.run(Thread::currentThread);
+				assertNotSame(Thread.currentThread(), worker);
+				assertFalse(worker.isVirtual());
+				IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> executor.run(() -> {
+					throw new IllegalArgumentException("bad input");
+				}));
+				assertEquals("bad input", ex.getMessage());
+			});
+			Throwable[] failure = new Throwable[1];
+			request.setUncaughtExceptionHandler((thread, ex) -> failure[0] = ex);
+			request.start();
+			request.join();
+			if (failure[0] != null) {
+				throw new AssertionError(failure[0]);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void rejectsWorkOnceThePoolAndQueueAreFull() throws Exception {
+		ComputeExecutor executor = new ComputeExecutor(true, 1, 1);
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			Thread busy = Thread.ofVirtual().start(() -> executor.run(() -> {
+				running.countDown();
+				awaitQuietly(release);
+				return null;
+			}));
+			assertTrue(running.await(5, TimeUnit.SECONDS));
+			Thread queued = Thread.ofVirtual().start(() -> executor.run(() -> null));
+			// Wait until the second task occupies the single queue slot.
+			while (queued.isAlive() && queued.getState() != Thread.State.WAITING) {
+				Thread.sleep(1);
+			}
+
+			assertThrows(RejectedExecutionException.class, () -> executor.run(() -> null));
+
+			release.countDown();
+			busy.join();
+			queued.join();
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
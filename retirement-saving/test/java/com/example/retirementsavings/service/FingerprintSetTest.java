@@ -0,0 +1,49 @@
+package com.example.retirementsavings.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FingerprintSetTest {
+
+	@Test
+	void behavesLikeAHashSetAcrossResizes() {
+		FingerprintSet fingerprints = new FingerprintSet(2, 4);
+		Set<List<Long>> expected = new HashSet<>();
+		Random random = new Random(42);
+
+		for (int i = 0; i < 100_000; i++) {
+			// A narrow value range produces plenty of repeats and colliding low bits.
+			long first = random.nextInt(5_000);
+			long second = random.nextInt(20);
+			assertEquals(expected.add(List.of(first, second)), fingerprints.add(first, second));
+		}
+		assertEquals(expected.size(), fingerprints.size());
+	}
+
+	@Test
+	void comparesEveryWord() {
+		FingerprintSet fingerprints = new FingerprintSet(4, 0);
+
+		assertTrue(fingerprints.add(1L, 2L, 3L, 4L));
+		assertTrue(fingerprints.add(1L, 2L, 3L, 5L));
+		assertTrue(fingerprints.add(0L, 2L, 3L, 4L));
+		assertFalse(fingerprints.add(1L, 2L, 3L, 4L));
+		assertEquals(3, fingerprints.size());
+	}
+
+	@Test
+	void rejectsTuplesOfTheWrongWidth() {
+		FingerprintSet fingerprints = new FingerprintSet(2, 0);
+
+		assertThrows(IllegalStateException.class, () -> fingerprints.add(1L, 2L, 3L, 4L));
+	}
+}
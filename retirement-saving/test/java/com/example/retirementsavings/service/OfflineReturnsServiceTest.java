@@ -0,0 +1,158 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import com.example.retirementsavings.api.dto.TransactionFilterResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OfflineReturnsServiceTest {
+
+	@TempDir
+	Path directory;
+
+	private final TransactionRulesService rules = new TransactionRulesService();
+	private final TransactionFilterService filterService = new TransactionFilterService(new TransactionBuilder(), rules);
+	private final ReturnsCalculationService returnsService = new ReturnsCalculationService(filterService);
+	private final OfflineReturnsService service = new OfflineReturnsService(filterService, returnsService);
+
+	@Test
+	void matchesReturnsEndpointsForUnsortedAndSortedFiles() throws IOException {
+		for (long seed = 0; seed < 100; seed++) {
+			TransactionFilterRequest request = TransactionFilterServiceTest.randomRequest(new Random(seed));
+			RuleSet ruleSet = RuleSet.inline(request.q(), request.p(), request.k());
+			for (boolean sorted : new boolean[] {false, true}) {
+				List<ExpenseInput> transactions = sorted
+						? request.transactions().stream().sorted(Comparator.comparing(ExpenseInput::getDate)).toList()
+						: request.transactions();
+				Path input = directory.resolve("seed-" + seed + "-" + sorted + OfflineReturnsService.INPUT_EXTENSION);
+				Path output = directory.resolve("seed-" + seed + "-" + sorted + OfflineReturnsService.OUTPUT_EXTENSION);
+				BinaryTransactionFile.Header header = writeTransactions(input, transactions);
+				String context = "seed " + seed + ", sorted " + sorted;
+				if (sorted) {
+					assertTrue(header.sorted(), context);
+				}
+
+				OfflineReturnsService.FileSummary summary = service.run(input, output, ruleSet);
+
+				ReturnsCalculationRequest equivalent = new ReturnsCalculationRequest(
+						header.age(),
+						header.wage(),
+						header.inflation(),
+						request.q(),
+						request.p(),
+						request.k(),
+						transactions
+				);
+				ReturnsCalculationResponse nps = returnsService.calculateNps(equivalent);
+				ReturnsCalculationResponse index = returnsService.calculateIndex(equivalent);
+				TransactionFilterResponse filtered = filterService.filter(new TransactionFilterRequest(
+						request.q(),
+						request.p(),
+						request.k(),
+						header.wage(),
+						transactions
+				));
+				BinaryReturnsFile.Contents contents = BinaryReturnsFile.read(output);
+				assertEquals(transactions.size(), summary.records(), context);
+				assertEquals(transactions.size(), contents.records(), context);
+				assertEquals(filtered.invalid().size(), contents.invalid(), context);
+				assertEquals(nps.totalTransactionAmount(), contents.totalTransactionAmount(), context);
+				assertEquals(nps.totalCeiling(), contents.totalCeiling(), context);
+				assertEquals(nps.savingsByDates().size(), contents.amounts().length, context);
+				for (int i = 0; i < contents.amounts().length; i++) {
+					assertEquals(TransactionBatch.toEpochSecond(nps.savingsByDates().get(i).start()), contents.starts()[i], context);
+					assertEquals(TransactionBatch.toEpochSecond(nps.savingsByDates().get(i).end()), contents.ends()[i], context);
+					assertEquals(nps.savingsByDates().get(i).amount(), contents.amounts()[i], context);
+					assertEquals(nps.savingsByDates().get(i).profit(), contents.npsProfits()[i], context);
+					assertEquals(nps.savingsByDates().get(i).taxBenefit(), contents.npsTaxBenefits()[i], context);
+					assertEquals(index.savingsByDates().get(i).profit(), contents.indexProfits()[i], context);
+				}
+			}
+		}
+	}
+
+	@Test
+	void runsEveryTransactionFileInADirectory() throws IOException {
+		Path inputs = Files.createDirectory(directory.resolve("in"));
+		TransactionFilterRequest request = TransactionFilterServiceTest.randomRequest(new Random(11));
+		writeTransactions(inputs.resolve("b" + OfflineReturnsService.INPUT_EXTENSION), request.transactions());
+		writeTransactions(inputs.resolve("a" + OfflineReturnsService.INPUT_EXTENSION), request.transactions());
+		Files.writeString(inputs.resolve("notes.txt"), "not a transaction file");
+
+		List<OfflineReturnsService.FileSummary> summaries = service.runAll(
+				inputs,
+				directory.resolve("out"),
+				RuleSet.inline(request.q(), request.p(), request.k())
+		);
+
+		assertEquals(2, summaries.size());
+		assertEquals(directory.resolve("out").resolve("a" + OfflineReturnsService.OUTPUT_EXTENSION), summaries.get(0).output());
+		assertEquals(directory.resolve("out").resolve("b" + OfflineReturnsService.OUTPUT_EXTENSION), summaries.get(1).output());
+		assertTrue(Files.exists(summaries.get(1).output()));
+	}
+
+	@Test
+	void rejectsTruncatedAndMisflaggedFiles() throws IOException {
+		long[] epochSeconds = {1_700_000_000L, 1_700_000_100L, 1_700_000_050L};
+		double[] amounts = {120.0, 250.5, 99.0};
+		Path unsorted = directory.resolve("unsorted" + OfflineReturnsService.INPUT_EXTENSION);
+		assertFalse(BinaryTransactionFile.write(unsorted, 30, 50_000.0, 5.5, epochSeconds, amounts, 3).sorted());
+		try (FileChannel channel = FileChannel.open(unsorted, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] {BinaryTransactionFile.FLAG_SORTED}), 6);
+		}
+		assertThrows(IllegalArgumentException.class, () -> BinaryTransactionFile.read(unsorted));
+
+		Path truncated = directory.resolve("truncated" + OfflineReturnsService.INPUT_EXTENSION);
+		BinaryTransactionFile.write(truncated, 30, 50_000.0, 5.5, epochSeconds, amounts, 3);
+		try (FileChannel channel = FileChannel.open(truncated, StandardOpenOption.WRITE)) {
+			channel.truncate(BinaryTransactionFile.HEADER_BYTES + 2 * BinaryTransactionFile.RECORD_BYTES + 4);
+		}
+		assertThrows(IllegalArgumentException.class, () -> BinaryTransactionFile.read(truncated));
+	}
+
+	@Test
+	void rejectsFilesTooLargeForTheHeapBudget() throws IOException {
+		long[] epochSeconds = {1_700_000_000L, 1_700_000_100L, 1_700_000_050L};
+		double[] amounts = {120.0, 250.5, 99.0};
+		Path input = directory.resolve("large" + OfflineReturnsService.INPUT_EXTENSION);
+		Path output = directory.resolve("large" + OfflineReturnsService.OUTPUT_EXTENSION);
+		BinaryTransactionFile.write(input, 30, 50_000.0, 5.5, epochSeconds, amounts, 3);
+		RuleSet ruleSet = RuleSet.inline(List.of(), List.of(), List.of());
+		OfflineReturnsService small = new OfflineReturnsService(filterService, returnsService, 2 * OfflineReturnsService.HEAP_BYTES_PER_RECORD);
+
+		IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class, () -> small.run(input, output, ruleSet));
+		assertTrue(rejected.getMessage().contains("-Xmx"), rejected.getMessage());
+		assertFalse(Files.exists(output));
+
+		new OfflineReturnsService(filterService, returnsService, 3 * OfflineReturnsService.HEAP_BYTES_PER_RECORD).run(input, output, ruleSet);
+		assertEquals(3, BinaryReturnsFile.read(output).records());
+	}
+
+	private static BinaryTransactionFile.Header writeTransactions(Path path, List<ExpenseInput> transactions) throws IOException {
+		long[] epochSeconds = new long[transactions.size()];
+		double[] amounts = new double[transactions.size()];
+		for (int i = 0; i < transactions.size(); i++) {
+			epochSeconds[i] = TransactionBatch.toEpochSecond(transactions.get(i).getDate());
+			amounts[i] = transactions.get(i).getAmount();
+		}
+		return BinaryTransactionFile.write(path, 29, 62_500.0, 5.5, epochSeconds, amounts, transactions.size());
+	}
+}
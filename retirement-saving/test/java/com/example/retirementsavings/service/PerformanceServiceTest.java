@@ -21,5 +21,8 @@ class PerformanceServiceTest {
 		LocalDateTime.parse(response.time(), FORMAT);
 		assertTrue(response.memory().endsWith(" MB"));
 		assertTrue(response.threads() > 0);
+		assertTrue(response.endpoints().isEmpty());
+		assertTrue(response.jvm().heapUsedBytes() > 0);
+		assertTrue(response.jvm().uptimeMs() > 0);
 	}
 }
@@ -0,0 +1,96 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineMetricsTest {
+
+	@Test
+	void recordsEveryFilterStageAndRequestShape() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		PipelineMetrics metrics = new PipelineMetrics(registry);
+		TransactionFilterService service = new TransactionFilterService(
+				new TransactionBuilder(),
+				new TransactionRulesService(),
+				Integer.MAX_VALUE,
+				metrics
+		);
+		TransactionFilterRequest request = TransactionFilterServiceTest.randomRequest(new Random(3));
+
+		service.filter(request);
+		service.filter(request);
+
+		for (String stage : new String[] {
+				PipelineMetrics.STAGE_BASE_ROUNDING,
+				PipelineMetrics.STAGE_SORT,
+				PipelineMetrics.STAGE_PERIOD_SWEEP,
+				PipelineMetrics.STAGE_VALIDATION
+		}) {
+			assertEquals(2, stageTimerCount(registry, PipelineMetrics.FILTER, stage), stage);
+		}
+		assertEquals(
+				2.0 * request.transactions().size(),
+				registry.get("retirement.pipeline.request.size")
+						.tag("pipeline", PipelineMetrics.FILTER)
+						.tag("dimension", "transactions")
+						.summary()
+						.totalAmount()
+		);
+		assertEquals(
+				2.0 * request.k().size(),
+				registry.get("retirement.pipeline.request.size")
+						.tag("pipeline", PipelineMetrics.FILTER)
+						.tag("dimension", "k")
+						.summary()
+						.totalAmount()
+		);
+		assertEquals(2, registry.get("retirement.pipeline.allocated").tag("pipeline", PipelineMetrics.FILTER).summary().count());
+		assertTrue(registry.get("retirement.pipeline.allocated").tag("pipeline", PipelineMetrics.FILTER).summary().totalAmount() > 0);
+	}
+
+	@Test
+	void recordsReturnsStagesAroundTheNestedFilterRun() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		PipelineMetrics metrics = new PipelineMetrics(registry);
+		ReturnsCalculationService service = new ReturnsCalculationService(
+				new TransactionFilterService(new TransactionBuilder(), new TransactionRulesService(), Integer.MAX_VALUE, metrics),
+				metrics
+		);
+		TransactionFilterRequest filterRequest = TransactionFilterServiceTest.randomRequest(new Random(5));
+
+		service.calculateNps(new ReturnsCalculationRequest(
+				29,
+				50_000.0,
+				5.5,
+				filterRequest.q(),
+				filterRequest.p(),
+				filterRequest.k(),
+				filterRequest.transactions()
+		));
+
+		for (String stage : new String[] {
+				PipelineMetrics.STAGE_FILTER,
+				PipelineMetrics.STAGE_K_AGGREGATION,
+				PipelineMetrics.STAGE_PROFIT_AND_TAX
+		}) {
+			assertEquals(1, stageTimerCount(registry, PipelineMetrics.RETURNS, stage), stage);
+		}
+		assertEquals(1, stageTimerCount(registry, PipelineMetrics.FILTER, PipelineMetrics.STAGE_PERIOD_SWEEP));
+	}
+
+	private static long stageTimerCount(MeterRegistry registry, String pipeline, String stage) {
+		return registry.get("retirement.pipeline.stage")
+				.tag("pipeline", pipeline)
+				.tag("stage", stage)
+				.timer()
+				.count();
+	}
+}
@@ -0,0 +1,165 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.PricingRequest;
+import com.example.retirementsavings.api.dto.TaxSlabInput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PricingRegistryTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void defaultSlabsMatchTheFixedBrackets() {
+		TaxSlabs slabs = Pricing.defaults().taxSlabs();
+		Random random = new Random(3);
+		double[] bounds = {0.0, 700_000.0, 1_000_000.0, 1_200_000.0, 1_500_000.0};
+		for (double bound : bounds) {
+			for (double income : new double[] {Math.nextDown(bound), bound, Math.nextUp(bound)}) {
+				assertEquals(fixedBracketTax(income), slabs.tax(income), "income " + income);
+			}
+		}
+		for (int i = 0; i < 100_000; i++) {
+			double income = random.nextInt(4) == 0 ? random.nextInt(2_000_000) : random.nextDouble() * 3_000_000.0;
+			assertEquals(fixedBracketTax(income), slabs.tax(income), "income " + income);
+		}
+		assertEquals(0.0711, Pricing.defaults().npsRate());
+		assertEquals(0.1449, Pricing.defaults().indexRate());
+		assertEquals(List.of(new TaxSlabInput(0.0, 0.0), new TaxSlabInput(700_000.0, 0.10)), slabs.slabs().subList(0, 2));
+	}
+
+	@Test
+	void accumulatesTaxAcrossCustomSlabs() {
+		TaxSlabs slabs = TaxSlabs.of(List.of(
+				new TaxSlabInput(0.0, 0.05),
+				new TaxSlabInput(100.0, 0.20),
+				new TaxSlabInput(300.0, 0.50)
+		));
+
+		assertEquals(0.0, slabs.tax(-10.0));
+		assertEquals(0.0, slabs.tax(0.0));
+		assertEquals(5.0, slabs.tax(100.0));
+		assertEquals(5.0 + 40.0, slabs.tax(300.0));
+		assertEquals(5.0 + 40.0 + 50.0, slabs.tax(400.0));
+		assertEquals(2.5, TaxSlabs.of(List.of(new TaxSlabInput(0.0, 0.25))).tax(10.0));
+	}
+
+	@Test
+	void rejectsInvalidTables() {
+		assertThrows(InvalidRequestException.class, () -> TaxSlabs.of(List.of()));
+		assertThrows(InvalidRequestException.class, () -> TaxSlabs.of(List.of(new TaxSlabInput(10.0, 0.1))));
+		assertThrows(InvalidRequestException.class, () -> TaxSlabs.of(List.of(
+				new TaxSlabInput(0.0, 0.0),
+				new TaxSlabInput(500.0, 0.1),
+				new TaxSlabInput(500.0, 0.2)
+		)));
+		assertThrows(InvalidRequestException.class, () -> TaxSlabs.of(List.of(new TaxSlabInput(0.0, 1.5))));
+		assertThrows(InvalidRequestException.class, () -> TaxSlabs.of(List.of(new TaxSlabInput(0.0, Double.NaN))));
+		assertThrows(InvalidRequestException.class, () -> Pricing.of(new PricingRequest(
+				defaultsRequest().taxSlabs(),
+				200_000.0,
+				0.10,
+				Map.of(Pricing.NPS, 7.11)
+		)));
+		assertThrows(InvalidRequestException.class, () -> Pricing.of(new PricingRequest(
+				defaultsRequest().taxSlabs(),
+				Double.POSITIVE_INFINITY,
+				0.10,
+				defaultsRequest().instrumentRates()
+		)));
+		assertThrows(InvalidRequestException.class, () -> new PricingRegistry().reload());
+	}
+
+	@Test
+	void replacesAndReloadsTheActiveTable() throws IOException {
+		Path file = directory.resolve("pricing.json");
+		Files.writeString(file, """
+				{"taxSlabs":[{"from":0,"rate":0},{"from":500000,"rate":0.25}],
+				 "npsMaxDeduction":150000,"npsIncomeRatioCap":0.2,
+				 "instrumentRates":{"nps":8.0,"index":12.5,"gold":6.0}}
+				""");
+		PricingRegistry registry = new PricingRegistry(new JsonMapper(), file.toString());
+		Pricing loaded = registry.current();
+
+		assertEquals(0.08, loaded.npsRate());
+		assertEquals(0.125, loaded.indexRate());
+		assertEquals(6.0, loaded.instrumentRates().get("gold"));
+		assertEquals(25_000.0, loaded.taxSlabs().tax(600_000.0));
+
+		Pricing replaced = registry.replace(defaultsRequest());
+		assertSame(replaced, registry.current());
+		assertNotEquals(loaded.version(), replaced.version());
+		assertEquals(Pricing.defaults().taxSlabs().slabs(), replaced.taxSlabs().slabs());
+
+		// A broken file leaves the active table in place.
+		Files.writeString(file, "{\"taxSlabs\":[],\"npsMaxDeduction\":0,\"npsIncomeRatioCap\":0,\"instrumentRates\":{}}");
+		assertThrows(InvalidRequestException.class, registry::reload);
+		assertSame(replaced, registry.current());
+	}
+
+	@Test
+	void unreadableFilesAreRejectedAsInvalidTables() throws IOException {
+		Path file = directory.resolve("pricing.json");
+		Files.writeString(file, "{\"taxSlabs\":[],\"npsMaxDeduction\":0,\"npsIncomeRatioCap\":0,\"instrumentRates\":{}}");
+		assertThrows(InvalidRequestException.class, () -> new PricingRegistry(new JsonMapper(), file.toString()));
+
+		Files.writeString(file, "{\"taxSlabs\":[{\"from\":0,\"rate\":0}],\"npsMaxDeduction\":1,\"npsIncomeRatioCap\":0.1,"
+				+ "\"instrumentRates\":{\"nps\":7.11,\"index\":14.49}}");
+		PricingRegistry registry = new PricingRegistry(new JsonMapper(), file.toString());
+		Pricing loaded = registry.current();
+
+		for (String content : new String[] {"{\"taxSlabs\": [", "not json", "null", ""}) {
+			Files.writeString(file, content);
+			InvalidRequestException rejected = assertThrows(InvalidRequestException.class, registry::reload, content);
+			assertTrue(rejected.getMessage().contains(file.toString()), rejected.getMessage());
+			assertSame(loaded, registry.current());
+		}
+		Files.delete(file);
+		assertThrows(InvalidRequestException.class, registry::reload);
+		assertSame(loaded, registry.current());
+		assertThrows(InvalidRequestException.class, () -> new PricingRegistry(new JsonMapper(), file.toString()));
+		assertThrows(InvalidRequestException.class, () -> registry.replace(null));
+	}
+
+	static PricingRequest defaultsRequest() {
+		Pricing defaults = Pricing.defaults();
+		return new PricingRequest(
+				defaults.taxSlabs().slabs(),
+				defaults.npsMaxDeduction(),
+				defaults.npsIncomeRatioCap(),
+				defaults.instrumentRates()
+		);
+	}
+
+	// The bracket if-chain the slab table replaced.
+	private static double fixedBracketTax(double income) {
+		if (income <= 700_000.0) {
+			return 0.0;
+		}
+		if (income <= 1_000_000.0) {
+			return (income - 700_000.0) * 0.10;
+		}
+		if (income <= 1_200_000.0) {
+			return 30_000.0 + (income - 1_000_000.0) * 0.15;
+		}
+		if (income <= 1_500_000.0) {
+			return 60_000.0 + (income - 1_200_000.0) * 0.20;
+		}
+		return 120_000.0 + (income - 1_500_000.0) * 0.30;
+	}
+}
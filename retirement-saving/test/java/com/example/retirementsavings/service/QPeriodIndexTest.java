@@ -0,0 +1,61 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.QPeriodInput;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QPeriodIndexTest {
+
+	private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+	private static final double NONE = -1.0;
+
+	@Test
+	void pointLookupsAndCursorMatchLatestStartThenInputOrder() {
+		LocalDateTime base = LocalDateTime.parse("2023-01-01 00:00:00", FORMAT);
+		for (long seed = 0; seed < 300; seed++) {
+			Random random = new Random(seed);
+			// Small spans force shared starts, nested periods and lookups exactly on the bounds.
+			int span = random.nextBoolean() ? 50 : 5_000;
+			List<QPeriodInput> periods = new ArrayList<>();
+			int count = random.nextInt(random.nextBoolean() ? 10 : 300);
+			for (int i = 0; i < count; i++) {
+				LocalDateTime start = base.plusSeconds(random.nextInt(span));
+				periods.add(new QPeriodInput((double) i, start, start.plusSeconds(random.nextInt(span) - span / 10)));
+			}
+			QPeriodIndex index = QPeriodIndex.of(PeriodSchedule.ofQ(periods));
+
+			int cursor = index.segmentAt(TransactionBatch.toEpochSecond(base) - 1);
+			for (int offset = -1; offset <= 2 * span; offset++) {
+				LocalDateTime date = base.plusSeconds(offset);
+				long epochSecond = TransactionBatch.toEpochSecond(date);
+				double expected = bruteForce(periods, date);
+				String context = "seed " + seed + " at " + offset;
+
+				assertEquals(expected, index.apply(epochSecond, NONE), context);
+				cursor = index.advance(cursor, epochSecond);
+				assertEquals(expected, index.applies(cursor) ? index.fixed(cursor) : NONE, context);
+			}
+		}
+	}
+
+	private static double bruteForce(List<QPeriodInput> periods, LocalDateTime date) {
+		QPeriodInput winner = null;
+		for (QPeriodInput period : periods) {
+			if (period.start().isAfter(date) || period.end().isBefore(date)) {
+				continue;
+			}
+			// Strictly later start wins, so the earliest input is kept for equal starts.
+			if (winner == null || period.start().isAfter(winner.start())) {
+				winner = period;
+			}
+		}
+		return winner == null ? NONE : winner.fixed();
+	}
+}
@@ -0,0 +1,171 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.InstrumentRateInput;
+import com.example.retirementsavings.api.dto.KPeriodInput;
+import com.example.retirementsavings.api.dto.PPeriodInput;
+import com.example.retirementsavings.api.dto.QPeriodInput;
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.RuleSetRequest;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.example.retirementsavings.api.dto.TransactionValidationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestConstraintsTest {
+
+	private static final LocalDateTime DATE = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+	@Test
+	void acceptsValidBodies() {
+		for (long seed = 0; seed < 100; seed++) {
+			TransactionFilterRequest request = TransactionFilterServiceTest.randomRequest(new Random(seed));
+			assertEquals(List.of(), RequestConstraints.check(request));
+			RequestConstraints.requireValidExpenses(request.transactions());
+			assertEquals(List.of(), RequestConstraints.check(new ReturnsCalculationRequest(
+					0,
+					request.wage(),
+					0.0,
+					request.q(),
+					request.p(),
+					request.k(),
+					request.transactions()
+			)));
+		}
+		assertEquals(List.of(), RequestConstraints.check(new CombinedReturnsCalculationRequest(
+				30,
+				50_000.0,
+				5.0,
+				List.of(),
+				List.of(),
+				List.of(),
+				List.of(),
+				List.of(new InstrumentRateInput("gold", null))
+		)));
+		List<ExpenseInput> withNullElement = new ArrayList<>();
+		withNullElement.add(null);
+		RequestConstraints.requireValidExpenses(withNullElement);
+		assertEquals(List.of(), RequestConstraints.check(new TransactionFilterRequest(null, null, null, 1.0, List.of(), "weekly")));
+	}
+
+	@Test
+	void reportsEachFailedConstraintWithItsPath() {
+		TransactionFilterRequest filter = new TransactionFilterRequest(
+				List.of(new QPeriodInput(-0.5, DATE, null), new QPeriodInput(-0.0, DATE, DATE)),
+				List.of(new PPeriodInput(null, null, DATE)),
+				List.of(new KPeriodInput(DATE, DATE), new KPeriodInput(null, DATE)),
+				0.0,
+				List.of(new ExpenseInput(DATE, 10.0), new ExpenseInput(null, null))
+		);
+		assertEquals(
+				Set.of(
+						"q[0].fixed PositiveOrZero",
+						"q[0].end NotNull",
+						"p[0].extra NotNull",
+						"p[0].start NotNull",
+						"k[1].start NotNull",
+						"wage Positive",
+						"transactions[1].date NotNull",
+						"transactions[1].amount NotNull"
+				),
+				summary(RequestConstraints.check(filter))
+		);
+
+		TransactionValidationRequest validation = new TransactionValidationRequest(
+				null,
+				List.of(new TransactionOutput(DATE, 250.0, 300.0, 50.0), new TransactionOutput(DATE, 250.0, null, null))
+		);
+		assertEquals(
+				Set.of("wage NotNull", "transactions[1].ceiling NotNull", "transactions[1].remanent NotNull"),
+				summary(RequestConstraints.check(validation))
+		);
+
+		CombinedReturnsCalculationRequest returns = new CombinedReturnsCalculationRequest(
+				-1,
+				Double.NaN,
+				-2.0,
+				null,
+				null,
+				null,
+				null,
+				List.of(new InstrumentRateInput(" ", 7.0), new InstrumentRateInput("gold", -1.0))
+		);
+		assertEquals(
+				Set.of(
+						"age Min",
+						"wage Positive",
+						"inflation PositiveOrZero",
+						"q PeriodsOrRuleSet",
+						"p PeriodsOrRuleSet",
+						"k PeriodsOrRuleSet",
+						"transactions NotNull",
+						"instruments[0].name NotBlank",
+						"instruments[1].rate PositiveOrZero"
+				),
+				summary(RequestConstraints.check(returns))
+		);
+
+	}
+
+	@Test
+	void rejectsBareExpenseListsWithEveryViolation() {
+		InvalidRequestException rejected = assertThrows(
+				InvalidRequestException.class,
+				() -> RequestConstraints.requireValidExpenses(Arrays.asList(
+						new ExpenseInput(DATE, 1.0),
+						new ExpenseInput(DATE, null),
+						new ExpenseInput(null, null)
+				))
+		);
+		assertEquals(
+				"Invalid expenses: [1].amount must not be null; [2].date must not be null; [2].amount must not be null",
+				rejected.getMessage()
+		);
+	}
+
+	@Test
+	void requiresPeriodsOrARuleSet() {
+		List<KPeriodInput> k = List.of(new KPeriodInput(DATE, DATE));
+		assertEquals(
+				Set.of("k PeriodsOrRuleSet"),
+				summary(RequestConstraints.check(new TransactionFilterRequest(List.of(), List.of(), null, 1.0, List.of())))
+		);
+		assertEquals(
+				Set.of("ruleSetId PeriodsOrRuleSet"),
+				summary(RequestConstraints.check(new TransactionFilterRequest(null, null, k, 1.0, List.of(), "weekly")))
+		);
+		assertEquals(
+				Set.of("q PeriodsOrRuleSet", "p PeriodsOrRuleSet", "k PeriodsOrRuleSet"),
+				summary(RequestConstraints.check(new ReturnsCalculationRequest(30, 1.0, 0.0, null, null, null, List.of())))
+		);
+		assertEquals(List.of(), RequestConstraints.check(new TransactionFilterRequest(List.of(), List.of(), List.of(), 1.0, List.of(), "weekly")));
+	}
+
+	@Test
+	void leavesOtherBodiesToTheReflectiveValidator() {
+		assertNull(RequestConstraints.check(new RuleSetRequest(List.of(), List.of(), List.of())));
+		assertNull(RequestConstraints.check(List.of("not an expense")));
+		assertNull(RequestConstraints.check("body"));
+	}
+
+	private static Set<String> summary(List<RequestConstraints.Violation> violations) {
+		assertTrue(violations.stream().allMatch(violation -> !violation.message().isEmpty()));
+		return violations.stream()
+				.map(violation -> violation.field() + " " + violation.constraint())
+				.collect(Collectors.toSet());
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.EndpointTelemetryOutput;
+import com.example.retirementsavings.api.dto.WindowTelemetryOutput;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestTelemetryTest {
+
+	private static final String ENDPOINT = "POST /blackrock/challenge/v1/transactions:filter";
+
+	@Test
+	void reportsPercentilesWithinBucketPrecision() {
+		AtomicLong clock = new AtomicLong(1_000_000_000L);
+		RequestTelemetry telemetry = new RequestTelemetry(clock::get);
+
+		// 1 ms .. 1000 ms, one request each.
+		for (int millis = 1; millis <= 1_000; millis++) {
+			telemetry.record(ENDPOINT, millis * 1_000_000L, 500_000L, 1_024L, millis % 100 == 0);
+		}
+
+		WindowTelemetryOutput minute = window(telemetry.snapshot(), "1m");
+		assertEquals(1_000, minute.requests());
+		assertEquals(10, minute.failures());
+		assertEquals(1_000 / 60.0, minute.throughputPerSecond(), 1e-9);
+		assertWithin(500.0, minute.p50Ms());
+		assertWithin(950.0, minute.p95Ms());
+		assertWithin(990.0, minute.p99Ms());
+		assertEquals(1_000.0, minute.maxMs());
+		assertEquals(500.0, minute.cpuTimeMs(), 1e-9);
+		assertEquals(1_024_000L, minute.allocatedBytes());
+	}
+
+	@Test
+	void dropsSamplesOnceTheyLeaveTheWindow() {
+		AtomicLong clock = new AtomicLong(1_000_000_000L);
+		RequestTelemetry telemetry = new RequestTelemetry(clock::get);
+
+		telemetry.record(ENDPOINT, 5_000_000L, 0, 0, false);
+		clock.addAndGet(2 * 60_000L);
+		telemetry.record(ENDPOINT, 7_000_000L, 0, 0, false);
+
+		List<EndpointTelemetryOutput> snapshot = telemetry.snapshot();
+		assertEquals(1, window(snapshot, "1m").requests());
+		assertEquals(7.0, window(snapshot, "1m").maxMs());
+		assertEquals(2, window(snapshot, "5m").requests());
+		assertEquals(2, window(snapshot, "15m").requests());
+
+		clock.addAndGet(14 * 60_000L);
+		snapshot = telemetry.snapshot();
+		assertEquals(0, window(snapshot, "1m").requests());
+		assertEquals(0.0, window(snapshot, "1m").p99Ms());
+		assertEquals(1, window(snapshot, "15m").requests());
+
+		// A slot reused by the ring after a full lap must not carry the old counts.
+		clock.addAndGet(15 * 60_000L);
+		telemetry.record(ENDPOINT, 3_000_000L, 0, 0, false);
+		assertEquals(1, window(telemetry.snapshot(), "15m").requests());
+	}
+
+	@Test
+	void bucketsCoverEveryValueWithinOneSixteenth() {
+		for (long value = 0; value < 1L << 32; value = value * 3 / 2 + 1) {
+			int bucket = RollingLatencyWindow.bucketIndex(value);
+			long upper = RollingLatencyWindow.highestEquivalentValue(bucket);
+			assertTrue(upper >= value, "value " + value);
+			assertTrue(upper - value <= value / 16, "value " + value);
+			assertTrue(bucket == 0 || RollingLatencyWindow.highestEquivalentValue(bucket - 1) < value, "value " + value);
+		}
+		assertEquals(RollingLatencyWindow.BUCKET_COUNT - 1, RollingLatencyWindow.bucketIndex((1L << 32) - 1));
+	}
+
+	private static WindowTelemetryOutput window(List<EndpointTelemetryOutput> snapshot, String label) {
+		assertEquals(1, snapshot.size());
+		assertEquals(ENDPOINT, snapshot.get(0).endpoint());
+		return snapshot.get(0).windows().stream()
+				.filter(window -> window.window().equals(label))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private static void assertWithin(double expectedMs, double actualMs) {
+		assertTrue(actualMs >= expectedMs && actualMs <= expectedMs * (1 + 1.0 / 16), "expected ~" + expectedMs + " but was " + actualMs);
+	}
+}
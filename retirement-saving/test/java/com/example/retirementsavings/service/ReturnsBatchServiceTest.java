@@ -0,0 +1,122 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.BatchReturnsOutput;
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReturnsBatchServiceTest {
+
+	private final JsonMapper jsonMapper = new JsonMapper();
+	private final TransactionRulesService rules = new TransactionRulesService();
+	private final ReturnsCalculationService returnsService = new ReturnsCalculationService(
+			new TransactionFilterService(new TransactionBuilder(), rules)
+	);
+
+	@Test
+	void matchesSingleRequestsInInputOrder() throws IOException {
+		List<ReturnsCalculationRequest> requests = new ArrayList<>();
+		StringBuilder input = new StringBuilder();
+		for (long seed = 0; seed < 60; seed++) {
+			ReturnsCalculationRequest request = randomRequest(new Random(seed));
+			requests.add(request);
+			input.append(jsonMapper.writeValueAsString(request)).append('\n');
+		}
+		// A window smaller than the batch makes the reader wait on the oldest record many times.
+		ReturnsBatchService service = new ReturnsBatchService(returnsService, jsonMapper, 3, 4);
+		try {
+			for (ReturnsResultCache.Mode mode : ReturnsResultCache.Mode.values()) {
+				ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+				ReturnsBatchService.BatchCounts counts = service.calculate(mode, stream(input.toString()), output);
+
+				assertEquals(requests.size(), counts.succeeded());
+				assertEquals(0, counts.failed());
+				List<BatchReturnsOutput> results = read(output);
+				assertEquals(requests.size(), results.size());
+				for (int i = 0; i < requests.size(); i++) {
+					assertEquals(i + 1, results.get(i).record());
+					assertEquals(BatchReturnsOutput.OK, results.get(i).status());
+					assertEquals(
+							mode == ReturnsResultCache.Mode.NPS
+									? returnsService.calculateNps(requests.get(i))
+									: returnsService.calculateIndex(requests.get(i)),
+							results.get(i).result(),
+							mode + " record " + (i + 1)
+					);
+				}
+			}
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	void failingUsersOnlyFailTheirOwnRecord() throws IOException {
+		String valid = jsonMapper.writeValueAsString(randomRequest(new Random(7)));
+		String input = valid + "\n"
+				+ "{\"age\":30,\"wage\":\n"
+				+ "{\"age\":30,\"inflation\":5.5,\"transactions\":[]}\n"
+				+ "\n"
+				+ "{\"age\":30,\"wage\":50000,\"inflation\":5.5,\"transactions\":[],\"ruleSetId\":\"missing\"}\n"
+				+ valid + "\n";
+		ReturnsBatchService service = new ReturnsBatchService(returnsService, jsonMapper, 2, 2);
+		try {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+			ReturnsBatchService.BatchCounts counts = service.calculate(ReturnsResultCache.Mode.NPS, stream(input), output);
+
+			assertEquals(2, counts.succeeded());
+			assertEquals(3, counts.failed());
+			List<BatchReturnsOutput> results = read(output);
+			assertEquals(5, results.size());
+			assertEquals(BatchReturnsOutput.OK, results.get(0).status());
+			assertNull(results.get(0).message());
+			assertEquals(BatchReturnsOutput.FAILED, results.get(1).status());
+			assertNull(results.get(1).result());
+			assertEquals("wage: must not be null", results.get(2).message());
+			assertEquals("Unknown or expired rule set: missing", results.get(3).message());
+			assertEquals(results.get(0).result(), results.get(4).result());
+			assertEquals(5, results.get(4).record());
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	private List<BatchReturnsOutput> read(ByteArrayOutputStream output) throws IOException {
+		List<BatchReturnsOutput> results = new ArrayList<>();
+		for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+			results.add(jsonMapper.readValue(line, BatchReturnsOutput.class));
+		}
+		return results;
+	}
+
+	private static ReturnsCalculationRequest randomRequest(Random random) {
+		TransactionFilterRequest filterRequest = TransactionFilterServiceTest.randomRequest(random);
+		return new ReturnsCalculationRequest(
+				18 + random.nextInt(60),
+				10_000.0 + random.nextInt(200_000),
+				random.nextInt(80) / 10.0,
+				filterRequest.q(),
+				filterRequest.p(),
+				filterRequest.k(),
+				filterRequest.transactions()
+		);
+	}
+
+	private static ByteArrayInputStream stream(String input) {
+		return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -1,19 +1,33 @@
 package com.example.retirementsavings.service;
 
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.CombinedReturnsCalculationResponse;
 import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.InstrumentRateInput;
 import com.example.retirementsavings.api.dto.KPeriodInput;
 import com.example.retirementsavings.api.dto.PPeriodInput;
+import com.example.retirementsavings.api.dto.PricingRequest;
 import com.example.retirementsavings.api.dto.QPeriodInput;
 import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
 import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
 import com.example.retirementsavings.api.dto.SavingsByDateOutput;
+import com.example.retirementsavings.api.dto.TaxSlabInput;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import com.example.retirementsavings.api.dto.TransactionOutput;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ReturnsCalculationServiceTest {
 
@@ -24,7 +38,7 @@ class ReturnsCalculationServiceTest {
 		TransactionBuilder builder = new TransactionBuilder();
 		TransactionRulesService rules = new TransactionRulesService();
 		TransactionFilterService filterService = new TransactionFilterService(builder, rules);
-		ReturnsCalculationService service = new ReturnsCalculationService(builder, rules, filterService);
+		ReturnsCalculationService service = new ReturnsCalculationService(filterService);
 
 		ReturnsCalculationRequest request = new ReturnsCalculationRequest(
 				29,
@@ -76,4 +90,169 @@ class ReturnsCalculationServiceTest {
 		assertEquals(44.94, marchToNov.profit(), 0.01);
 		assertEquals(0.0, marchToNov.taxBenefit(), 0.01);
 	}
+
+	@Test
+	void periodAmountsMatchDirectSummation() {
+		TransactionBuilder builder = new TransactionBuilder();
+		TransactionRulesService rules = new TransactionRulesService();
+		TransactionFilterService filterService = new TransactionFilterService(builder, rules);
+		ReturnsCalculationService service = new ReturnsCalculationService(filterService);
+
+		for (long seed = 0; seed < 200; seed++) {
+			TransactionFilterRequest filterRequest = TransactionFilterServiceTest.randomRequest(new Random(seed));
+			ReturnsCalculationRequest request = new ReturnsCalculationRequest(
+					35,
+					50_000.0,
+					5.5,
+					filterRequest.q(),
+					filterRequest.p(),
+					filterRequest.k(),
+					filterRequest.transactions()
+			);
+			List<TransactionOutput> valid = filterService.filter(filterRequest).valid();
+
+			ReturnsCalculationResponse response = service.calculateIndex(request);
+
+			assertEquals(request.k().size(), response.savingsByDates().size());
+			for (int i = 0; i < request.k().size(); i++) {
+				KPeriodInput period = request.k().get(i);
+				double expected = valid.stream()
+						.filter(transaction -> !transaction.getDate().isBefore(period.start())
+								&& !transaction.getDate().isAfter(period.end()))
+						.mapToDouble(TransactionOutput::getRemanent)
+						.sum();
+				assertEquals(round2(expected), response.savingsByDates().get(i).amount(), 1e-9, "seed " + seed + ", k " + i);
+			}
+		}
+	}
+
+	@Test
+	void combinedCalculationMatchesSeparateCalls() {
+		TransactionBuilder builder = new TransactionBuilder();
+		TransactionRulesService rules = new TransactionRulesService();
+		TransactionFilterService filterService = new TransactionFilterService(builder, rules);
+		ReturnsCalculationService service = new ReturnsCalculationService(filterService);
+
+		for (long seed = 0; seed < 50; seed++) {
+			TransactionFilterRequest filterRequest = TransactionFilterServiceTest.randomRequest(new Random(seed));
+			ReturnsCalculationRequest request = new ReturnsCalculationRequest(
+					29,
+					150_000.0,
+					5.5,
+					filterRequest.q(),
+					filterRequest.p(),
+					filterRequest.k(),
+					filterRequest.transactions()
+			);
+			CombinedReturnsCalculationRequest combinedRequest = new CombinedReturnsCalculationRequest(
+					request.age(),
+					request.wage(),
+					request.inflation(),
+					request.q(),
+					request.p(),
+					request.k(),
+					request.transactions(),
+					List.of(new InstrumentRateInput("index-equivalent", 14.49))
+			);
+
+			CombinedReturnsCalculationResponse combined = service.calculateAll(combinedRequest);
+
+			assertSameReturns(service.calculateNps(request), combined.nps());
+			assertSameReturns(service.calculateIndex(request), combined.index());
+			assertEquals(1, combined.instruments().size());
+			assertEquals("index-equivalent", combined.instruments().get(0).name());
+			assertEquals(combined.index().savingsByDates(), combined.instruments().get(0).savingsByDates());
+		}
+	}
+
+	@Test
+	void pricesAgainstTheActiveTable() {
+		TransactionFilterService filterService = new TransactionFilterService(new TransactionBuilder(), new TransactionRulesService());
+		PricingRegistry pricing = new PricingRegistry();
+		ReturnsCalculationService service = new ReturnsCalculationService(
+				filterService,
+				PipelineMetrics.noop(),
+				ReturnsResultCache.disabled(),
+				pricing
+		);
+		TransactionFilterRequest filterRequest = TransactionFilterServiceTest.randomRequest(new Random(5));
+		ReturnsCalculationRequest request = new ReturnsCalculationRequest(
+				29,
+				150_000.0,
+				5.5,
+				filterRequest.q(),
+				filterRequest.p(),
+				filterRequest.k(),
+				filterRequest.transactions()
+		);
+		ReturnsCalculationResponse before = service.calculateNps(request);
+		assertEquals(new ReturnsCalculationService(filterService).calculateNps(request), before);
+
+		pricing.replace(new PricingRequest(
+				List.of(new TaxSlabInput(0.0, 0.30)),
+				1_000_000.0,
+				1.0,
+				Map.of(Pricing.NPS, 7.11, Pricing.INDEX, 9.0, "gold", 14.49)
+		));
+		ReturnsCalculationResponse after = service.calculateNps(request);
+		assertFalse(after.savingsByDates().isEmpty());
+		for (int i = 0; i < after.savingsByDates().size(); i++) {
+			SavingsByDateOutput period = after.savingsByDates().get(i);
+			assertEquals(before.savingsByDates().get(i).profit(), period.profit());
+			assertEquals(round2(period.amount() * 0.30), period.taxBenefit(), 0.011);
+		}
+
+		CombinedReturnsCalculationResponse combined = service.calculateAll(new CombinedReturnsCalculationRequest(
+				request.age(),
+				request.wage(),
+				request.inflation(),
+				request.q(),
+				request.p(),
+				request.k(),
+				request.transactions(),
+				List.of(new InstrumentRateInput("gold", null))
+		));
+		assertEquals(14.49, combined.instruments().get(0).rate());
+		assertEquals(
+				new ReturnsCalculationService(filterService).calculateIndex(request).savingsByDates(),
+				combined.instruments().get(0).savingsByDates()
+		);
+		assertThrows(InvalidRequestException.class, () -> service.calculateAll(new CombinedReturnsCalculationRequest(
+				request.age(),
+				request.wage(),
+				request.inflation(),
+				request.q(),
+				request.p(),
+				request.k(),
+				request.transactions(),
+				List.of(new InstrumentRateInput("silver", null))
+		)));
+	}
+
+	@Test
+	void memoizedGrowthMatchesCompoundingPerPeriod() {
+		Random random = new Random(7);
+		for (int i = 0; i < 10_000; i++) {
+			double annualRate = random.nextBoolean() ? 0.0711 : random.nextInt(3000) / 10_000.0;
+			double inflation = random.nextInt(1500) / 100.0;
+			int years = 1 + random.nextInt(60);
+			double principal = random.nextInt(10) == 0 ? -random.nextDouble() : random.nextDouble() * 1_000_000.0;
+			double expected = principal <= 0
+					? 0.0
+					: principal * Math.pow(1 + annualRate, years) / Math.pow(1 + inflation / 100.0, years) - principal;
+
+			assertEquals(expected, GrowthFactors.of(annualRate, inflation, years).inflationAdjustedProfit(principal));
+		}
+		assertSame(GrowthFactors.of(0.0711, 5.5, 31), GrowthFactors.of(0.0711, 5.5, 31));
+	}
+
+	private static void assertSameReturns(ReturnsCalculationResponse expected, ReturnsCalculationResponse actual) {
+		assertEquals(expected.totalTransactionAmount(), actual.totalTransactionAmount());
+		assertEquals(expected.totalCeiling(), actual.totalCeiling());
+		assertEquals(expected.savingsByDates(), actual.savingsByDates());
+	}
+
+	private static double round2(double value) {
+		return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+	}
 }
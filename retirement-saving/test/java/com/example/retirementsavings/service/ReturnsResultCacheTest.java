@@ -0,0 +1,115 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ReturnsResultCacheTest {
+
+	@Test
+	void answersRepeatedRequestsFromTheCache() {
+		ReturnsCalculationService uncached = new ReturnsCalculationService(
+				new TransactionFilterService(new TransactionBuilder(), new TransactionRulesService())
+		);
+		ReturnsCalculationService cached = new ReturnsCalculationService(
+				new TransactionFilterService(new TransactionBuilder(), new TransactionRulesService()),
+				PipelineMetrics.noop(),
+				new ReturnsResultCache(1 << 20, Duration.ofMinutes(1), new SimpleMeterRegistry())
+		);
+		ReturnsCalculationRequest request = randomRequest(11);
+
+		ReturnsCalculationResponse first = cached.calculateNps(request);
+		// An equal payload deserialized again is a different object graph with the same content.
+		ReturnsCalculationResponse second = cached.calculateNps(randomRequest(11));
+		ReturnsCalculationResponse index = cached.calculateIndex(request);
+
+		assertSame(first, second);
+		assertNotSame(first, index);
+		assertEquals(uncached.calculateNps(request), first);
+		assertEquals(uncached.calculateIndex(request), index);
+	}
+
+	@Test
+	void keysDependOnEveryFieldAndTheMode() {
+		ReturnsCalculationRequest request = randomRequest(7);
+		ReturnsResultCache.Key key = keyOf(request, ReturnsResultCache.Mode.NPS);
+
+		assertEquals(key, keyOf(randomRequest(7), ReturnsResultCache.Mode.NPS));
+		assertNotEquals(key, keyOf(request, ReturnsResultCache.Mode.INDEX));
+		assertNotEquals(key, keyOf(withAge(request, request.age() + 1), ReturnsResultCache.Mode.NPS));
+		assertNotEquals(key, ReturnsResultCache.keyOf(
+				request,
+				null,
+				new PricingRegistry().replace(PricingRegistryTest.defaultsRequest()),
+				ReturnsResultCache.Mode.NPS
+		));
+
+		List<ExpenseInput> transactions = new ArrayList<>(request.transactions());
+		ExpenseInput last = transactions.get(transactions.size() - 1);
+		transactions.set(transactions.size() - 1, new ExpenseInput(last.getDate(), Math.nextUp(last.getAmount())));
+		assertNotEquals(key, keyOf(withTransactions(request, transactions), ReturnsResultCache.Mode.NPS));
+
+		// -0.0 and 0.0 are the same amount for every calculation, so they share a key.
+		transactions.set(transactions.size() - 1, new ExpenseInput(last.getDate(), -0.0));
+		ReturnsCalculationRequest negativeZero = withTransactions(request, transactions);
+		transactions.set(transactions.size() - 1, new ExpenseInput(last.getDate(), 0.0));
+		assertEquals(
+				keyOf(negativeZero, ReturnsResultCache.Mode.NPS),
+				keyOf(withTransactions(request, transactions), ReturnsResultCache.Mode.NPS)
+		);
+	}
+
+	@Test
+	void keysWithTheSameHashButDifferentContentDoNotMatch() {
+		ReturnsResultCache.Key key = keyOf(randomRequest(7), ReturnsResultCache.Mode.NPS);
+		long[] content = key.content().clone();
+		content[content.length - 1] ^= 1;
+		ReturnsResultCache.Key collision = new ReturnsResultCache.Key(key.high(), key.low(), key.mode(), content);
+
+		assertEquals(key.hashCode(), collision.hashCode());
+		assertNotEquals(key, collision);
+		assertEquals(key, new ReturnsResultCache.Key(key.high(), key.low(), key.mode(), key.content().clone()));
+	}
+
+	private static ReturnsResultCache.Key keyOf(ReturnsCalculationRequest request, ReturnsResultCache.Mode mode) {
+		return ReturnsResultCache.keyOf(request, null, Pricing.defaults(), mode);
+	}
+
+	private static ReturnsCalculationRequest randomRequest(long seed) {
+		TransactionFilterRequest filterRequest;
+		Random random = new Random(seed);
+		do {
+			filterRequest = TransactionFilterServiceTest.randomRequest(random);
+		} while (filterRequest.transactions().isEmpty() || filterRequest.k().isEmpty());
+		return new ReturnsCalculationRequest(
+				29,
+				50_000.0,
+				5.5,
+				filterRequest.q(),
+				filterRequest.p(),
+				filterRequest.k(),
+				filterRequest.transactions()
+		);
+	}
+
+	private static ReturnsCalculationRequest withAge(ReturnsCalculationRequest request, int age) {
+		return new ReturnsCalculationRequest(age, request.wage(), request.inflation(), request.q(), request.p(), request.k(), request.transactions());
+	}
+
+	private static ReturnsCalculationRequest withTransactions(ReturnsCalculationRequest request, List<ExpenseInput> transactions) {
+		return new ReturnsCalculationRequest(request.age(), request.wage(), request.inflation(), request.q(), request.p(), request.k(), transactions);
+	}
+}
@@ -1,12 +1,18 @@
 package com.example.retirementsavings.service;
 
+import com.example.retirementsavings.api.dto.ExpenseInput;
 import com.example.retirementsavings.api.dto.TransactionOutput;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TransactionBuilderTest {
 
@@ -33,4 +39,95 @@ class TransactionBuilderTest {
 		assertEquals(400.0, result.getCeiling());
 		assertEquals(0.0, result.getRemanent());
 	}
+
+	@Test
+	void batchMatchesPerTransactionCalculation() {
+		TransactionBuilder builder = new TransactionBuilder();
+		List<ExpenseInput> expenses = randomExpenses(1_000, 7L);
+
+		TransactionBatch batch = builder.getCeilingAndRemnantForBatch(expenses);
+		List<TransactionOutput> outputs = builder.getCeilingAndRemnantForTranscations(expenses);
+
+		assertEquals(expenses.size(), batch.size());
+		for (int i = 0; i < expenses.size(); i++) {
+			assertEquals(TransactionBatch.toEpochSecond(expenses.get(i).getDate()), batch.epochSeconds()[i]);
+			assertEquals(outputs.get(i).getAmount(), batch.amount()[i]);
+			assertEquals(outputs.get(i).getCeiling(), batch.ceiling()[i]);
+			assertEquals(outputs.get(i).getRemanent(), batch.remanent()[i]);
+		}
+	}
+
+	@Test
+	void vectorizedPathMatchesScalarPathBitForBit() {
+		TransactionBuilder scalar = new TransactionBuilder();
+		TransactionBuilder vectorized = new TransactionBuilder(true);
+		assertTrue(vectorized.isVectorized(), "tests run with --add-modules jdk.incubator.vector");
+		double[] edges = {
+				0.0, -0.0, 0.01, -0.01, 49.99, 50.0, 99.99, 100.0, 100.01, -100.0, -149.5, -250.0,
+				Math.ulp(100.0), 100.0 + Math.ulp(100.0), 100.0 - Math.ulp(100.0), Double.MIN_VALUE,
+				0x1p52 * 100.0 - 50.0, 0x1p52 * 100.0, 0x1p53 * 100.0, -0x1p52 * 100.0 + 50.0,
+				Double.MAX_VALUE, -Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN
+		};
+		Random random = new Random(13);
+		double[] amounts = new double[10_007];
+		for (int i = 0; i < amounts.length; i++) {
+			amounts[i] = switch (i % 4) {
+				case 0 -> edges[random.nextInt(edges.length)];
+				case 1 -> Math.round(random.nextDouble() * 100_000.0) / 100.0;
+				case 2 -> (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20));
+				default -> Double.longBitsToDouble(random.nextLong());
+			};
+		}
+
+		// Odd bounds exercise the scalar tail after the last full vector.
+		for (int[] range : new int[][] {{0, amounts.length}, {3, 3}, {5, 6}, {1, amounts.length - 2}}) {
+			double[] expectedCeiling = new double[amounts.length];
+			double[] expectedRemanent = new double[amounts.length];
+			double[] actualCeiling = new double[amounts.length];
+			double[] actualRemanent = new double[amounts.length];
+			scalar.calculateCeilingAndRemanent(amounts, expectedCeiling, expectedRemanent, range[0], range[1]);
+			vectorized.calculateCeilingAndRemanent(amounts, actualCeiling, actualRemanent, range[0], range[1]);
+			for (int i = 0; i < amounts.length; i++) {
+				// assertEquals(double, double) compares bits, so -0.0 and 0.0 are told apart.
+				assertEquals(expectedCeiling[i], actualCeiling[i], "ceiling of " + amounts[i]);
+				assertEquals(expectedRemanent[i], actualRemanent[i], "remanent of " + amounts[i]);
+			}
+		}
+	}
+
+	@Test
+	void batchAllocatesLessThanTransactionOutputs() {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean)
+				|| !threadMXBean.isThreadAllocatedMemorySupported()) {
+			return;
+		}
+		threadMXBean.setThreadAllocatedMemoryEnabled(true);
+		TransactionBuilder builder = new TransactionBuilder();
+		List<ExpenseInput> expenses = randomExpenses(200_000, 11L);
+		// Warm both paths so class loading and JIT do not skew the comparison.
+		builder.getCeilingAndRemnantForBatch(expenses);
+		builder.getCeilingAndRemnantForTranscations(expenses);
+
+		long threadId = Thread.currentThread().getId();
+		long before = threadMXBean.getThreadAllocatedBytes(threadId);
+		builder.getCeilingAndRemnantForTranscations(expenses);
+		long dtoBytes = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+		before = threadMXBean.getThreadAllocatedBytes(threadId);
+		builder.getCeilingAndRemnantForBatch(expenses);
+		long batchBytes = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+		assertTrue(batchBytes < dtoBytes, "batch=" + batchBytes + " bytes, dto=" + dtoBytes + " bytes");
+	}
+
+	private List<ExpenseInput> randomExpenses(int count, long seed) {
+		Random random = new Random(seed);
+		LocalDateTime base = LocalDateTime.parse("2023-01-01 00:00:00", FORMAT);
+		List<ExpenseInput> expenses = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			double amount = Math.round(random.nextDouble() * 100_000.0) / 100.0;
+			expenses.add(new ExpenseInput(base.plusSeconds(random.nextInt(31_536_000)), amount));
+		}
+		return expenses;
+	}
 }
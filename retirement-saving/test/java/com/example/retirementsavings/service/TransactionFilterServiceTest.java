@@ -1,6 +1,7 @@
 package com.example.retirementsavings.service;
 
 import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.InvalidTransactionOutput;
 import com.example.retirementsavings.api.dto.KPeriodInput;
 import com.example.retirementsavings.api.dto.PPeriodInput;
 import com.example.retirementsavings.api.dto.QPeriodInput;
@@ -11,7 +12,12 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -65,4 +71,182 @@ class TransactionFilterServiceTest {
 		assertTrue(first.getInKPeriod());
 		assertTrue(second.getInKPeriod());
 	}
+
+	@Test
+	void matchesReferenceImplementationOnRandomRequests() {
+		TransactionFilterService service = new TransactionFilterService(new TransactionBuilder(), new TransactionRulesService());
+		ReferenceTransactionFilter reference = new ReferenceTransactionFilter();
+
+		for (long seed = 0; seed < 500; seed++) {
+			TransactionFilterRequest request = randomRequest(new Random(seed));
+			assertSameResponse(reference.filter(request), service.filter(request), "seed " + seed);
+		}
+	}
+
+	@Test
+	void exposesTotalsOfFirstOccurrenceNonNegativeTransactions() {
+		TransactionBuilder builder = new TransactionBuilder();
+		TransactionFilterService service = new TransactionFilterService(builder, new TransactionRulesService());
+
+		for (long seed = 0; seed < 200; seed++) {
+			TransactionFilterRequest request = randomRequest(new Random(seed));
+			Set<String> seen = new HashSet<>();
+			List<ExpenseInput> accepted = request.transactions().stream()
+					.filter(transaction -> seen.add(transaction.getDate() + "|" + transaction.getAmount()))
+					.filter(transaction -> transaction.getAmount() >= 0)
+					.toList();
+
+			TransactionFilterResult result = service.process(request);
+
+			assertEquals(
+					accepted.stream().mapToDouble(ExpenseInput::getAmount).sum(),
+					result.totalTransactionAmount(),
+					1e-6
+			);
+			assertEquals(
+					builder.getCeilingAndRemnantForTranscations(accepted).stream().mapToDouble(TransactionOutput::getCeiling).sum(),
+					result.totalCeiling(),
+					1e-6
+			);
+		}
+	}
+
+	@Test
+	void parallelModeMatchesSequentialModeBitForBit() {
+		TransactionBuilder builder = new TransactionBuilder();
+		TransactionRulesService rules = new TransactionRulesService();
+		TransactionFilterService sequential = new TransactionFilterService(builder, rules);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			// Tiny chunks so that even small random requests are split at many timestamps.
+			TransactionFilterService parallel = new TransactionFilterService(builder, rules, 0, 1, pool, PipelineMetrics.noop());
+			for (long seed = 0; seed < 500; seed++) {
+				TransactionFilterRequest request = randomRequest(new Random(seed));
+				String context = "seed " + seed;
+				TransactionFilterResult expected = sequential.process(request);
+				TransactionFilterResult actual = parallel.process(request);
+
+				assertEquals(expected.totalTransactionAmount(), actual.totalTransactionAmount(), context);
+				assertEquals(expected.totalCeiling(), actual.totalCeiling(), context);
+				TransactionFilterResponse expectedResponse = sequential.filter(request);
+				TransactionFilterResponse actualResponse = parallel.filter(request);
+				assertEquals(expectedResponse.valid().size(), actualResponse.valid().size(), context);
+				for (int i = 0; i < expectedResponse.valid().size(); i++) {
+					TransactionOutput expectedTransaction = expectedResponse.valid().get(i);
+					TransactionOutput actualTransaction = actualResponse.valid().get(i);
+					assertEquals(expectedTransaction.getDate(), actualTransaction.getDate(), context);
+					assertEquals(expectedTransaction.getAmount(), actualTransaction.getAmount(), context);
+					// Double.equals compares the exact bits.
+					assertEquals(expectedTransaction.getRemanent(), actualTransaction.getRemanent(), context);
+					assertEquals(expectedTransaction.getInKPeriod(), actualTransaction.getInKPeriod(), context);
+				}
+				assertSameResponse(expectedResponse, actualResponse, context);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void registeredRuleSetsFilterLikeInlinePeriods() {
+		TransactionRulesService rules = new TransactionRulesService();
+		TransactionFilterService service = new TransactionFilterService(new TransactionBuilder(), rules);
+
+		for (long seed = 0; seed < 200; seed++) {
+			TransactionFilterRequest inline = randomRequest(new Random(seed));
+			rules.registerRuleSet("calendar", inline.q(), inline.p(), inline.k());
+			TransactionFilterRequest byId = new TransactionFilterRequest(null, null, null, inline.wage(), inline.transactions(), "calendar");
+
+			TransactionFilterResponse expected = service.filter(inline);
+			TransactionFilterResponse actual = service.filter(byId);
+			assertSameResponse(expected, actual, "seed " + seed);
+			for (int i = 0; i < expected.valid().size(); i++) {
+				assertEquals(expected.valid().get(i).getRemanent(), actual.valid().get(i).getRemanent(), "seed " + seed);
+			}
+		}
+	}
+
+	// Duplicates share a timestamp, so the dedup set never has to hold more than one run of them.
+	@Test
+	void deduplicatesEachRunOfEqualTimestampsOnItsOwn() {
+		int[] largestSet = new int[1];
+		TransactionRulesService rules = new TransactionRulesService() {
+			@Override
+			public FingerprintSet newExpenseFingerprintSet(int expectedSize) {
+				largestSet[0] = Math.max(largestSet[0], expectedSize);
+				return super.newExpenseFingerprintSet(expectedSize);
+			}
+		};
+		TransactionFilterService service = new TransactionFilterService(new TransactionBuilder(), rules);
+		LocalDateTime base = LocalDateTime.parse("2023-01-01 00:00:00", FORMAT);
+		List<ExpenseInput> transactions = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			transactions.add(new ExpenseInput(base.plusSeconds(10_000 - i), 250.0));
+		}
+		transactions.add(new ExpenseInput(base.plusSeconds(5), 250.0));
+		transactions.add(new ExpenseInput(base.plusSeconds(5), 120.0));
+		transactions.add(new ExpenseInput(base.plusSeconds(5), 250.0));
+
+		TransactionFilterResponse response = service.filter(new TransactionFilterRequest(List.of(), List.of(), List.of(), 50_000.0, transactions));
+
+		assertEquals(10_001, response.valid().size());
+		assertEquals(2, response.invalid().size());
+		assertEquals(base.plusSeconds(5), response.invalid().get(0).getDate());
+		assertEquals(250.0, response.invalid().get(0).getAmount());
+		assertEquals(250.0, response.invalid().get(1).getAmount());
+		assertEquals(4, largestSet[0]);
+	}
+
+	static TransactionFilterRequest randomRequest(Random random) {
+		LocalDateTime base = LocalDateTime.parse("2023-01-01 00:00:00", FORMAT);
+		// Small time spans force shared timestamps and transactions sitting exactly on period bounds.
+		int span = random.nextBoolean() ? 60 : 5_000;
+		int transactionCount = random.nextInt(80);
+		List<ExpenseInput> transactions = new ArrayList<>(transactionCount);
+		for (int i = 0; i < transactionCount; i++) {
+			if (i > 0 && random.nextInt(8) == 0) {
+				ExpenseInput original = transactions.get(random.nextInt(i));
+				transactions.add(new ExpenseInput(original.getDate(), original.getAmount()));
+				continue;
+			}
+			double amount = Math.round(random.nextDouble() * 100_000.0) / 100.0;
+			transactions.add(new ExpenseInput(base.plusSeconds(random.nextInt(span)), random.nextInt(10) == 0 ? -amount : amount));
+		}
+
+		List<QPeriodInput> q = new ArrayList<>();
+		List<PPeriodInput> p = new ArrayList<>();
+		List<KPeriodInput> k = new ArrayList<>();
+		int periodCount = random.nextInt(10);
+		for (int i = 0; i < periodCount; i++) {
+			LocalDateTime start = base.plusSeconds(random.nextInt(span));
+			q.add(new QPeriodInput(random.nextInt(4) * 12.5, start, start.plusSeconds(random.nextInt(span) - span / 10)));
+			start = base.plusSeconds(random.nextInt(span));
+			p.add(new PPeriodInput(random.nextInt(100) * 0.37, start, start.plusSeconds(random.nextInt(span) - span / 10)));
+			start = base.plusSeconds(random.nextInt(span));
+			k.add(new KPeriodInput(start, start.plusSeconds(random.nextInt(span) - span / 10)));
+		}
+		return new TransactionFilterRequest(q, p, k, 50_000.0, transactions);
+	}
+
+	static void assertSameResponse(TransactionFilterResponse expected, TransactionFilterResponse actual, String context) {
+		assertEquals(expected.valid().size(), actual.valid().size(), context);
+		for (int i = 0; i < expected.valid().size(); i++) {
+			TransactionOutput expectedTransaction = expected.valid().get(i);
+			TransactionOutput actualTransaction = actual.valid().get(i);
+			assertEquals(expectedTransaction.getDate(), actualTransaction.getDate(), context);
+			assertEquals(expectedTransaction.getAmount(), actualTransaction.getAmount(), context);
+			assertEquals(expectedTransaction.getCeiling(), actualTransaction.getCeiling(), context);
+			// Cumulative p extras may be summed in a different order, so allow for the last few ulps.
+			assertEquals(expectedTransaction.getRemanent(), actualTransaction.getRemanent(), 1e-9, context);
+			assertEquals(expectedTransaction.getInKPeriod(), actualTransaction.getInKPeriod(), context);
+		}
+		assertEquals(expected.invalid().size(), actual.invalid().size(), context);
+		for (int i = 0; i < expected.invalid().size(); i++) {
+			InvalidTransactionOutput expectedTransaction = expected.invalid().get(i);
+			InvalidTransactionOutput actualTransaction = actual.invalid().get(i);
+			assertEquals(expectedTransaction.getDate(), actualTransaction.getDate(), context);
+			assertEquals(expectedTransaction.getAmount(), actualTransaction.getAmount(), context);
+			assertEquals(expectedTransaction.getMessage(), actualTransaction.getMessage(), context);
+		}
+	}
 }
@@ -1,14 +1,23 @@
 package com.example.retirementsavings.service;
 
 import com.example.retirementsavings.api.dto.InvalidTransactionOutput;
+import com.example.retirementsavings.api.dto.KPeriodInput;
+import com.example.retirementsavings.api.dto.PPeriodInput;
+import com.example.retirementsavings.api.dto.QPeriodInput;
 import com.example.retirementsavings.api.dto.TransactionOutput;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TransactionRulesServiceTest {
 
@@ -50,4 +59,63 @@ class TransactionRulesServiceTest {
 		assertEquals(50.0, invalid.getRemanent());
 		assertEquals("Duplicate transaction", invalid.getMessage());
 	}
+
+	@Test
+	void fingerprintsDistinguishTheSameValuesAsTheirStringForm() {
+		TransactionRulesService rules = new TransactionRulesService();
+		long second = TransactionBatch.toEpochSecond(LocalDateTime.parse("2023-02-28 20:15:30", FORMAT));
+		FingerprintSet seen = rules.newExpenseFingerprintSet(8);
+
+		assertTrue(rules.markFirstOccurrence(seen, second, 250.0));
+		assertFalse(rules.markFirstOccurrence(seen, second, 250.0));
+		assertTrue(rules.markFirstOccurrence(seen, second + 1, 250.0));
+		assertTrue(rules.markFirstOccurrence(seen, second, 0.0));
+		// "-0.0" and "0.0" were different string fingerprints, and every NaN printed as "NaN".
+		assertTrue(rules.markFirstOccurrence(seen, second, -0.0));
+		assertTrue(rules.markFirstOccurrence(seen, second, Double.NaN));
+		assertFalse(rules.markFirstOccurrence(seen, second, Double.longBitsToDouble(0x7ff8000000000001L)));
+	}
+
+	@Test
+	void transactionFingerprintsIncludeCeilingAndRemanent() {
+		TransactionRulesService rules = new TransactionRulesService();
+		LocalDateTime date = LocalDateTime.parse("2023-02-28 20:15:30", FORMAT);
+		FingerprintSet seen = rules.newTransactionFingerprintSet(8);
+
+		assertTrue(rules.markFirstOccurrence(seen, new TransactionOutput(date, 250.0, 300.0, 50.0)));
+		assertFalse(rules.markFirstOccurrence(seen, new TransactionOutput(date, 250.0, 300.0, 50.0)));
+		assertTrue(rules.markFirstOccurrence(seen, new TransactionOutput(date, 250.0, 400.0, 150.0)));
+	}
+
+	@Test
+	void resolvesRegisteredRuleSetsById() {
+		TransactionRulesService rules = new TransactionRulesService();
+		LocalDateTime start = LocalDateTime.parse("2023-07-01 00:00:00", FORMAT);
+		LocalDateTime end = LocalDateTime.parse("2023-07-31 23:59:59", FORMAT);
+		List<QPeriodInput> q = List.of(new QPeriodInput(0.0, start, end));
+		List<PPeriodInput> p = List.of(new PPeriodInput(30.0, start, end));
+		List<KPeriodInput> k = List.of(new KPeriodInput(start, end));
+
+		RuleSet registered = rules.registerRuleSet("payroll-2023", q, p, k);
+		assertSame(registered, rules.resolveRuleSet("payroll-2023", null, null, null));
+		assertSame(registered, rules.resolveRuleSet("payroll-2023", List.of(), List.of(), List.of()));
+		assertEquals(k, registered.k());
+
+		RuleSet replaced = rules.registerRuleSet("payroll-2023", q, List.of(), k);
+		assertSame(replaced, rules.resolveRuleSet("payroll-2023", null, null, null));
+		assertNotEquals(registered.version(), replaced.version());
+
+		assertThrows(InvalidRequestException.class, () -> rules.resolveRuleSet("payroll-2023", q, null, null));
+		assertThrows(InvalidRequestException.class, () -> rules.resolveRuleSet(null, q, p, null));
+		assertThrows(InvalidRequestException.class, () -> rules.registerRuleSet("payroll 2023", q, p, k));
+		assertNull(rules.resolveRuleSet(null, q, p, k).id());
+		// Inline periods pass the same checks but are left for the caller to compile.
+		assertNull(rules.registeredRuleSet(null, q, p, k));
+		assertSame(replaced, rules.registeredRuleSet("payroll-2023", null, null, null));
+		assertThrows(InvalidRequestException.class, () -> rules.registeredRuleSet(null, q, p, null));
+
+		rules.deleteRuleSet("payroll-2023");
+		assertThrows(UnknownRuleSetException.class, () -> rules.resolveRuleSet("payroll-2023", null, null, null));
+		assertThrows(UnknownRuleSetException.class, () -> rules.deleteRuleSet("payroll-2023"));
+	}
 }
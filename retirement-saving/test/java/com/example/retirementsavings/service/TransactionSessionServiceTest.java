@@ -0,0 +1,184 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.KPeriodInput;
+import com.example.retirementsavings.api.dto.ReturnsCalculationRequest;
+import com.example.retirementsavings.api.dto.ReturnsCalculationResponse;
+import com.example.retirementsavings.api.dto.SavingsByDateOutput;
+import com.example.retirementsavings.api.dto.SessionCreateRequest;
+import com.example.retirementsavings.api.dto.SessionReturnsResponse;
+import com.example.retirementsavings.api.dto.TransactionFilterRequest;
+import com.example.retirementsavings.api.dto.TransactionFilterResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionSessionServiceTest {
+
+	@Test
+	void appendingInBatchesMatchesRecomputingTheWholeHistory() {
+		TransactionBuilder builder = new TransactionBuilder();
+		TransactionRulesService rules = new TransactionRulesService();
+		TransactionFilterService filterService = new TransactionFilterService(builder, rules);
+		ReturnsCalculationService returnsService = new ReturnsCalculationService(filterService);
+		TransactionSessionService sessions = newSessionService(builder, rules, returnsService);
+
+		for (long seed = 0; seed < 300; seed++) {
+			Random random = new Random(seed);
+			TransactionFilterRequest filterRequest = TransactionFilterServiceTest.randomRequest(random);
+			String context = "seed " + seed;
+			SessionReturnsResponse response = sessions.create(new SessionCreateRequest(
+					35,
+					filterRequest.wage(),
+					5.5,
+					filterRequest.q(),
+					filterRequest.p(),
+					filterRequest.k()
+			));
+			String sessionId = response.sessionId();
+			ReturnsCalculationResponse previousNps = response.nps();
+			ReturnsCalculationResponse previousIndex = response.index();
+			List<ExpenseInput> history = new ArrayList<>();
+			int invalid = 0;
+			List<ExpenseInput> transactions = filterRequest.transactions();
+			int position = 0;
+			while (position < transactions.size()) {
+				int batchSize = 1 + random.nextInt(8);
+				List<ExpenseInput> batch = transactions.subList(position, Math.min(transactions.size(), position + batchSize));
+				position += batch.size();
+				history.addAll(batch);
+				response = sessions.append(sessionId, batch);
+				invalid += response.invalid().size();
+
+				ReturnsCalculationRequest full = new ReturnsCalculationRequest(
+						35,
+						filterRequest.wage(),
+						5.5,
+						filterRequest.q(),
+						filterRequest.p(),
+						filterRequest.k(),
+						history
+				);
+				ReturnsCalculationResponse expectedNps = returnsService.calculateNps(full);
+				ReturnsCalculationResponse expectedIndex = returnsService.calculateIndex(full);
+				assertChangedWindows(previousNps, expectedNps, response.nps(), context);
+				assertChangedWindows(previousIndex, expectedIndex, response.index(), context);
+				SessionReturnsResponse current = sessions.get(sessionId);
+				assertSameReturns(expectedNps, current.nps(), context);
+				assertSameReturns(expectedIndex, current.index(), context);
+				previousNps = expectedNps;
+				previousIndex = expectedIndex;
+			}
+			TransactionFilterResponse filtered = filterService.filter(filterRequest);
+			assertEquals(filtered.invalid().size(), invalid, context);
+			sessions.delete(sessionId);
+		}
+	}
+
+	@Test
+	void appendsAnswerWithOnlyTheWindowsTheyChanged() {
+		TransactionBuilder builder = new TransactionBuilder();
+		TransactionRulesService rules = new TransactionRulesService();
+		TransactionSessionService sessions = newSessionService(
+				builder,
+				rules,
+				new ReturnsCalculationService(new TransactionFilterService(builder, rules))
+		);
+		KPeriodInput january = new KPeriodInput(LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2023, 1, 31, 23, 59, 59));
+		KPeriodInput february = new KPeriodInput(LocalDateTime.of(2023, 2, 1, 0, 0), LocalDateTime.of(2023, 2, 28, 23, 59, 59));
+		KPeriodInput year = new KPeriodInput(LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2023, 12, 31, 23, 59, 59));
+		String sessionId = sessions.create(new SessionCreateRequest(
+				30,
+				50_000.0,
+				5.5,
+				List.of(),
+				List.of(),
+				List.of(january, february, year)
+		)).sessionId();
+
+		SessionReturnsResponse appended = sessions.append(sessionId, List.of(new ExpenseInput(LocalDateTime.of(2023, 2, 10, 12, 0), 250.0)));
+
+		assertEquals(
+				List.of(february.start(), year.start()),
+				appended.nps().savingsByDates().stream().map(SavingsByDateOutput::start).toList()
+		);
+		assertEquals(50.0, appended.index().savingsByDates().get(0).amount());
+		assertEquals(3, sessions.get(sessionId).nps().savingsByDates().size());
+		// Nothing accepted (a duplicate) changes no window.
+		assertEquals(List.of(), sessions.append(sessionId, List.of(new ExpenseInput(LocalDateTime.of(2023, 2, 10, 12, 0), 250.0)))
+				.nps().savingsByDates());
+	}
+
+	@Test
+	void rejectsUnknownSessions() {
+		TransactionBuilder builder = new TransactionBuilder();
+		TransactionRulesService rules = new TransactionRulesService();
+		TransactionSessionService sessions = newSessionService(
+				builder,
+				rules,
+				new ReturnsCalculationService(new TransactionFilterService(builder, rules))
+		);
+		SessionReturnsResponse created = sessions.create(new SessionCreateRequest(30, 50_000.0, 5.5, List.of(), List.of(), List.of()));
+		sessions.delete(created.sessionId());
+
+		assertThrows(UnknownSessionException.class, () -> sessions.append(created.sessionId(), List.of()));
+		assertThrows(UnknownSessionException.class, () -> sessions.get("missing"));
+	}
+
+	private static TransactionSessionService newSessionService(
+			TransactionBuilder builder,
+			TransactionRulesService rules,
+			ReturnsCalculationService returnsService
+	) {
+		return new TransactionSessionService(builder, rules, returnsService, Duration.ofMinutes(5), 100);
+	}
+
+	private static void assertSameReturns(ReturnsCalculationResponse expected, ReturnsCalculationResponse actual, String context) {
+		assertEquals(expected.totalTransactionAmount(), actual.totalTransactionAmount(), context);
+		assertEquals(expected.totalCeiling(), actual.totalCeiling(), context);
+		assertEquals(expected.savingsByDates().size(), actual.savingsByDates().size(), context);
+		for (int i = 0; i < expected.savingsByDates().size(); i++) {
+			assertSamePeriod(expected.savingsByDates().get(i), actual.savingsByDates().get(i), context);
+		}
+	}
+
+	// An append answers with the windows it changed, in input order: every listed window matches the
+	// full recomputation, and every window left out is unchanged since the previous batch.
+	private static void assertChangedWindows(
+			ReturnsCalculationResponse previous,
+			ReturnsCalculationResponse expected,
+			ReturnsCalculationResponse actual,
+			String context
+	) {
+		assertEquals(expected.totalTransactionAmount(), actual.totalTransactionAmount(), context);
+		assertEquals(expected.totalCeiling(), actual.totalCeiling(), context);
+		int listed = 0;
+		for (int i = 0; i < expected.savingsByDates().size(); i++) {
+			SavingsByDateOutput expectedPeriod = expected.savingsByDates().get(i);
+			if (listed < actual.savingsByDates().size()
+					&& actual.savingsByDates().get(listed).start().equals(expectedPeriod.start())
+					&& actual.savingsByDates().get(listed).end().equals(expectedPeriod.end())) {
+				assertSamePeriod(expectedPeriod, actual.savingsByDates().get(listed++), context);
+			} else {
+				assertSamePeriod(expectedPeriod, previous.savingsByDates().get(i), context);
+			}
+		}
+		assertEquals(actual.savingsByDates().size(), listed, context);
+	}
+
+	private static void assertSamePeriod(SavingsByDateOutput expected, SavingsByDateOutput actual, String context) {
+		assertEquals(expected.start(), actual.start(), context);
+		assertEquals(expected.end(), actual.end(), context);
+		// Sums are accumulated in a different order, which can move a value across a rounding edge.
+		assertEquals(expected.amount(), actual.amount(), 0.01 + 1e-9, context);
+		assertEquals(expected.profit(), actual.profit(), 0.02 + 1e-9, context);
+		assertEquals(expected.taxBenefit(), actual.taxBenefit(), 0.01 + 1e-9, context);
+	}
+}
@@ -0,0 +1,152 @@
+package com.example.retirementsavings.service;
+
+import com.example.retirementsavings.api.dto.ExpenseInput;
+import com.example.retirementsavings.api.dto.InvalidTransactionOutput;
+import com.example.retirementsavings.api.dto.TransactionOutput;
+import com.example.retirementsavings.api.dto.TransactionValidationRequest;
+import com.example.retirementsavings.api.dto.TransactionValidationResponse;
+import com.example.retirementsavings.api.dto.ValidatedTransactionOutput;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionStreamServiceTest {
+
+	private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	private final JsonMapper jsonMapper = new JsonMapper();
+	private final TransactionStreamService service = new TransactionStreamService(
+			new TransactionBuilder(),
+			new TransactionValidator(new TransactionRulesService()),
+			jsonMapper
+	);
+
+	@Test
+	void writesOneTransactionPerExpenseLine() throws IOException {
+		String input = """
+				{"date":"2023-10-12 20:15:30","amount":250}
+				{"date":"2023-02-28 15:49:20","amount":375}
+
+				{"date":"2023-07-01 21:59:00","amount":400}
+				""";
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		long count = service.parse(stream(input), output);
+
+		String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(3, count);
+		assertEquals(3, lines.length);
+		List<TransactionOutput> expected = new TransactionBuilder().getCeilingAndRemnantForTranscations(List.of(
+				new ExpenseInput(LocalDateTime.parse("2023-10-12 20:15:30", FORMAT), 250.0),
+				new ExpenseInput(LocalDateTime.parse("2023-02-28 15:49:20", FORMAT), 375.0),
+				new ExpenseInput(LocalDateTime.parse("2023-07-01 21:59:00", FORMAT), 400.0)
+		));
+		for (int i = 0; i < lines.length; i++) {
+			TransactionOutput actual = jsonMapper.readValue(lines[i], TransactionOutput.class);
+			assertEquals(expected.get(i).getDate(), actual.getDate());
+			assertEquals(expected.get(i).getAmount(), actual.getAmount());
+			assertEquals(expected.get(i).getCeiling(), actual.getCeiling());
+			assertEquals(expected.get(i).getRemanent(), actual.getRemanent());
+		}
+	}
+
+	@Test
+	void emptyStreamWritesNothing() throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		assertEquals(0, service.parse(stream(""), output));
+		assertEquals(0, output.size());
+	}
+
+	@Test
+	void rejectsRecordWithoutAmount() {
+		String input = """
+				{"date":"2023-10-12 20:15:30","amount":250}
+				{"date":"2023-02-28 15:49:20"}
+				""";
+
+		InvalidRequestException ex = assertThrows(
+				InvalidRequestException.class,
+				() -> service.parse(stream(input), new ByteArrayOutputStream())
+		);
+		assertEquals("Expense record #2 must have a date and an amount", ex.getMessage());
+	}
+
+	@Test
+	void rejectsMalformedRecord() {
+		String input = """
+				{"date":"2023-10-12 20:15:30","amount":250}
+				{"date":"2023-02-28 15:49:20","amount":
+				""";
+
+		assertThrows(InvalidRequestException.class, () -> service.parse(stream(input), new ByteArrayOutputStream()));
+	}
+
+	@Test
+	void tagsTransactionsLikeTheBufferedValidator() throws IOException {
+		String input = """
+				{"date":"2023-10-12 20:15:30","amount":250,"ceiling":300,"remanent":50}
+				{"date":"2023-10-12 20:15:30","amount":250,"ceiling":300,"remanent":50}
+				{"date":"2023-02-28 15:49:20","amount":375,"ceiling":400,"remanent":25}
+				{"date":"2023-07-01 21:59:00","amount":420,"ceiling":500,"remanent":80}
+				{"date":"2023-12-17 08:09:45","amount":-10,"ceiling":0,"remanent":10}
+				""";
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		TransactionStreamService.ValidationCounts counts = service.validate(200.0, stream(input), output);
+
+		List<TransactionOutput> transactions = List.of(
+				new TransactionOutput(LocalDateTime.parse("2023-10-12 20:15:30", FORMAT), 250.0, 300.0, 50.0),
+				new TransactionOutput(LocalDateTime.parse("2023-10-12 20:15:30", FORMAT), 250.0, 300.0, 50.0),
+				new TransactionOutput(LocalDateTime.parse("2023-02-28 15:49:20", FORMAT), 375.0, 400.0, 25.0),
+				new TransactionOutput(LocalDateTime.parse("2023-07-01 21:59:00", FORMAT), 420.0, 500.0, 80.0),
+				new TransactionOutput(LocalDateTime.parse("2023-12-17 08:09:45", FORMAT), -10.0, 0.0, 10.0)
+		);
+		TransactionValidationResponse expected = new TransactionValidator(new TransactionRulesService())
+				.validate(new TransactionValidationRequest(200.0, transactions));
+		String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(expected.valid().size(), counts.valid());
+		assertEquals(expected.invalid().size(), counts.invalid());
+		assertEquals(transactions.size(), lines.length);
+		int validIndex = 0;
+		int invalidIndex = 0;
+		for (String line : lines) {
+			ValidatedTransactionOutput actual = jsonMapper.readValue(line, ValidatedTransactionOutput.class);
+			TransactionOutput reference;
+			if (ValidatedTransactionOutput.VALID.equals(actual.status())) {
+				reference = expected.valid().get(validIndex++);
+				assertNull(actual.message());
+			} else {
+				assertEquals(ValidatedTransactionOutput.INVALID, actual.status());
+				reference = expected.invalid().get(invalidIndex++);
+				assertEquals(((InvalidTransactionOutput) reference).getMessage(), actual.message());
+			}
+			assertEquals(reference.getDate(), actual.date());
+			assertEquals(reference.getAmount(), actual.amount());
+			assertEquals(reference.getRemanent(), actual.remanent());
+		}
+	}
+
+	@Test
+	void rejectsNonPositiveWage() {
+		assertThrows(
+				InvalidRequestException.class,
+				() -> service.validate(0.0, stream(""), new ByteArrayOutputStream())
+		);
+	}
+
+	private static ByteArrayInputStream stream(String input) {
+		return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+	}
+}
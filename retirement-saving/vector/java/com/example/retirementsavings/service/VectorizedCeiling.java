@@ -0,0 +1,48 @@
+package com.example.retirementsavings.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD form of TransactionBuilder's ceiling/remanent rounding on the incubating Vector API. Lives in
+// the vector source set, the only code compiled with --add-modules jdk.incubator.vector, and is
+// loaded reflectively by TransactionBuilder only when that module is present at runtime.
+// The API has no ceil operation, so each lane rounds to an integer by adding and subtracting 2^52
+// with the lane's sign, steps up by one where that rounded below, and copies the sign back so
+// that e.g. -0.5 becomes -0.0. Lanes of 2^52 and above, infinities and NaN are already integral
+// and pass through. Division, multiplication and subtraction are the same IEEE operations as the
+// scalar path, so every ceiling and remanent is bit-identical to Math.ceil(amount / step) * step.
+final class VectorizedCeiling implements CeilingKernel {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	private static final double TWO_POW_52 = 0x1p52;
+	private static final long SIGN_BIT = Long.MIN_VALUE;
+
+	VectorizedCeiling() {
+	}
+
+	@Override
+	public void ceilingAndRemanent(double[] amount, double[] ceiling, double[] remanent, int from, int to, double step) {
+		DoubleVector twoPow52 = DoubleVector.broadcast(SPECIES, TWO_POW_52);
+		LongVector twoPow52Bits = (LongVector) twoPow52.viewAsIntegralLanes();
+		int i = from;
+		for (int upper = from + SPECIES.loopBound(to - from); i < upper; i += SPECIES.length()) {
+			DoubleVector amounts = DoubleVector.fromArray(SPECIES, amount, i);
+			DoubleVector quotient = amounts.div(step);
+			LongVector sign = ((LongVector) quotient.viewAsIntegralLanes()).and(SIGN_BIT);
+			DoubleVector shift = (DoubleVector) twoPow52Bits.or(sign).viewAsFloatingLanes();
+			DoubleVector rounded = quotient.add(shift).sub(shift);
+			rounded = rounded.add(1.0, rounded.lt(quotient));
+			rounded = (DoubleVector) ((LongVector) rounded.viewAsIntegralLanes()).or(sign).viewAsFloatingLanes();
+			VectorMask<Double> fractional = quotient.abs().lt(twoPow52);
+			DoubleVector ceilings = quotient.blend(rounded, fractional).mul(step);
+			ceilings.intoArray(ceiling, i);
+			ceilings.sub(amounts).intoArray(remanent, i);
+		}
+		for (; i < to; i++) {
+			ceiling[i] = Math.ceil(amount[i] / step) * step;
+			remanent[i] = ceiling[i] - amount[i];
+		}
+	}
+}